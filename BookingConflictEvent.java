@@ -0,0 +1,26 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted when a booking is refused because the room already
+ * has a reservation overlapping the requested dates.
+ */
+@Name("hrs.BookingConflict")
+@Label("Booking Conflict")
+@Category({"Hotel Reservation System", "Reservations"})
+@Description("A booking refused because of an overlapping reservation")
+public class BookingConflictEvent extends Event {
+    @Label("Hotel")
+    String hotel; // Name of the hotel
+
+    @Label("Room")
+    String room; // Name of the room that was requested
+
+    @Label("Check-In Date")
+    int checkInDate; // First night that was requested
+
+    @Label("Check-Out Date")
+    int checkOutDate; // Day the requested stay would end
+
+    @Label("Conflicting Reservation ID")
+    String conflictingReservationId; // Existing reservation that overlaps the request
+}
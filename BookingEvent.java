@@ -0,0 +1,35 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every call of {@link Hotel#createReservation},
+ * whether or not the reservation was made. The event duration is the time the
+ * booking attempt took.
+ */
+@Name("hrs.Booking")
+@Label("Booking Attempt")
+@Category({"Hotel Reservation System", "Reservations"})
+@Description("A request to book a room for a range of dates")
+public class BookingEvent extends Event {
+    @Label("Hotel")
+    String hotel; // Name of the hotel
+
+    @Label("Room")
+    String room; // Name of the room that was requested
+
+    @Label("Check-In Date")
+    int checkInDate; // First night of the stay
+
+    @Label("Check-Out Date")
+    int checkOutDate; // Day the guest leaves
+
+    @Label("Discount Code")
+    String discountCode; // Discount code given with the request, if any
+
+    @Label("Outcome")
+    @Description("BOOKED, CONFLICT when the room was taken, INVALID_DATES, or TOO_LONG_TO_STORE when the"
+            + " reservation ID, guest name and discount code do not fit an off-heap record")
+    String outcome; // Result of the attempt
+
+    @Label("Reservation ID")
+    String reservationId; // ID of the new reservation when the room was booked
+}
@@ -0,0 +1,105 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free queue for many producer threads and a single consumer thread.
+ * <p>
+ * Elements live in a ring buffer whose slots each carry a sequence number. A producer claims
+ * a slot by advancing the shared tail with one compare-and-set and then publishes the element
+ * by bumping the slot's sequence; the consumer owns the head outright and never needs an
+ * atomic update. When the ring is full {@link #offer(Object)} fails instead of blocking, so
+ * the caller decides how to apply back-pressure.
+ *
+ * @param <E> The type of the elements.
+ */
+public class BoundedMpscQueue<E> {
+    private final AtomicReferenceArray<E> elements; // Ring buffer of elements
+    private final AtomicLongArray sequences;        // Sequence of each slot, tells producers and consumer whose turn it is
+    private final int mask;                         // Capacity - 1, to wrap positions onto slots
+    private final AtomicLong tail;                  // Next position to be claimed by a producer
+    private long head;                              // Next position to be read, only touched by the consumer
+
+    /**
+     * Constructs an empty BoundedMpscQueue.
+     *
+     * @param capacity The minimum number of elements the queue can hold; rounded up to a power of two.
+     * @throws IllegalArgumentException If the capacity is not positive or too large.
+     */
+    public BoundedMpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1; // Round up to a power of two
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i); // Slot i is free for the producer claiming position i
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * Adds an element to the queue if there is room. May be called from any thread.
+     *
+     * @param element The element to add, not null.
+     * @return true if the element was added, false if the queue is full.
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                // The slot is free for this position; claim it before another producer does
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // Publish the element to the consumer
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // The consumer has not freed the slot yet: the queue is full
+            }
+            // Otherwise another producer claimed the position first; try the next one
+        }
+    }
+
+    /**
+     * Removes the oldest element of the queue. Must only be called from the consumer thread.
+     *
+     * @return The element, or null if the queue is empty.
+     */
+    public E poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null; // No element has been published at this position yet
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.set(slot, head + mask + 1); // Free the slot for the producer one lap ahead
+        head++;
+        return element;
+    }
+
+    /**
+     * Checks whether the queue holds no elements. Exact when called from the consumer thread.
+     *
+     * @return true if the queue is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * Gets the number of elements the queue can hold.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the hits, misses, evictions and invalidations of a kind of cache, summed over every
+ * cache of that kind. Counters are {@link LongAdder}s, so recording never blocks the caller.
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+    private final String name;              // Name of the cache
+    private final LongAdder hits;           // Lookups answered from the cache
+    private final LongAdder misses;         // Lookups that had to be computed
+    private final LongAdder evictions;      // Entries dropped to make room
+    private final LongAdder invalidations;  // Entries dropped because their prices changed
+
+    /**
+     * Constructs a CacheMetrics for the cache with the given name.
+     *
+     * @param name The name of the cache.
+     */
+    public CacheMetrics(String name) {
+        this.name = name;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.invalidations = new LongAdder();
+    }
+
+    /**
+     * Records a lookup. Does nothing when metrics are disabled.
+     *
+     * @param hit Whether the lookup was answered from the cache.
+     */
+    public void recordLookup(boolean hit) {
+        if (ReservationMetrics.ENABLED) {
+            (hit ? hits : misses).increment();
+        }
+    }
+
+    /**
+     * Records an eviction. Does nothing when metrics are disabled.
+     */
+    public void recordEviction() {
+        if (ReservationMetrics.ENABLED) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Records invalidated entries. Does nothing when metrics are disabled.
+     *
+     * @param count The number of entries invalidated.
+     */
+    public void recordInvalidations(int count) {
+        if (ReservationMetrics.ENABLED && count > 0) {
+            invalidations.add(count);
+        }
+    }
+
+    /**
+     * Gets the name of the cache.
+     *
+     * @return The cache name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : hitCount / (double) lookups;
+    }
+
+    @Override
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Management interface of {@link CacheMetrics}, exposed through JMX.
+ */
+public interface CacheMetricsMBean {
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    long getHits();
+
+    /**
+     * Gets the number of lookups that had to be computed.
+     *
+     * @return The number of misses.
+     */
+    long getMisses();
+
+    /**
+     * Gets the number of entries dropped to make room for new ones.
+     *
+     * @return The number of evictions.
+     */
+    long getEvictions();
+
+    /**
+     * Gets the number of entries dropped because the prices they hold changed.
+     *
+     * @return The number of invalidations.
+     */
+    long getInvalidations();
+
+    /**
+     * Gets the share of lookups answered from the cache.
+     *
+     * @return The hit ratio from 0 to 1, or 0 before the first lookup.
+     */
+    double getHitRatio();
+
+    /**
+     * Clears the counts recorded so far.
+     */
+    void reset();
+}
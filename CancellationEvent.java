@@ -0,0 +1,29 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every call of {@link Hotel#cancelReservation}.
+ * The event duration is the time the cancellation took.
+ */
+@Name("hrs.Cancellation")
+@Label("Cancellation")
+@Category({"Hotel Reservation System", "Reservations"})
+@Description("A request to cancel a reservation")
+public class CancellationEvent extends Event {
+    @Label("Hotel")
+    String hotel; // Name of the hotel
+
+    @Label("Room")
+    String room; // Name of the reserved room
+
+    @Label("Reservation ID")
+    String reservationId; // ID of the reservation to cancel
+
+    @Label("Check-In Date")
+    int checkInDate; // First night of the cancelled stay
+
+    @Label("Check-Out Date")
+    int checkOutDate; // Day the cancelled stay would have ended
+
+    @Label("Cancelled")
+    boolean cancelled; // Whether the reservation was found and removed
+}
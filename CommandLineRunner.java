@@ -0,0 +1,790 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The CommandLineRunner class runs the hotel reservation system without a GUI.
+ * Commands are read either from the command line arguments or from a command file,
+ * executed directly against a HotelReservationSystem, and their results are written
+ * to the output as soon as each command finishes.
+ * <p>
+ * This class must not reference any Swing or AWT type so that batch jobs never load
+ * the windowing toolkit.
+ */
+public class CommandLineRunner {
+    private final HotelReservationSystem hrs; // The system the commands are executed against
+    private final PrintWriter out;            // Destination of command results
+    private int failedCommands;               // Number of commands that did not succeed
+
+    /**
+     * Constructs a CommandLineRunner that executes commands against the given system.
+     *
+     * @param hrs The hotel reservation system to run the commands against.
+     * @param out The writer that receives the command results.
+     */
+    public CommandLineRunner(HotelReservationSystem hrs, PrintWriter out) {
+        this.hrs = hrs;
+        this.out = out;
+    }
+
+    /**
+     * Runs the headless mode with the given command line arguments.
+     * <p>
+     * Usage:
+     * <pre>
+     *   --batch &lt;file&gt;         run the commands in the file, one per line ("-" reads standard input)
+     *   &lt;command&gt; [; &lt;command&gt;...]  run the commands given as arguments, separated by ";"
+     * </pre>
+     *
+     * @param args The command line arguments, without the leading "--headless" flag.
+     * @return The process exit code: 0 if every command succeeded, 1 otherwise.
+     */
+    public static int run(String[] args) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), false);
+        CommandLineRunner runner = new CommandLineRunner(new HotelReservationSystem(), out);
+
+        try {
+            if (args.length == 2 && args[0].equals("--batch")) {
+                // Stream the command file line by line instead of loading it in memory
+                try (BufferedReader reader = args[1].equals("-")
+                        ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                        : new BufferedReader(new FileReader(args[1], StandardCharsets.UTF_8))) {
+                    runner.runScript(reader);
+                }
+            } else if (args.length == 0) {
+                runner.printUsage();
+            } else {
+                // Commands given as arguments are separated by a lone ";"
+                List<String> tokens = new ArrayList<>();
+                for (String arg : args) {
+                    if (arg.equals(";")) {
+                        runner.execute(tokens);
+                        tokens.clear();
+                    } else {
+                        tokens.add(arg);
+                    }
+                }
+                runner.execute(tokens);
+            }
+        } catch (IOException e) {
+            out.println("ERROR cannot read commands: " + e.getMessage());
+            runner.failedCommands++;
+        }
+
+        for (Hotel hotel : runner.hrs.getHotelList()) {
+            if (hotel.getOffHeapStore() != null) {
+                hotel.getOffHeapStore().force(); // Leave file-backed stores complete on disk
+            }
+        }
+        out.flush();
+        return runner.failedCommands == 0 ? 0 : 1;
+    }
+
+    /**
+     * Executes every command read from the given reader. Blank lines and lines starting
+     * with '#' are ignored.
+     *
+     * @param reader The reader to read the commands from.
+     * @throws IOException If the commands cannot be read.
+     */
+    public void runScript(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue; // Skip blank lines and comments
+            }
+            execute(tokenize(trimmed));
+        }
+    }
+
+    /**
+     * Executes a single command and writes its result.
+     *
+     * @param tokens The command name followed by its arguments.
+     * @return true if the command succeeded, false otherwise.
+     */
+    public boolean execute(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return true; // Nothing to run
+        }
+
+        boolean success;
+        try {
+            success = switch (tokens.get(0)) {
+                case "create-hotel" -> createHotel(tokens);
+                case "add-rooms" -> addRooms(tokens);
+                case "book" -> book(tokens);
+                case "cancel" -> cancel(tokens);
+                case "waitlist" -> waitlist(tokens);
+                case "optimize" -> optimize(tokens);
+                case "pricing" -> pricing(tokens);
+                case "storage" -> storage(tokens);
+                case "arrivals" -> arrivals(tokens, true);
+                case "departures" -> arrivals(tokens, false);
+                case "guest" -> guest(tokens);
+                case "quote" -> quote(tokens);
+                case "price" -> price(tokens);
+                case "availability" -> availability(tokens);
+                case "tag" -> tag(tokens);
+                case "find" -> find(tokens);
+                case "report" -> report(tokens);
+                case "analytics" -> analytics(tokens);
+                case "export" -> export(tokens);
+                case "metrics" -> printMetrics();
+                case "help" -> printUsage();
+                default -> fail("unknown command '" + tokens.get(0) + "'");
+            };
+        } catch (NumberFormatException e) {
+            success = fail("invalid number in '" + String.join(" ", tokens) + "'");
+        } catch (IllegalArgumentException e) {
+            success = fail(e.getMessage());
+        }
+
+        out.flush(); // Make every result visible as soon as the command completes
+        return success;
+    }
+
+    /**
+     * Handles "create-hotel &lt;name&gt; [max rooms] [rooms per floor] [horizon days]".
+     *
+     * @param tokens The command tokens.
+     * @return true if the hotel was created, false otherwise.
+     */
+    private boolean createHotel(List<String> tokens) {
+        requireArguments(tokens, 2, "create-hotel <name> [max rooms] [rooms per floor] [horizon days]");
+        String hotelName = tokens.get(1);
+        int maxRooms = tokens.size() > 2 ? Integer.parseInt(tokens.get(2)) : Hotel.DEFAULT_MAX_ROOMS;
+        int roomsPerFloor = tokens.size() > 3 ? Integer.parseInt(tokens.get(3)) : Hotel.DEFAULT_ROOMS_PER_FLOOR;
+        int horizonDays = tokens.size() > 4 ? Integer.parseInt(tokens.get(4)) : Hotel.DEFAULT_HORIZON_DAYS;
+        if (!hrs.addHotel(hotelName, maxRooms, roomsPerFloor, horizonDays)) {
+            return fail("cannot create hotel '" + hotelName + "'");
+        }
+        out.println("OK created hotel " + hotelName);
+        return true;
+    }
+
+    /**
+     * Handles "add-rooms &lt;hotel&gt; &lt;count&gt; &lt;type&gt;".
+     *
+     * @param tokens The command tokens.
+     * @return true if the rooms were added, false otherwise.
+     */
+    private boolean addRooms(List<String> tokens) {
+        requireArguments(tokens, 4, "add-rooms <hotel> <count> <STANDARD|DELUXE|EXECUTIVE>");
+        Hotel hotel = findHotel(tokens.get(1));
+        int count = Integer.parseInt(tokens.get(2));
+        Room.RoomType type = Room.RoomType.valueOf(tokens.get(3).toUpperCase());
+
+        if (!hrs.addRoomsToHotel(hotel, count, type)) {
+            return fail("cannot add " + count + " " + type + " rooms to " + hotel.getName());
+        }
+        out.println("OK added " + count + " " + type + " rooms to " + hotel.getName());
+        return true;
+    }
+
+    /**
+     * Handles "book &lt;hotel&gt; &lt;room&gt; &lt;guest&gt; &lt;check-in&gt; &lt;check-out&gt; [discount code]".
+     *
+     * @param tokens The command tokens.
+     * @return true if the reservation was created, false otherwise.
+     */
+    private boolean book(List<String> tokens) {
+        requireArguments(tokens, 6, "book <hotel> <room> <guest> <check-in> <check-out> [discount code]");
+        Hotel hotel = findHotel(tokens.get(1));
+        Room room = findRoom(hotel, tokens.get(2));
+        String guestName = tokens.get(3);
+        int checkInDate = Integer.parseInt(tokens.get(4));
+        int checkOutDate = Integer.parseInt(tokens.get(5));
+        String discountCode = tokens.size() > 6 ? tokens.get(6) : null;
+
+        if (!hotel.createReservation(guestName, checkInDate, checkOutDate, room, discountCode)) {
+            return fail("cannot book " + room.getName() + " in " + hotel.getName()
+                    + " from " + checkInDate + " to " + checkOutDate);
+        }
+
+        // The newest reservation of the room is the one that was just created
+        List<Reservation> roomReservations = room.getReservationsList();
+        Reservation reservation = roomReservations.get(roomReservations.size() - 1);
+        out.printf("OK booked %s total=%s%n", reservation.getReservationID(), Money.format(reservation.getTotalPriceCentavos()));
+        return true;
+    }
+
+    /**
+     * Handles "waitlist &lt;hotel&gt; &lt;room type&gt; &lt;guest&gt; &lt;check-in&gt; &lt;check-out&gt; [discount code]".
+     *
+     * @param tokens The command tokens.
+     * @return true if the request was put on the waitlist, false otherwise.
+     */
+    private boolean waitlist(List<String> tokens) {
+        requireArguments(tokens, 6, "waitlist <hotel> <room type> <guest> <check-in> <check-out> [discount code]");
+        Hotel hotel = findHotel(tokens.get(1));
+        Room.RoomType type = Room.RoomType.valueOf(tokens.get(2).toUpperCase());
+        int checkInDate = Integer.parseInt(tokens.get(4));
+        int checkOutDate = Integer.parseInt(tokens.get(5));
+        String discountCode = tokens.size() > 6 ? tokens.get(6) : null;
+
+        if (hotel.addToWaitlist(tokens.get(3), checkInDate, checkOutDate, type, discountCode) == null) {
+            return fail("cannot waitlist " + type + " in " + hotel.getName()
+                    + " from " + checkInDate + " to " + checkOutDate);
+        }
+        out.println("OK waitlisted " + tokens.get(3) + " for " + type + " in " + hotel.getName()
+                + " (" + hotel.getWaitlist().size() + " waiting)");
+        return true;
+    }
+
+    /**
+     * Handles "optimize &lt;hotel&gt; &lt;today&gt; [window days]".
+     *
+     * @param tokens The command tokens.
+     * @return Always true.
+     */
+    private boolean optimize(List<String> tokens) {
+        requireArguments(tokens, 3, "optimize <hotel> <today> [window days]");
+        Hotel hotel = findHotel(tokens.get(1));
+        int today = Integer.parseInt(tokens.get(2));
+        int windowDays = tokens.size() > 3 ? Integer.parseInt(tokens.get(3)) : hotel.getHorizonDays();
+
+        RoomAssignmentReport report = hotel.optimizeRoomAssignments(today, windowDays);
+        out.println("OK moved " + report.getMovedReservations() + " reservations, recovered "
+                + report.getRecoveredRoomNights() + " room-nights (" + report.getStrandedNightsBefore()
+                + " -> " + report.getStrandedNightsAfter() + " stranded)");
+        return true;
+    }
+
+    /**
+     * Handles "pricing &lt;hotel&gt; &lt;on|off&gt;", which turns dynamic pricing on or off.
+     *
+     * @param tokens The command tokens.
+     * @return true if the setting was understood, false otherwise.
+     */
+    private boolean pricing(List<String> tokens) {
+        requireArguments(tokens, 3, "pricing <hotel> <on|off>");
+        Hotel hotel = findHotel(tokens.get(1));
+        switch (tokens.get(2)) {
+            case "on" -> hotel.setDynamicPricing(true);
+            case "off" -> hotel.setDynamicPricing(false);
+            default -> {
+                return fail("pricing must be 'on' or 'off'");
+            }
+        }
+        out.println("OK dynamic pricing " + tokens.get(2) + " for " + hotel.getName());
+        return true;
+    }
+
+    /**
+     * Handles "storage &lt;hotel&gt; &lt;heap|memory|file&gt; [file]", which keeps the hotel's
+     * reservations on the heap, off-heap in direct memory, or off-heap in a file that is
+     * booked back from when it is opened again.
+     *
+     * @param tokens The command tokens.
+     * @return true if the storage was changed, false otherwise.
+     */
+    private boolean storage(List<String> tokens) {
+        requireArguments(tokens, 3, "storage <hotel> <heap|memory|file> [file]");
+        Hotel hotel = findHotel(tokens.get(1));
+        boolean changed;
+        try {
+            switch (tokens.get(2)) {
+                case "heap" -> changed = hotel.storeReservationsOnHeap();
+                case "memory" -> changed = hotel.storeReservationsOffHeap(OffHeapReservationStore.DEFAULT_CAPACITY);
+                case "file" -> {
+                    requireArguments(tokens, 4, "storage <hotel> file <file>");
+                    changed = hotel.storeReservationsOffHeap(Path.of(tokens.get(3)), OffHeapReservationStore.DEFAULT_CAPACITY);
+                }
+                default -> {
+                    return fail("storage must be 'heap', 'memory' or 'file'");
+                }
+            }
+        } catch (IOException e) {
+            return fail("cannot use reservation store: " + e.getMessage());
+        }
+        if (!changed) {
+            return fail("cannot move the reservations of " + hotel.getName() + " to " + tokens.get(2) + " storage");
+        }
+        out.println("OK " + hotel.getName() + " keeps " + hotel.getReservationsList().size()
+                + " reservations in " + tokens.get(2) + " storage");
+        return true;
+    }
+
+    /**
+     * Handles "arrivals &lt;hotel&gt; &lt;day&gt;" and "departures &lt;hotel&gt; &lt;day&gt;".
+     *
+     * @param tokens   The command tokens.
+     * @param arriving true to list check-ins on the day, false to list check-outs.
+     * @return Always true.
+     */
+    private boolean arrivals(List<String> tokens, boolean arriving) {
+        requireArguments(tokens, 3, (arriving ? "arrivals" : "departures") + " <hotel> <day>");
+        Hotel hotel = findHotel(tokens.get(1));
+        int day = Integer.parseInt(tokens.get(2));
+
+        ReservationIndex index = hotel.getReservationIndex();
+        List<Reservation> reservations = arriving ? index.findArrivals(day) : index.findDepartures(day);
+        out.println((arriving ? "ARRIVALS " : "DEPARTURES ") + hotel.getName() + " day=" + day
+                + " count=" + reservations.size());
+        for (Reservation reservation : reservations) {
+            out.printf("  %s guest=%s room=%s %d-%d%n", reservation.getReservationID(), reservation.getGuestName(),
+                    reservation.getRoom().getName(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+        }
+        return true;
+    }
+
+    /**
+     * Handles "quote &lt;hotel&gt; &lt;check-in&gt; &lt;check-out&gt;" by writing the price of the stay,
+     * before discounts, in every room of the hotel, whether or not the room is free.
+     *
+     * @param tokens The command tokens.
+     * @return true if the stay is valid, false otherwise.
+     */
+    private boolean quote(List<String> tokens) {
+        requireArguments(tokens, 4, "quote <hotel> <check-in> <check-out>");
+        Hotel hotel = findHotel(tokens.get(1));
+        int checkInDate = Integer.parseInt(tokens.get(2));
+        int checkOutDate = Integer.parseInt(tokens.get(3));
+        if (!hotel.isValidStay(checkInDate, checkOutDate)) {
+            return fail("invalid stay " + checkInDate + "-" + checkOutDate + " for " + hotel.getName());
+        }
+
+        long startTime = System.nanoTime();
+        QuoteTable table = hotel.quoteRates();
+        long elapsedMicros = (System.nanoTime() - startTime) / 1_000;
+        out.printf("QUOTE %s %d-%d rooms=%d nights=%d kernel=%s time=%dus%n", hotel.getName(), checkInDate,
+                checkOutDate, table.getRoomCount(), table.getNights(), table.getKernel(), elapsedMicros);
+        for (int i = 0; i < table.getRoomCount(); i++) {
+            out.printf("  %s %s total=%s%n", table.getRoom(i).getName(), table.getRoom(i).getType(),
+                    Money.format(table.getStayTotalCentavos(i, checkInDate, checkOutDate)));
+        }
+        return true;
+    }
+
+    /**
+     * Handles "price &lt;hotel&gt; &lt;room&gt; &lt;check-in&gt; &lt;check-out&gt; [discount code]" by
+     * writing what the stay would cost, answered from the hotel's quote cache when it was
+     * asked for before.
+     *
+     * @param tokens The command tokens.
+     * @return true if the stay was priced, false otherwise.
+     */
+    private boolean price(List<String> tokens) {
+        requireArguments(tokens, 5, "price <hotel> <room> <check-in> <check-out> [discount code]");
+        Hotel hotel = findHotel(tokens.get(1));
+        Room room = findRoom(hotel, tokens.get(2));
+        int checkInDate = Integer.parseInt(tokens.get(3));
+        int checkOutDate = Integer.parseInt(tokens.get(4));
+        String discountCode = tokens.size() > 5 ? tokens.get(5) : null;
+        if (!hotel.isValidStay(checkInDate, checkOutDate)) {
+            return fail("invalid stay " + checkInDate + "-" + checkOutDate + " for " + hotel.getName());
+        }
+
+        long total = hotel.quoteStayCentavos(room, checkInDate, checkOutDate, discountCode);
+        out.printf("PRICE %s %s %d-%d total=%s%n", hotel.getName(), room.getName(), checkInDate, checkOutDate,
+                Money.format(total));
+        return true;
+    }
+
+    /**
+     * Handles "availability &lt;type&gt; &lt;check-in&gt; &lt;check-out&gt;" by writing every hotel
+     * with a room of the type free on each night of the stay, and how many.
+     *
+     * @param tokens The command tokens.
+     * @return true if at least one hotel has a room free, false otherwise.
+     */
+    private boolean availability(List<String> tokens) {
+        requireArguments(tokens, 4, "availability <STANDARD|DELUXE|EXECUTIVE> <check-in> <check-out>");
+        Room.RoomType type = Room.RoomType.valueOf(tokens.get(1).toUpperCase());
+        int checkInDate = Integer.parseInt(tokens.get(2));
+        int checkOutDate = Integer.parseInt(tokens.get(3));
+
+        Collection<Hotel> hotels = hrs.getAvailableHotels(type, checkInDate, checkOutDate);
+        if (hotels.isEmpty()) {
+            return fail("no " + type + " room free from " + checkInDate + " to " + checkOutDate);
+        }
+        for (Hotel hotel : hotels) {
+            out.printf("AVAILABLE %s %s %d-%d free=%d%n", hotel.getName(), type, checkInDate, checkOutDate,
+                    hotel.getAvailableRoomCount(type, checkInDate, checkOutDate));
+        }
+        return true;
+    }
+
+    /**
+     * Handles "tag &lt;hotel&gt; &lt;room&gt; &lt;attribute&gt; [on|off]" by giving a room an
+     * attribute, or taking it away with "off".
+     *
+     * @param tokens The command tokens.
+     * @return Always true.
+     */
+    private boolean tag(List<String> tokens) {
+        requireArguments(tokens, 4, "tag <hotel> <room> <attribute> [on|off]");
+        Hotel hotel = findHotel(tokens.get(1));
+        Room room = findRoom(hotel, tokens.get(2));
+        String attribute = tokens.get(3);
+        boolean value = tokens.size() <= 4 || !tokens.get(4).equalsIgnoreCase("off");
+
+        hotel.setRoomAttribute(room, attribute, value);
+        out.println("OK " + (value ? "tagged " : "untagged ") + room.getName() + " " + attribute);
+        return true;
+    }
+
+    /**
+     * Handles "find &lt;hotel&gt; &lt;type|ANY&gt; &lt;min floor&gt; &lt;max floor&gt; &lt;check-in&gt;
+     * &lt;check-out&gt; [attribute...]" by writing the rooms that match and are free for the stay.
+     *
+     * @param tokens The command tokens.
+     * @return true if at least one room matches, false otherwise.
+     */
+    private boolean find(List<String> tokens) {
+        requireArguments(tokens, 7,
+                "find <hotel> <STANDARD|DELUXE|EXECUTIVE|ANY> <min floor> <max floor> <check-in> <check-out> [attribute...]");
+        Hotel hotel = findHotel(tokens.get(1));
+        Room.RoomType type = tokens.get(2).equalsIgnoreCase("ANY") ? null
+                : Room.RoomType.valueOf(tokens.get(2).toUpperCase());
+        int minFloor = Integer.parseInt(tokens.get(3));
+        int maxFloor = Integer.parseInt(tokens.get(4));
+        int checkInDate = Integer.parseInt(tokens.get(5));
+        int checkOutDate = Integer.parseInt(tokens.get(6));
+        List<String> attributes = tokens.subList(7, tokens.size());
+
+        List<Room> rooms = hotel.findAvailableRooms(type, minFloor, maxFloor, attributes, checkInDate, checkOutDate);
+        if (rooms.isEmpty()) {
+            return fail("no matching room free in " + hotel.getName() + " from " + checkInDate + " to " + checkOutDate);
+        }
+        for (Room room : rooms) {
+            out.printf("FOUND %s %s floor=%d%n", room.getName(), room.getType(), room.getFloor());
+        }
+        return true;
+    }
+
+    /**
+     * Handles "guest &lt;guest&gt;" by writing the guest's stays in every hotel.
+     *
+     * @param tokens The command tokens.
+     * @return true if the guest has reservations, false otherwise.
+     */
+    private boolean guest(List<String> tokens) {
+        requireArguments(tokens, 2, "guest <guest>");
+        GuestProfile profile = hrs.getGuestRegistry().getProfile(tokens.get(1));
+        if (profile == null) {
+            return fail("no reservations for guest " + tokens.get(1));
+        }
+
+        List<Reservation> stays = profile.getStays();
+        out.printf("GUEST %s stays=%d nights=%d lifetime=%s%n", profile.getDisplayName(), stays.size(),
+                profile.getTotalNights(), Money.format(profile.getLifetimeValueCentavos()));
+        for (Reservation reservation : stays) {
+            out.printf("  %s hotel=%s room=%s %d-%d total=%s%n", reservation.getReservationID(),
+                    reservation.getHotel().getName(), reservation.getRoom().getName(), reservation.getCheckInDate(),
+                    reservation.getCheckOutDate(), Money.format(reservation.getTotalPriceCentavos()));
+        }
+        return true;
+    }
+
+    /**
+     * Handles "cancel &lt;hotel&gt; &lt;reservation id&gt;".
+     *
+     * @param tokens The command tokens.
+     * @return true if the reservation was cancelled, false otherwise.
+     */
+    private boolean cancel(List<String> tokens) {
+        requireArguments(tokens, 3, "cancel <hotel> <reservation id>");
+        Hotel hotel = findHotel(tokens.get(1));
+        String reservationId = tokens.get(2);
+
+        Reservation reservation = hotel.findReservation(reservationId);
+        if (reservation == null) {
+            return fail("no reservation " + reservationId + " in " + hotel.getName());
+        }
+        int waiting = hotel.getWaitlist().size();
+        if (!hotel.cancelReservation(reservation)) {
+            return fail("cannot cancel " + reservationId);
+        }
+        out.println("OK cancelled " + reservationId + " (" + (waiting - hotel.getWaitlist().size())
+                + " waitlisted booked)");
+        return true;
+    }
+
+    /**
+     * Handles "report [hotel]". Without a hotel, one summary line is written per hotel;
+     * with a hotel, its reservations are listed as well.
+     *
+     * @param tokens The command tokens.
+     * @return Always true.
+     */
+    private boolean report(List<String> tokens) {
+        if (tokens.size() > 1) {
+            Hotel hotel = findHotel(tokens.get(1));
+            printHotelSummary(hotel);
+            for (Reservation reservation : hotel.getReservationsList()) {
+                out.printf("  %s guest=%s room=%s %d-%d total=%s%n",
+                        reservation.getReservationID(), reservation.getGuestName(),
+                        reservation.getRoom().getName(), reservation.getCheckInDate(),
+                        reservation.getCheckOutDate(), Money.format(reservation.getTotalPriceCentavos()));
+            }
+        } else {
+            for (Hotel hotel : hrs.getHotelList()) {
+                printHotelSummary(hotel);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handles "analytics [hotel]" by writing the average daily rate and the revenue of each
+     * discount code, scanned in parallel from the reservation columns, and for one hotel also
+     * its busiest night.
+     *
+     * @param tokens The command tokens.
+     * @return Always true.
+     */
+    private boolean analytics(List<String> tokens) {
+        ReservationColumns columns = hrs.getReservationColumns();
+        Hotel hotel = tokens.size() > 1 ? findHotel(tokens.get(1)) : null;
+
+        out.printf("ANALYTICS %s reservations=%d adr=%s%n", hotel == null ? "all" : hotel.getName(),
+                hotel == null ? columns.size() : columns.size(hotel), Money.format(columns.averageDailyRateCentavos(hotel, true)));
+        long[] revenue = columns.revenueByDiscountCode(hotel, true);
+        for (int code = 0; code < revenue.length; code++) {
+            String name = columns.getDiscountCode(code);
+            out.printf("  code=%s revenue=%s%n", name == null ? "none" : name, Money.format(revenue[code]));
+        }
+        if (hotel != null) {
+            long[] booked = columns.occupancy(hotel, true);
+            int busiest = 1;
+            for (int night = 2; night < booked.length; night++) {
+                if (booked[night] > booked[busiest]) {
+                    busiest = night;
+                }
+            }
+            out.printf("  busiest night=%d booked=%d%n", busiest, booked[busiest]);
+        }
+        return true;
+    }
+
+    /**
+     * Handles "export &lt;reservations|occupancy|revenue&gt; &lt;csv|json&gt; &lt;file|-&gt; [hotel]".
+     * The report is streamed to the file, or to the standard output for "-", for one hotel
+     * or for every hotel of the system.
+     *
+     * @param tokens The command tokens.
+     * @return true if the report was written, false otherwise.
+     */
+    private boolean export(List<String> tokens) {
+        requireArguments(tokens, 4, "export <reservations|occupancy|revenue> <csv|json> <file|-> [hotel]");
+        String report = tokens.get(1).toLowerCase(Locale.ROOT);
+        if (!report.equals("reservations") && !report.equals("occupancy") && !report.equals("revenue")) {
+            return fail("unknown report '" + tokens.get(1) + "'");
+        }
+        ReportExporter.Format format = switch (tokens.get(2).toLowerCase(Locale.ROOT)) {
+            case "csv" -> ReportExporter.Format.CSV;
+            case "json" -> ReportExporter.Format.JSON;
+            default -> null;
+        };
+        if (format == null) {
+            return fail("unknown format '" + tokens.get(2) + "'");
+        }
+        List<Hotel> hotels = tokens.size() > 4 ? List.of(findHotel(tokens.get(4))) : hrs.getHotelSnapshot();
+
+        String target = tokens.get(3);
+        long rows;
+        try {
+            if (target.equals("-")) {
+                out.flush(); // Keep earlier results ahead of the report
+                rows = export(new ReportExporter(Channels.newChannel(System.out), format), report, hotels);
+                System.out.flush();
+            } else {
+                try (WritableByteChannel channel = FileChannel.open(Path.of(target), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    rows = export(new ReportExporter(channel, format), report, hotels);
+                }
+            }
+        } catch (IOException e) {
+            return fail("cannot write " + target + ": " + e.getMessage());
+        }
+        out.println("OK exported " + rows + " " + report + " rows to " + target);
+        return true;
+    }
+
+    /**
+     * Writes one report with an exporter.
+     *
+     * @param exporter The exporter.
+     * @param report   The report name: reservations, occupancy or revenue.
+     * @param hotels   The hotels to export.
+     * @return The number of rows written.
+     * @throws IOException If the report cannot be written.
+     */
+    private static long export(ReportExporter exporter, String report, List<Hotel> hotels) throws IOException {
+        return switch (report) {
+            case "reservations" -> exporter.exportReservations(hotels);
+            case "occupancy" -> exporter.exportOccupancy(hotels);
+            default -> exporter.exportRevenue(hotels);
+        };
+    }
+
+    /**
+     * Writes the one-line summary of a hotel.
+     *
+     * @param hotel The hotel to summarize.
+     */
+    private void printHotelSummary(Hotel hotel) {
+        out.printf("HOTEL %s rooms=%d available=%d reservations=%d waitlisted=%d earnings=%s%n",
+                hotel.getName(), hotel.getRoomsList().size(), hotel.getAvailableRoomsCount(),
+                hotel.getReservationsList().size(), hotel.getWaitlist().size(),
+                Money.format(hotel.getActualEarningsCentavos()));
+    }
+
+    /**
+     * Handles "metrics" by writing the counts and latencies of every instrumented operation.
+     *
+     * @return Always true.
+     */
+    private boolean printMetrics() {
+        if (!ReservationMetrics.ENABLED) {
+            out.println("METRICS disabled");
+            return true;
+        }
+        for (OperationMetrics metrics : ReservationMetrics.getAll()) {
+            out.printf("METRICS %s count=%d success=%d failure=%d p50=%.1fus p99=%.1fus p999=%.1fus%n",
+                    metrics.getName(), metrics.getCount(), metrics.getSuccessCount(), metrics.getFailureCount(),
+                    metrics.getP50Micros(), metrics.getP99Micros(), metrics.getP999Micros());
+        }
+        CacheMetrics cache = ReservationMetrics.QUOTE_CACHE;
+        out.printf("METRICS %s hits=%d misses=%d evictions=%d invalidations=%d hit-ratio=%.3f%n", cache.getName(),
+                cache.getHits(), cache.getMisses(), cache.getEvictions(), cache.getInvalidations(), cache.getHitRatio());
+        return true;
+    }
+
+    /**
+     * Writes the list of supported commands.
+     *
+     * @return Always true.
+     */
+    private boolean printUsage() {
+        out.println("Usage: java Main --headless --batch <file|->");
+        out.println("       java Main --headless <command> [; <command>...]");
+        out.println("Commands:");
+        out.println("  create-hotel <name> [max rooms] [rooms per floor] [horizon days]");
+        out.println("  add-rooms <hotel> <count> <STANDARD|DELUXE|EXECUTIVE>");
+        out.println("  book <hotel> <room> <guest> <check-in> <check-out> [discount code]");
+        out.println("  waitlist <hotel> <room type> <guest> <check-in> <check-out> [discount code]");
+        out.println("  cancel <hotel> <reservation id>");
+        out.println("  optimize <hotel> <today> [window days]");
+        out.println("  pricing <hotel> <on|off>");
+        out.println("  storage <hotel> <heap|memory|file> [file]");
+        out.println("  arrivals <hotel> <day>");
+        out.println("  departures <hotel> <day>");
+        out.println("  guest <guest>");
+        out.println("  quote <hotel> <check-in> <check-out>");
+        out.println("  price <hotel> <room> <check-in> <check-out> [discount code]");
+        out.println("  availability <STANDARD|DELUXE|EXECUTIVE> <check-in> <check-out>");
+        out.println("  tag <hotel> <room> <attribute> [on|off]");
+        out.println("  find <hotel> <STANDARD|DELUXE|EXECUTIVE|ANY> <min floor> <max floor> <check-in> <check-out> [attribute...]");
+        out.println("  report [hotel]");
+        out.println("  analytics [hotel]");
+        out.println("  export <reservations|occupancy|revenue> <csv|json> <file|-> [hotel]");
+        out.println("  metrics");
+        return true;
+    }
+
+    /**
+     * Finds a hotel by name.
+     *
+     * @param hotelName The name of the hotel.
+     * @return The hotel with the given name.
+     * @throws IllegalArgumentException If no hotel has that name.
+     */
+    private Hotel findHotel(String hotelName) {
+        for (Hotel hotel : hrs.getHotelList()) {
+            if (hotel.getName().equals(hotelName)) {
+                return hotel;
+            }
+        }
+        throw new IllegalArgumentException("no hotel named '" + hotelName + "'");
+    }
+
+    /**
+     * Finds a room of a hotel by name.
+     *
+     * @param hotel    The hotel that owns the room.
+     * @param roomName The name of the room.
+     * @return The room with the given name.
+     * @throws IllegalArgumentException If the hotel has no room with that name.
+     */
+    private Room findRoom(Hotel hotel, String roomName) {
+        Room room = hotel.findRoom(roomName);
+        if (room != null) {
+            return room;
+        }
+        throw new IllegalArgumentException("no room " + roomName + " in " + hotel.getName());
+    }
+
+    /**
+     * Checks that a command has at least the required number of tokens.
+     *
+     * @param tokens   The command tokens.
+     * @param required The minimum number of tokens, including the command name.
+     * @param usage    The usage text reported when arguments are missing.
+     * @throws IllegalArgumentException If there are not enough tokens.
+     */
+    private static void requireArguments(List<String> tokens, int required, String usage) {
+        if (tokens.size() < required) {
+            throw new IllegalArgumentException("usage: " + usage);
+        }
+    }
+
+    /**
+     * Records a failed command and writes its error message.
+     *
+     * @param message The error message.
+     * @return Always false.
+     */
+    private boolean fail(String message) {
+        failedCommands++;
+        out.println("ERROR " + message);
+        return false;
+    }
+
+    /**
+     * Splits a command line into tokens. Whitespace separates tokens, and double quotes
+     * group words so that names containing spaces can be passed as one token.
+     *
+     * @param line The command line.
+     * @return The tokens of the line.
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes; // Toggle quoting without keeping the quote itself
+                hasToken = true;
+            } else if (Character.isWhitespace(c) && !inQuotes) {
+                if (hasToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                current.append(c);
+                hasToken = true;
+            }
+        }
+        if (hasToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
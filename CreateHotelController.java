@@ -20,10 +20,20 @@ public class CreateHotelController {
         this.mainMenuView = mainMenuView;
 
         // Add action listener to the create hotel button to handle hotel creation
-        this.view.getCreateHotelButton().addActionListener(e -> createHotel());
+        this.view.getCreateHotelButton().addActionListener(e -> UiActionEvent.record("CreateHotel", "createHotel", () -> createHotel()));
 
         // Add action listener to the back button to navigate back to the main menu
-        this.view.getBackButton().addActionListener(e -> goBackToMainMenu());
+        this.view.getBackButton().addActionListener(e -> UiActionEvent.record("CreateHotel", "goBackToMainMenu", () -> goBackToMainMenu()));
+    }
+
+    /**
+     * Shows the view with a cleared form, ready for the next hotel to be created.
+     */
+    public void show() {
+        view.getHotelNameField().setText(""); // Clear the previous input
+        view.setMessage(""); // Clear the previous result message
+        view.getCreateHotelButton().setEnabled(true); // Allow a new submission
+        view.setVisible(true);
     }
 
     /**
@@ -53,7 +63,7 @@ public class CreateHotelController {
      * Closes the current view and updates the hotel count displayed in the main menu.
      */
     private void goBackToMainMenu() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         mainMenuView.setVisible(true); // Show the main menu view
         mainMenuView.setHotelCount(model.getNumberOfOperatingHotels()); // Update the hotel count
     }
@@ -1,6 +1,8 @@
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The CreateReservationController class handles the interactions between the
@@ -32,23 +34,45 @@ public class CreateReservationController {
         view.getHotelComboBox().addActionListener(e -> populateRooms());
 
         // Action listener for confirming reservation
-        view.getConfirmButton().addActionListener(e -> createReservation());
+        view.getConfirmButton().addActionListener(e -> UiActionEvent.record("CreateReservation", "createReservation", () -> createReservation()));
 
         // Action listener for canceling the reservation and returning to the main menu
-        view.getCancelButton().addActionListener(e -> {
-            view.dispose();
-            mainMenuView.setVisible(true);
-        });
+        view.getCancelButton().addActionListener(e -> UiActionEvent.record("CreateReservation", "goBackToMainMenu", () -> goBackToMainMenu()));
+    }
+
+    /**
+     * Shows the view with a cleared form. The hotel dropdown is brought up to date
+     * with the hotels that are currently available instead of being rebuilt.
+     */
+    public void show() {
+        view.getHotelComboBox().setSelectedItem(null); // Deselect first so refreshing does not trigger room lookups
+        view.getGuestNameField().setText("");
+        view.getCheckInDateField().setText("");
+        view.getCheckOutDateField().setText("");
+        view.getDiscountCodeField().setText("");
+        populateHotels(); // Only adds or removes hotels that changed since the last visit
+        view.getRoomComboBox().removeAllItems();
+        view.setVisible(true);
     }
 
     /**
      * Populates the hotel dropdown with available hotels.
      */
     private void populateHotels() {
-        view.getHotelComboBox().addItem(null); // Add a null item for unselected state
+        List<String> hotelNames = new ArrayList<>();
+        hotelNames.add(null); // Add a null item for unselected state
         for (Hotel hotel : model.getAvailableHotels()) {
-            view.getHotelComboBox().addItem(hotel.getName()); // Add hotel names to the dropdown
+            hotelNames.add(hotel.getName()); // Add hotel names to the dropdown
         }
+        ViewRegistry.syncComboBox(view.getHotelComboBox(), hotelNames);
+    }
+
+    /**
+     * Hides the view so it can be reused and returns to the main menu.
+     */
+    private void goBackToMainMenu() {
+        view.setVisible(false);
+        mainMenuView.setVisible(true);
     }
 
     /**
@@ -60,8 +84,14 @@ public class CreateReservationController {
         if (hotelName == null || hotelName.isEmpty()) {
             return; // Exit if no hotel is selected
         }
-        int checkInDate = Integer.parseInt(view.getCheckInDateField().getText());
-        int checkOutDate = Integer.parseInt(view.getCheckOutDateField().getText());
+        int checkInDate;
+        int checkOutDate;
+        try {
+            checkInDate = Integer.parseInt(view.getCheckInDateField().getText());
+            checkOutDate = Integer.parseInt(view.getCheckOutDateField().getText());
+        } catch (NumberFormatException e) {
+            return; // Dates not entered yet, nothing to list
+        }
         for (Hotel hotel : model.getAvailableHotels()) {
             if (hotel.getName().equals(hotelName)) {
                 // Populate available rooms for the selected hotel and date range
@@ -89,8 +119,8 @@ public class CreateReservationController {
             return;
         }
 
-        // Validate check-in and check-out dates
-        if (checkInDate < 1 || checkOutDate < 2 || checkOutDate > 31 || checkInDate >= checkOutDate) {
+        // Validate check-in and check-out dates; the hotel checks them against its own calendar
+        if (checkInDate < 1 || checkOutDate < 2 || checkInDate >= checkOutDate) {
             JOptionPane.showMessageDialog(view, "Invalid check-in or check-out dates.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
@@ -106,44 +136,81 @@ public class CreateReservationController {
         }
 
         // Validate hotel and room selection
-        if (hotelName == null || roomName == null) {
+        if (hotelName == null) {
             JOptionPane.showMessageDialog(view, "Hotel and Room must be selected.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
+        // No room is free for these dates: offer the waitlist instead
+        if (roomName == null) {
+            offerWaitlist(hotelName, guestName, checkInDate, checkOutDate, discountCode, null);
+            return;
+        }
+
         // Check if the discount code is valid
         boolean isValidDiscountCode = discountCode.equals("I_WORK_HERE") || discountCode.equals("STAY4_GET1") || discountCode.equals("PAYDAY");
 
         // Check for the selected hotel and room to create a reservation
         for (Hotel hotel : model.getAvailableHotels()) {
             if (hotel.getName().equals(hotelName)) {
-                for (Room room : model.getAvailableRooms(hotel, checkInDate, checkOutDate)) {
-                    if (room.getName().equals(roomName)) {
-                        boolean reservationCreated = model.createReservation(guestName, checkInDate, checkOutDate, room, hotelName, discountCode);
-                        // Show success or failure messages based on reservation creation
-                        if (reservationCreated) {
-                            if (discountCode.isEmpty()) {
-                                JOptionPane.showMessageDialog(view, "Reservation created successfully. No discount code applied.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                            } else if (isValidDiscountCode) {
-                                JOptionPane.showMessageDialog(view, "Reservation created successfully with discount.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                            } else {
-                                JOptionPane.showMessageDialog(view, "Reservation created successfully. Invalid discount code.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                            }
-                            view.dispose(); // Close the view after successful reservation
-                            mainMenuView.setVisible(true); // Show the main menu
-                            return;
+                // Look the room up by name instead of scanning the available rooms
+                Room room = hotel.findRoom(roomName);
+                if (room != null && room.isAvailableToReserve(checkInDate, checkOutDate)) {
+                    boolean reservationCreated = model.createReservation(guestName, checkInDate, checkOutDate, room, hotelName, discountCode);
+                    // Show success or failure messages based on reservation creation
+                    if (reservationCreated) {
+                        if (discountCode.isEmpty()) {
+                            JOptionPane.showMessageDialog(view, "Reservation created successfully. No discount code applied.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        } else if (isValidDiscountCode) {
+                            JOptionPane.showMessageDialog(view, "Reservation created successfully with discount.", "Success", JOptionPane.INFORMATION_MESSAGE);
                         } else {
-                            // Show error if reservation creation fails
-                            JOptionPane.showMessageDialog(view, "Failed to create reservation due to invalid inputs.", "Error", JOptionPane.ERROR_MESSAGE);
-                            view.dispose();
-                            mainMenuView.setVisible(true);
+                            JOptionPane.showMessageDialog(view, "Reservation created successfully. Invalid discount code.", "Success", JOptionPane.INFORMATION_MESSAGE);
                         }
+                        goBackToMainMenu(); // Close the view after successful reservation
+                        return;
+                    } else {
+                        // Show error if reservation creation fails
+                        JOptionPane.showMessageDialog(view, "Failed to create reservation due to invalid inputs.", "Error", JOptionPane.ERROR_MESSAGE);
+                        goBackToMainMenu();
                     }
+                } else if (room != null) {
+                    // The room was taken since the list was filled: offer the waitlist for its type
+                    offerWaitlist(hotelName, guestName, checkInDate, checkOutDate, discountCode, room.getType());
                 }
+                return;
             }
         }
     }
 
+    /**
+     * Offers to put a booking that cannot be served on the hotel's waitlist, for a room type
+     * chosen by the user. The reservation is made automatically when a room frees up.
+     *
+     * @param hotelName     The name of the hotel.
+     * @param guestName     The name of the guest.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @param discountCode  The discount code to apply when booked.
+     * @param suggestedType The room type selected at first, or null for the first type.
+     */
+    private void offerWaitlist(String hotelName, String guestName, int checkInDate, int checkOutDate,
+                               String discountCode, Room.RoomType suggestedType) {
+        Room.RoomType[] types = Room.RoomType.values();
+        Room.RoomType type = (Room.RoomType) JOptionPane.showInputDialog(view,
+                "No room is free for these dates.\nJoin the waitlist for a room of type:", "Waitlist",
+                JOptionPane.QUESTION_MESSAGE, null, types, suggestedType != null ? suggestedType : types[0]);
+        if (type == null) {
+            return; // User chose not to wait
+        }
+
+        if (model.addToWaitlist(guestName, checkInDate, checkOutDate, type, hotelName, discountCode)) {
+            JOptionPane.showMessageDialog(view, "Added to the waitlist. The reservation will be made automatically when a room frees up.", "Waitlist", JOptionPane.INFORMATION_MESSAGE);
+            goBackToMainMenu();
+        } else {
+            JOptionPane.showMessageDialog(view, "Could not join the waitlist due to invalid dates.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     /**
      * Sets up listeners for input fields to enable/disable the confirm button based on validation.
      */
@@ -1,4 +1,4 @@
-import java.util.List;
+import java.util.Collection;
 
 /**
  * The CreateReservationModel class handles the data management for creating reservations.
@@ -20,9 +20,9 @@ public class CreateReservationModel {
     /**
      * Retrieves the list of available hotels from the hotel reservation system.
      *
-     * @return A list of available hotels
+     * @return A read-only view of the available hotels
      */
-    public List<Hotel> getAvailableHotels() {
+    public Collection<Hotel> getAvailableHotels() {
         return hotelReservationSystem.getAvailableHotels(); // Call to the system to get available hotels
     }
 
@@ -32,9 +32,9 @@ public class CreateReservationModel {
      * @param hotel The hotel for which to retrieve available rooms
      * @param checkInDate The check-in date for the reservation
      * @param checkOutDate The check-out date for the reservation
-     * @return A list of available rooms for the specified hotel and date range
+     * @return A read-only view of the available rooms for the specified hotel and date range
      */
-    public List<Room> getAvailableRooms(Hotel hotel, int checkInDate, int checkOutDate) {
+    public Collection<Room> getAvailableRooms(Hotel hotel, int checkInDate, int checkOutDate) {
         return hotelReservationSystem.getAvailableRooms(hotel, checkInDate, checkOutDate); // Call to get available rooms
     }
 
@@ -59,4 +59,25 @@ public class CreateReservationModel {
         }
         return false; // Return false if the hotel was not found
     }
+
+    /**
+     * Puts a booking on the waitlist of a given hotel, to be booked automatically when a room of the type frees up.
+     *
+     * @param guestName The name of the guest making the reservation
+     * @param checkInDate The check-in date for the reservation
+     * @param checkOutDate The check-out date for the reservation
+     * @param roomType The type of room wanted
+     * @param hotelName The name of the hotel
+     * @param discountCode The discount code to apply when booked, if any
+     * @return True if the booking was added to the waitlist, false otherwise
+     */
+    public boolean addToWaitlist(String guestName, int checkInDate, int checkOutDate, Room.RoomType roomType, String hotelName, String discountCode) {
+        // Loop through the list of hotels to find the matching hotel
+        for (Hotel hotel : hotelReservationSystem.getHotelList()) {
+            if (hotel.getName().equals(hotelName)) {
+                return hotel.addToWaitlist(guestName, checkInDate, checkOutDate, roomType, discountCode) != null;
+            }
+        }
+        return false; // Return false if the hotel was not found
+    }
 }
@@ -0,0 +1,145 @@
+/**
+ * Sets a hotel's date price modifiers from live occupancy and booking pace.
+ * <p>
+ * For every night the engine keeps a count of booked rooms and a booking pace: the number of
+ * recent bookings that include the night, decayed by half every {@link #PACE_HALF_LIFE}
+ * bookings made in the hotel. Both are updated as bookings come and go, and only the nights
+ * of the stay that changed are recalculated, so a booking costs time proportional to its
+ * length. A modifier is only written back when its rounded value actually changes, which
+ * leaves the prices of every other night untouched.
+ * <p>
+ * Modifiers follow occupancy from {@link #EMPTY_MODIFIER} for an empty night to
+ * {@link #FULL_MODIFIER} for a full one, plus up to {@link #PACE_WEIGHT} for nights that are
+ * selling fast, always within the hotel's accepted range.
+ */
+public class DynamicPricingEngine {
+    public static final double EMPTY_MODIFIER = 0.6;  // Modifier of a night with no rooms booked
+    public static final double FULL_MODIFIER = 1.4;   // Modifier of a night with every room booked
+    public static final double PACE_WEIGHT = 0.1;     // Largest extra modifier for a night that is selling fast
+    public static final double PACE_HALF_LIFE = 50;   // Bookings after which a booking counts half towards the pace
+    private static final int STEP = 100;              // Modifiers are rounded to 1/STEP
+    private static final int MIN_BASIS_POINTS = Money.toBasisPoints(Hotel.MIN_PRICE_MODIFIER); // Lowest modifier written
+    private static final int MAX_BASIS_POINTS = Money.toBasisPoints(Hotel.MAX_PRICE_MODIFIER); // Highest modifier written
+
+    private final Hotel hotel;          // The hotel whose prices are set
+    private final int horizonDays;      // Last bookable night
+    private final int[] bookedRooms;    // Number of rooms booked on each night, indexed by date
+    private final double[] pace;        // Decayed number of bookings including each night, as of paceTick
+    private final long[] paceTick;      // Booking count at which each night's pace was last brought up to date
+    private long tick;                  // Number of bookings seen, the clock of the pace decay
+
+    /**
+     * Constructs a DynamicPricingEngine for a hotel, counting its current reservations,
+     * and sets the modifiers of every night.
+     *
+     * @param hotel The hotel.
+     */
+    public DynamicPricingEngine(Hotel hotel) {
+        this.hotel = hotel;
+        this.horizonDays = hotel.getHorizonDays();
+        this.bookedRooms = new int[horizonDays + 1];
+        this.pace = new double[horizonDays + 1];
+        this.paceTick = new long[horizonDays + 1];
+        for (Reservation reservation : hotel.getReservationsList()) {
+            for (int night = reservation.getCheckInDate(); night < reservation.getCheckOutDate(); night++) {
+                bookedRooms[night]++;
+            }
+        }
+        recalculateAll();
+    }
+
+    /**
+     * Counts a new booking and reprices its nights.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    void onBooked(int checkInDate, int checkOutDate) {
+        tick++;
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            bookedRooms[night]++;
+            pace[night] = paceOf(night) + 1;
+            paceTick[night] = tick;
+            recalculate(night);
+        }
+    }
+
+    /**
+     * Counts a cancelled booking and reprices its nights.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    void onCancelled(int checkInDate, int checkOutDate) {
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            bookedRooms[night]--;
+            recalculate(night);
+        }
+    }
+
+    /**
+     * Reprices every night after the number of rooms changed, since occupancy of every night depends on it.
+     */
+    void onRoomCountChanged() {
+        recalculateAll();
+    }
+
+    /**
+     * Gets the number of rooms booked on a night.
+     *
+     * @param night The date.
+     * @return The number of booked rooms.
+     */
+    public int getBookedRooms(int night) {
+        return night >= 1 && night <= horizonDays ? bookedRooms[night] : 0;
+    }
+
+    /**
+     * Gets the booking pace of a night: recent bookings that include it, older ones counting less.
+     *
+     * @param night The date.
+     * @return The decayed number of bookings.
+     */
+    public double getPace(int night) {
+        return night >= 1 && night <= horizonDays ? paceOf(night) : 0.0;
+    }
+
+    /**
+     * Reprices every night of the calendar.
+     */
+    private void recalculateAll() {
+        for (int night = 1; night <= horizonDays; night++) {
+            recalculate(night);
+        }
+    }
+
+    /**
+     * Computes the modifier of a night and writes it to the hotel if it changed.
+     *
+     * @param night The date.
+     */
+    private void recalculate(int night) {
+        int rooms = hotel.getRoomsList().size();
+        double occupancy = rooms == 0 ? 0.0 : (double) bookedRooms[night] / rooms;
+        double paceShare = rooms == 0 ? 0.0 : Math.min(1.0, paceOf(night) / rooms);
+
+        double rate = EMPTY_MODIFIER + (FULL_MODIFIER - EMPTY_MODIFIER) * occupancy + PACE_WEIGHT * paceShare;
+        int modifier = (int) Math.round(rate * STEP) * (Money.BASIS_POINTS / STEP); // In basis points
+        modifier = Math.max(MIN_BASIS_POINTS, Math.min(MAX_BASIS_POINTS, modifier));
+
+        if (modifier != hotel.getDatePriceModifierBasisPoints(night)) {
+            hotel.setDatePriceModifier(night, Money.toRate(modifier));
+        }
+    }
+
+    /**
+     * Gets the pace of a night decayed up to the current booking count.
+     *
+     * @param night The date.
+     * @return The decayed pace.
+     */
+    private double paceOf(int night) {
+        long elapsed = tick - paceTick[night];
+        return elapsed == 0 ? pace[night] : pace[night] * Math.pow(0.5, elapsed / PACE_HALF_LIFE);
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The stay history of one guest across every hotel of the system.
+ * Profiles are kept up to date by the {@link GuestRegistry} as reservations are made and cancelled.
+ * Every method locks the profile, so it can be read while another hotel books the same guest.
+ */
+public class GuestProfile {
+    private final String guestKey;            // Normalized identity of the guest
+    private String displayName;               // Name as it was last written on a reservation
+    private final Set<Reservation> stays;     // Current reservations of the guest, in booking order
+    private long lifetimeValue;               // Total price of the current reservations, in centavos
+    private int totalNights;                  // Nights of the current reservations
+
+    /**
+     * Constructs an empty GuestProfile.
+     *
+     * @param guestKey    The normalized identity of the guest.
+     * @param displayName The name of the guest as written on the reservation.
+     */
+    GuestProfile(String guestKey, String displayName) {
+        this.guestKey = guestKey;
+        this.displayName = displayName;
+        this.stays = Collections.newSetFromMap(new LinkedHashMap<>());
+    }
+
+    /**
+     * Adds a reservation to the history.
+     *
+     * @param reservation The reservation.
+     */
+    synchronized void addStay(Reservation reservation) {
+        if (stays.add(reservation)) {
+            displayName = reservation.getGuestName().trim();
+            lifetimeValue += reservation.getTotalPriceCentavos();
+            totalNights += reservation.getCheckOutDate() - reservation.getCheckInDate();
+        }
+    }
+
+    /**
+     * Removes a cancelled reservation from the history.
+     *
+     * @param reservation The reservation.
+     */
+    synchronized void removeStay(Reservation reservation) {
+        if (stays.remove(reservation)) {
+            lifetimeValue -= reservation.getTotalPriceCentavos();
+            totalNights -= reservation.getCheckOutDate() - reservation.getCheckInDate();
+        }
+    }
+
+    /**
+     * Gets the normalized identity of the guest.
+     *
+     * @return The guest key.
+     */
+    public String getGuestKey() {
+        return guestKey;
+    }
+
+    /**
+     * Gets the name of the guest as it was last written on a reservation.
+     *
+     * @return The guest name.
+     */
+    public synchronized String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the reservations of the guest in every hotel, in booking order.
+     *
+     * @return A copy of the stays.
+     */
+    public synchronized List<Reservation> getStays() {
+        return new ArrayList<>(stays);
+    }
+
+    /**
+     * Gets the number of reservations of the guest.
+     *
+     * @return The number of stays.
+     */
+    public synchronized int getStayCount() {
+        return stays.size();
+    }
+
+    /**
+     * Gets the total price of the guest's reservations.
+     *
+     * @return The lifetime value, in pesos.
+     */
+    public synchronized double getLifetimeValue() {
+        return Money.toPesos(lifetimeValue);
+    }
+
+    /**
+     * Gets the total price of the guest's reservations.
+     *
+     * @return The lifetime value, in centavos.
+     */
+    public synchronized long getLifetimeValueCentavos() {
+        return lifetimeValue;
+    }
+
+    /**
+     * Gets the number of nights of the guest's reservations.
+     *
+     * @return The total nights.
+     */
+    public synchronized int getTotalNights() {
+        return totalNights;
+    }
+}
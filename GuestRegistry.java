@@ -0,0 +1,94 @@
+import java.text.Normalizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Locale;
+
+/**
+ * Keeps a {@link GuestProfile} for every guest with a reservation in any hotel of the system.
+ * <p>
+ * Guests are identified by their normalized name, so "Juan  Dela Cruz" and "juan dela cruz"
+ * are the same guest. The registry listens to every hotel and updates the guest's profile
+ * on each booking and cancellation, so a guest's history, lifetime value and repeat status
+ * are one hash lookup away instead of a scan over all hotels.
+ * <p>
+ * Hotels of the same system may be booked from different threads, so profiles are updated
+ * under the lock of their entry in a concurrent map; bookings of different guests never wait
+ * for each other.
+ */
+public class GuestRegistry implements ReservationListener {
+    private final ConcurrentHashMap<String, GuestProfile> profiles; // Profiles by normalized guest name
+
+    /**
+     * Constructs an empty GuestRegistry.
+     */
+    public GuestRegistry() {
+        this.profiles = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Normalizes a guest name into the key that identifies the guest: Unicode compatibility
+     * form, surrounding spaces removed, inner runs of spaces collapsed, and lower case.
+     *
+     * @param guestName The guest name.
+     * @return The guest key.
+     */
+    public static String normalize(String guestName) {
+        String normalized = Normalizer.normalize(guestName, Normalizer.Form.NFKC).trim();
+        return normalized.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records a new reservation in its guest's profile.
+     *
+     * @param reservation The new reservation.
+     */
+    @Override
+    public void reservationCreated(Reservation reservation) {
+        profiles.compute(normalize(reservation.getGuestName()), (key, profile) -> {
+            GuestProfile updated = profile != null ? profile : new GuestProfile(key, reservation.getGuestName().trim());
+            updated.addStay(reservation);
+            return updated;
+        });
+    }
+
+    /**
+     * Removes a cancelled reservation from its guest's profile. Profiles without stays are dropped.
+     *
+     * @param reservation The cancelled reservation.
+     */
+    @Override
+    public void reservationCancelled(Reservation reservation) {
+        profiles.computeIfPresent(normalize(reservation.getGuestName()), (key, profile) -> {
+            profile.removeStay(reservation);
+            return profile.getStayCount() == 0 ? null : profile;
+        });
+    }
+
+    /**
+     * Gets the profile of a guest.
+     *
+     * @param guestName The guest name, in any case or spacing.
+     * @return The profile, or null if the guest has no reservations.
+     */
+    public GuestProfile getProfile(String guestName) {
+        return profiles.get(normalize(guestName));
+    }
+
+    /**
+     * Checks whether a guest already has a reservation in any hotel.
+     *
+     * @param guestName The guest name, in any case or spacing.
+     * @return true if the guest has at least one reservation, false otherwise.
+     */
+    public boolean isRepeatGuest(String guestName) {
+        return profiles.containsKey(normalize(guestName));
+    }
+
+    /**
+     * Gets the number of guests with reservations.
+     *
+     * @return The number of guests.
+     */
+    public int size() {
+        return profiles.size();
+    }
+}
@@ -1,71 +1,429 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Represents a Hotel with rooms and reservations.
  */
 public class Hotel {
+    public static final int DEFAULT_MAX_ROOMS = 50;        // Room capacity of a hotel created with just a name
+    public static final int DEFAULT_ROOMS_PER_FLOOR = 10;  // Rooms per floor of a hotel created with just a name
+    public static final int DEFAULT_HORIZON_DAYS = 30;     // Calendar length of a hotel created with just a name
+    public static final int MAX_ROOMS_LIMIT = 100_000;     // Largest room capacity a hotel can be configured with
+    public static final int MAX_HORIZON_DAYS = 3_660;      // Longest calendar a hotel can be configured with (10 years)
+    public static final double MIN_PRICE_MODIFIER = 0.5;   // Lowest accepted date price modifier
+    public static final double MAX_PRICE_MODIFIER = 1.5;   // Highest accepted date price modifier
+    public static final double MIN_BASE_PRICE = 100.0;     // Lowest accepted room base price, in pesos
+    public static final double MAX_BASE_PRICE = 10_000_000.0; // Highest accepted room base price, keeps every price product within a long
+
     private String name; // The name of the hotel
+    private final int maxRooms; // Maximum number of rooms the hotel can have
+    private final int roomsPerFloor; // Number of rooms on each floor, used to number new rooms
+    private final int horizonDays; // Number of nights that can be booked (dates 1 to horizonDays)
     private final ArrayList<Room> roomsList; // List of rooms in the hotel
+    private final List<Room> roomsView; // Read-only view of roomsList handed to callers
+    private final RoomRegistry roomRegistry; // Rooms of the hotel by key and by name
     private final ArrayList<Reservation> reservationsList; // List of reservations in the hotel
-    private final Map<Integer, Double> datePriceModifier; // Price modifiers for specific dates
+    private final List<Reservation> reservationsView; // Read-only view of reservationsList handed to callers
+    private final HashMap<String, Reservation> reservationsById; // Reservations of the hotel by ID
+    private final int[] datePriceModifier; // Price modifiers for specific dates in basis points, indexed by date
+    private int fullyBookedRooms; // Number of rooms whose status is "Fully booked"
+    private volatile HotelSnapshot snapshot; // Latest committed view of the hotel, for readers on any thread
+    private final Waitlist waitlist; // Requests waiting for a room to free up
+    private final ReservationIndex reservationIndex; // Reservations by date, for range queries
+    private DynamicPricingEngine pricingEngine; // Sets the price modifiers from occupancy, null when they are set by hand
+    private int[] manualPriceModifier; // Modifiers set by hand before dynamic pricing was turned on, null while it is off
+    private final List<ReservationListener> listeners; // Notified of every booking and cancellation
+    private final QuoteCache quoteCache; // Prices of stays asked for recently
+    private final RoomTypeInventory inventory; // Rooms of each type booked on each night
+    private final RoomBitmapIndex roomIndex; // Rooms by type, floor, attribute and booked night
+    private OffHeapReservationStore offHeapStore; // Holds the reservations outside the heap, null when they hold their own details
 
     /**
-     * Constructs a new Hotel with the specified name.
+     * Constructs a new Hotel with the specified name, the default capacity of 50 rooms
+     * at 10 rooms per floor, and a 30-day calendar.
      *
      * @param name The name of the hotel.
      */
     public Hotel(String name) {
+        this(name, DEFAULT_MAX_ROOMS, DEFAULT_ROOMS_PER_FLOOR, DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Constructs a new Hotel with the specified name, capacity and calendar horizon.
+     *
+     * @param name          The name of the hotel.
+     * @param maxRooms      The maximum number of rooms (1 to {@link #MAX_ROOMS_LIMIT}).
+     * @param roomsPerFloor The number of rooms on each floor (1 to maxRooms).
+     * @param horizonDays   The number of nights that can be booked (1 to {@link #MAX_HORIZON_DAYS}).
+     * @throws IllegalArgumentException If any of the settings is out of range.
+     */
+    public Hotel(String name, int maxRooms, int roomsPerFloor, int horizonDays) {
+        if (!isValidConfiguration(maxRooms, roomsPerFloor, horizonDays)) {
+            throw new IllegalArgumentException("Invalid hotel configuration: maxRooms=" + maxRooms
+                    + ", roomsPerFloor=" + roomsPerFloor + ", horizonDays=" + horizonDays);
+        }
         this.name = name;
+        this.maxRooms = maxRooms;
+        this.roomsPerFloor = roomsPerFloor;
+        this.horizonDays = horizonDays;
         this.roomsList = new ArrayList<>();
+        this.roomRegistry = new RoomRegistry(maxRooms);
         this.reservationsList = new ArrayList<>();
-        this.datePriceModifier = new HashMap<>();
+        this.reservationsById = new HashMap<>();
+        this.roomsView = Collections.unmodifiableList(roomsList);
+        this.reservationsView = Collections.unmodifiableList(reservationsList);
+        this.datePriceModifier = new int[horizonDays + 1];
+        this.snapshot = HotelSnapshot.empty(name, horizonDays);
+        this.waitlist = new Waitlist();
+        this.reservationIndex = new ReservationIndex();
+        this.listeners = new ArrayList<>();
+        this.quoteCache = new QuoteCache(QuoteCache.DEFAULT_CAPACITY, horizonDays);
+        this.inventory = new RoomTypeInventory(horizonDays);
+        this.roomIndex = new RoomBitmapIndex(maxRooms, horizonDays);
         initializeDPM(); // Initialize date price modifiers
     }
 
+    /**
+     * Checks whether a capacity and calendar configuration is supported.
+     *
+     * @param maxRooms      The maximum number of rooms.
+     * @param roomsPerFloor The number of rooms on each floor.
+     * @param horizonDays   The number of nights that can be booked.
+     * @return true if the configuration is valid, false otherwise.
+     */
+    public static boolean isValidConfiguration(int maxRooms, int roomsPerFloor, int horizonDays) {
+        return maxRooms >= 1 && maxRooms <= MAX_ROOMS_LIMIT
+                && roomsPerFloor >= 1 && roomsPerFloor <= maxRooms
+                && horizonDays >= 1 && horizonDays <= MAX_HORIZON_DAYS;
+    }
+
     /**
      * Initializes the date price modifiers to 100% for all dates.
      */
     private void initializeDPM() {
-        for (int date = 1; date <= 30; date++) {
-            datePriceModifier.put(date, 1.0); // Default modifier is 100% (1.0)
-        }
+        Arrays.fill(datePriceModifier, Money.BASIS_POINTS); // Default modifier is 100% (1.0)
     }
 
     /**
      * Sets the price modifier for a specific date.
      *
-     * @param date     The date to set the modifier for (1-30).
-     * @param modifier The price modifier (e.g., 0.9 for 90%, 1.1 for 110%).
+     * @param date     The date to set the modifier for (1 to the calendar horizon).
+     * @param modifier The price modifier (e.g., 0.9 for 90%, 1.1 for 110%), rounded to the nearest basis point.
      */
     public void setDatePriceModifier(int date, double modifier) {
-        if (date >= 1 && date <= 30 && modifier >= 0.5 && modifier <= 1.5) {
-            datePriceModifier.put(date, modifier);
+        PriceModifierEvent event = new PriceModifierEvent();
+        double previousModifier = getDatePriceModifier(date);
+        boolean accepted = date >= 1 && date <= horizonDays
+                && modifier >= MIN_PRICE_MODIFIER && modifier <= MAX_PRICE_MODIFIER;
+
+        if (accepted) {
+            int basisPoints = Money.toBasisPoints(modifier);
+            if (datePriceModifier[date] != basisPoints) {
+                datePriceModifier[date] = basisPoints;
+                quoteCache.invalidateNight(date); // Only stays including this night change price
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.hotel = name;
+            event.date = date;
+            event.previousModifier = previousModifier;
+            event.requestedModifier = modifier;
+            event.accepted = accepted;
+            event.commit();
+        }
+    }
+
+    /**
+     * Turns dynamic pricing on or off. While it is on, the price modifier of each night follows
+     * the night's occupancy and booking pace and is updated with every booking and cancellation.
+     * The modifiers set by hand are saved when it is turned on and put back when it is turned off.
+     *
+     * @param enabled true to let occupancy set the prices, false to set them by hand.
+     */
+    public void setDynamicPricing(boolean enabled) {
+        if (enabled && pricingEngine == null) {
+            manualPriceModifier = datePriceModifier.clone(); // The engine overwrites every night
+            pricingEngine = new DynamicPricingEngine(this);
+        } else if (!enabled && pricingEngine != null) {
+            pricingEngine = null;
+            for (int date = 1; date <= horizonDays; date++) {
+                if (datePriceModifier[date] != manualPriceModifier[date]) {
+                    datePriceModifier[date] = manualPriceModifier[date];
+                    quoteCache.invalidateNight(date);
+                }
+            }
+            manualPriceModifier = null;
         }
     }
 
+    /**
+     * Checks whether dynamic pricing is on.
+     *
+     * @return true if occupancy sets the prices, false if they are set by hand.
+     */
+    public boolean isDynamicPricing() {
+        return pricingEngine != null;
+    }
+
+    /**
+     * Gets the dynamic pricing engine of the hotel.
+     *
+     * @return The engine, or null if dynamic pricing is off.
+     */
+    public DynamicPricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    /**
+     * Moves the guest names and discount codes of the hotel's reservations into a store in
+     * direct memory, where every later booking is written too. The reservations keep working
+     * as before and read their details from the store.
+     *
+     * @param capacity The number of reservations to allocate room for at first.
+     * @return true if the reservations are now stored off-heap, false if they already were or
+     * a reservation's guest name and discount code are too long for a record.
+     */
+    public boolean storeReservationsOffHeap(int capacity) {
+        if (offHeapStore != null) {
+            return false;
+        }
+        for (Reservation reservation : reservationsList) {
+            if (!OffHeapReservationStore.fits(reservation.getReservationID(), reservation.getGuestName(),
+                    reservation.getDiscountCode())) {
+                return false;
+            }
+        }
+        offHeapStore = OffHeapReservationStore.allocate(horizonDays, Math.max(capacity, reservationsList.size()));
+        for (Reservation reservation : reservationsList) {
+            reservation.storeOffHeap(offHeapStore, offHeapStore.add(reservation));
+        }
+        return true;
+    }
+
+    /**
+     * Stores the hotel's reservations in a memory-mapped file, so they survive restarts. The
+     * reservations already in the file are booked back at the price and with the ID they were
+     * booked with; any whose room is gone or taken, or whose dates no longer fit the calendar,
+     * are dropped from the file. Room keys are stored, so the hotel must have added the same
+     * rooms in the same order as when the file was written.
+     *
+     * @param file     The file, created if it does not exist.
+     * @param capacity The number of reservations to map room for at first if the file is new.
+     * @return true if the reservations are now stored in the file, false if they were already
+     * stored off-heap or the hotel has reservations of its own.
+     * @throws IOException If the file cannot be opened or was written for another calendar.
+     */
+    public boolean storeReservationsOffHeap(Path file, int capacity) throws IOException {
+        if (offHeapStore != null || !reservationsList.isEmpty()) {
+            return false;
+        }
+        OffHeapReservationStore store = OffHeapReservationStore.open(file, horizonDays, capacity);
+        offHeapStore = store;
+
+        for (int record = 0; record < store.getRecordCount(); record++) {
+            if (!store.isLive(record)) {
+                continue;
+            }
+            Room room = roomRegistry.get(store.getRoomKey(record));
+            int checkInDate = store.getCheckInDate(record);
+            int checkOutDate = store.getCheckOutDate(record);
+            String reservationId = store.getReservationId(record);
+            if (room == null || !isValidStay(checkInDate, checkOutDate)
+                    || !room.isAvailableToReserve(checkInDate, checkOutDate) || reservationsById.containsKey(reservationId)) {
+                store.remove(record);
+                continue;
+            }
+            book(new Reservation(reservationId, checkInDate, checkOutDate, room, this, store, record));
+        }
+        return true;
+    }
+
+    /**
+     * Takes the hotel's reservations back from the off-heap store and closes it. A file keeps
+     * the reservations as they were at this point.
+     *
+     * @return true if the reservations were stored off-heap, false otherwise.
+     * @throws IOException If the store's file cannot be closed.
+     */
+    public boolean storeReservationsOnHeap() throws IOException {
+        if (offHeapStore == null) {
+            return false;
+        }
+        for (Reservation reservation : reservationsList) {
+            reservation.loadOnHeap();
+        }
+        OffHeapReservationStore store = offHeapStore;
+        offHeapStore = null;
+        store.close();
+        return true;
+    }
+
+    /**
+     * Gets the store holding the hotel's reservations off-heap.
+     *
+     * @return The store, or null if the reservations hold their own details.
+     */
+    public OffHeapReservationStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
     /**
      * Gets the price modifier for a specific date.
      *
-     * @param date The date to get the modifier for (1-30).
-     * @return The price modifier for the specified date.
+     * @param date The date to get the modifier for (1 to the calendar horizon).
+     * @return The price modifier for the specified date, or 1.0 outside the calendar.
      */
     public double getDatePriceModifier(int date) {
-        return datePriceModifier.getOrDefault(date, 1.0);
+        return Money.toRate(getDatePriceModifierBasisPoints(date));
+    }
+
+    /**
+     * Gets the price modifier for a specific date.
+     *
+     * @param date The date to get the modifier for (1 to the calendar horizon).
+     * @return The price modifier in basis points, or 10,000 (100%) outside the calendar.
+     */
+    public int getDatePriceModifierBasisPoints(int date) {
+        return date >= 1 && date <= horizonDays ? datePriceModifier[date] : Money.BASIS_POINTS;
     }
 
     /**
      * Calculates the price for a room on a specific date based on the base price and the date price modifier.
      *
      * @param room The room to calculate the price for.
-     * @param date The date to calculate the price for (1-30).
-     * @return The price for the specified date.
+     * @param date The date to calculate the price for (1 to the calendar horizon).
+     * @return The price for the specified date, in pesos.
      */
     public double calculatePriceForRoomOnDate(Room room, int date) {
-        return room.getBasePrice() * getDatePriceModifier(date) * room.getType().getPriceMultiplier();
+        return Money.toPesos(calculatePriceCentavosForRoomOnDate(room, date));
+    }
+
+    /**
+     * Calculates the price for a room on a specific date: the base price times the date price
+     * modifier times the room type multiplier, rounded half to even to the centavo once.
+     *
+     * @param room The room to calculate the price for.
+     * @param date The date to calculate the price for (1 to the calendar horizon).
+     * @return The price for the specified date, in centavos.
+     */
+    public long calculatePriceCentavosForRoomOnDate(Room room, int date) {
+        return Money.applyRates(room.getBasePriceCentavos(), getDatePriceModifierBasisPoints(date),
+                room.getType().getPriceMultiplierBasisPoints());
+    }
+
+    /**
+     * Prices a stay in a room, discount included, exactly as a reservation of it would be
+     * priced. Stays priced recently are answered from the hotel's quote cache.
+     *
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param discountCode The discount code, or null.
+     * @return The total price of the stay, in centavos.
+     */
+    public long quoteStayCentavos(Room room, int checkInDate, int checkOutDate, String discountCode) {
+        return quoteCache.get(room, checkInDate, checkOutDate, discountCode,
+                () -> Reservation.priceStay(this, room, checkInDate, checkOutDate, discountCode));
+    }
+
+    /**
+     * Gets the number of rooms of a type free on every night of a stay, read from the room
+     * type inventory in O(log nights) without looking at any room.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The smallest number of free rooms of the type on any night of the stay, or 0 for invalid dates.
+     */
+    public int getAvailableRoomCount(Room.RoomType type, int checkInDate, int checkOutDate) {
+        return inventory.getAvailable(type, checkInDate, checkOutDate);
+    }
+
+    /**
+     * Finds the rooms of a type on a range of floors that have every given attribute and are
+     * free for a whole stay. The rooms are found by ANDing bitmaps, without looking at any room.
+     *
+     * @param type         The room type, or null for any type.
+     * @param minFloor     The lowest floor.
+     * @param maxFloor     The highest floor.
+     * @param attributes   The attributes every room must have, e.g. "sea-view".
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The matching rooms in room key order, empty for invalid dates.
+     */
+    public List<Room> findAvailableRooms(Room.RoomType type, int minFloor, int maxFloor, Collection<String> attributes,
+                                         int checkInDate, int checkOutDate) {
+        BitSet keys = roomIndex.find(type, minFloor, maxFloor, attributes, checkInDate, checkOutDate);
+        List<Room> rooms = new ArrayList<>(keys.cardinality());
+        for (int key = keys.nextSetBit(0); key >= 0; key = keys.nextSetBit(key + 1)) {
+            rooms.add(roomRegistry.get(key));
+        }
+        return rooms;
+    }
+
+    /**
+     * Gives a room of the hotel an attribute that searches can filter on, or takes it away.
+     *
+     * @param room      The room.
+     * @param attribute The attribute, e.g. "sea-view" or "accessible".
+     * @param value     true to give the room the attribute, false to take it away.
+     * @return true if the room belongs to the hotel, false otherwise.
+     */
+    public boolean setRoomAttribute(Room room, String attribute, boolean value) {
+        if (!roomRegistry.contains(room)) {
+            return false;
+        }
+        roomIndex.setAttribute(room, attribute, value);
+        return true;
+    }
+
+    /**
+     * Checks whether a room has an attribute.
+     *
+     * @param room      The room.
+     * @param attribute The attribute.
+     * @return true if the room has the attribute, false otherwise.
+     */
+    public boolean hasRoomAttribute(Room room, String attribute) {
+        return roomRegistry.contains(room) && roomIndex.hasAttribute(room, attribute);
+    }
+
+    /**
+     * Gets the counts of rooms of each type booked on each night.
+     *
+     * @return The room type inventory.
+     */
+    public RoomTypeInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Gets the cache of stay prices of the hotel.
+     *
+     * @return The quote cache.
+     */
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
+    /**
+     * Prices every room on every night of the calendar in one pass, for rate grids.
+     * The prices match {@link #calculatePriceCentavosForRoomOnDate(Room, int)} exactly.
+     *
+     * @return The quote table, with the rooms in room key order.
+     */
+    public QuoteTable quoteRates() {
+        Room[] rooms = roomsList.toArray(new Room[0]);
+        Arrays.sort(rooms, Comparator.comparingInt(Room::getKey));
+        return new QuoteTable(rooms, datePriceModifier, horizonDays, QuoteKernel.best());
     }
 
     /**
      * Adds a specified number of rooms to the hotel with the given room type.
+     * Each new room takes the lowest free room key, and its name is derived from that key,
+     * so rooms added after a removal fill the freed room numbers and names never repeat.
      *
      * @param nRoomsToCreate The number of rooms to create.
      * @param type           The type of rooms to create.
@@ -73,20 +431,37 @@ public class Hotel {
      */
     public boolean addRooms(int nRoomsToCreate, Room.RoomType type) {
         int existingRooms = roomsList.size();
-        int maxRooms = 50; // Maximum number of rooms allowed
 
         // Check if the number of rooms to create is valid
         if (nRoomsToCreate > 0 && nRoomsToCreate <= (maxRooms - existingRooms)) {
+            // Floors are numbered in hundreds, or in higher powers of ten when a floor has 100 rooms or more
+            int floorMultiplier = 100;
+            while (floorMultiplier <= roomsPerFloor) {
+                floorMultiplier *= 10;
+            }
+
+            roomsList.ensureCapacity(existingRooms + nRoomsToCreate);
+            HotelSnapshot next = snapshot;
             for (int i = 1; i <= nRoomsToCreate; i++) {
-                int roomNumber = existingRooms + i; // Calculate room number
-                int floorNumber = (roomNumber - 1) / 10 + 1; // Calculate floor number
-                int roomOnFloor = roomNumber % 10 == 0 ? 10 : roomNumber % 10; // Calculate room position on floor
-                int sum = floorNumber * 100 + roomOnFloor; // Generate unique room identifier
+                int key = roomRegistry.nextFreeKey(); // Lowest room key not held by a room
+                int roomNumber = key + 1; // Calculate room number
+                int floorNumber = (roomNumber - 1) / roomsPerFloor + 1; // Calculate floor number
+                int roomOnFloor = (roomNumber - 1) % roomsPerFloor + 1; // Calculate room position on floor
+                int sum = floorNumber * floorMultiplier + roomOnFloor; // Generate unique room identifier
 
                 // Generate room name with the first letter of the room type
                 String roomTypeInitial = type.name().charAt(0) + ""; // Get first letter of the room type
                 String roomName = sum + roomTypeInitial; // Append the room type initial
-                roomsList.add(new Room(roomName, type)); // Add room to the list
+                Room room = new Room(roomName, type, floorNumber, sum, horizonDays, key);
+                roomRegistry.register(room); // Make the room findable by key and name
+                roomsList.add(room); // Add room to the list
+                roomIndex.addRoom(room); // Make the room findable by type and floor
+                next = next.withRoom(RoomSnapshot.of(room), 0, 0, getAvailableRoomsCount());
+            }
+            publish(next); // Readers see all the new rooms at once
+            inventory.addRooms(type, nRoomsToCreate);
+            if (pricingEngine != null) {
+                pricingEngine.onRoomCountChanged();
             }
             return true; // Rooms successfully added
         }
@@ -96,18 +471,36 @@ public class Hotel {
 
     /**
      * Removes multiple rooms from the hotel if they have no reservations.
+     * The rooms to remove are collected in a hash set first so that the room list
+     * is filtered in a single pass, however many rooms are removed.
      *
-     * @param rooms The list of rooms to remove.
-     * @return A list of rooms that were successfully removed.
+     * @param rooms The rooms to remove.
+     * @return A list of rooms that were successfully removed, in the order they had in the hotel.
      */
-    public List<Room> removeRooms(List<Room> rooms) {
+    public List<Room> removeRooms(Collection<Room> rooms) {
         List<Room> removedRooms = new ArrayList<>();
+        Set<Room> roomsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
 
         for (Room room : rooms) {
-            // Check if the room has no reservations before removing it
-            if (room.getReservationsList().isEmpty()) {
-                roomsList.remove(room); // Remove room from the hotel
-                removedRooms.add(room); // Add to the list of successfully removed rooms
+            // Check if the room belongs to the hotel and has no reservations before removing it
+            if (roomRegistry.contains(room) && room.getReservationsList().isEmpty()) {
+                roomsToRemove.add(room);
+            }
+        }
+
+        if (!roomsToRemove.isEmpty()) {
+            // Remove all rooms from the hotel in one pass, keeping track of the ones that were found
+            roomsList.removeIf(room -> roomsToRemove.contains(room) && removedRooms.add(room));
+            HotelSnapshot next = snapshot;
+            for (Room room : removedRooms) {
+                roomRegistry.unregister(room); // Free the key and name for new rooms
+                inventory.addRooms(room.getType(), -1);
+                roomIndex.removeRoom(room);
+                next = next.withoutRoom(room.getKey(), getAvailableRoomsCount());
+            }
+            publish(next);
+            if (pricingEngine != null && !removedRooms.isEmpty()) {
+                pricingEngine.onRoomCountChanged();
             }
         }
 
@@ -117,15 +510,20 @@ public class Hotel {
     /**
      * Updates the base price for all rooms in the hotel if there are no reservations.
      *
-     * @param newBasePrice The new base price to set.
+     * @param newBasePrice The new base price to set, in pesos ({@link #MIN_BASE_PRICE} to {@link #MAX_BASE_PRICE}).
      * @return true if the base price was successfully updated, false otherwise.
      */
     public boolean updateBasePrice(double newBasePrice) {
         // Check if there are no reservations and the new base price is valid
-        if (!reservationsList.isEmpty() || newBasePrice < 100.0) return false;
+        if (!reservationsList.isEmpty() || !(newBasePrice >= MIN_BASE_PRICE && newBasePrice <= MAX_BASE_PRICE)) return false;
+        long basePrice = Money.toCentavos(newBasePrice);
+        HotelSnapshot next = snapshot;
         for (Room room : roomsList) {
-            room.setBasePrice(newBasePrice); // Update base price for all rooms
+            room.setBasePriceCentavos(basePrice); // Update base price for all rooms
+            next = next.withRoom(next.getRoom(room.getKey()).withBasePrice(basePrice), 0, 0, getAvailableRoomsCount());
         }
+        publish(next);
+        quoteCache.invalidateBasePrice(basePrice);
         return true; // Base price updated successfully
     }
 
@@ -140,75 +538,479 @@ public class Hotel {
      * @return true if the reservation was successfully created, false otherwise.
      */
     public boolean createReservation(String guestName, int checkInDate, int checkOutDate, Room room, String discountCode) {
+        BookingEvent event = new BookingEvent();
+        event.begin();
+        long startTime = ReservationMetrics.startTimer();
+
+        Reservation reservation = reserve(guestName, checkInDate, checkOutDate, room, discountCode);
+
+        ReservationMetrics.BOOKING.record(startTime, reservation != null);
+        event.end();
+        if (event.shouldCommit()) {
+            event.hotel = name;
+            event.room = room.getName();
+            event.checkInDate = checkInDate;
+            event.checkOutDate = checkOutDate;
+            event.discountCode = discountCode;
+            if (reservation != null) {
+                event.outcome = "BOOKED";
+                event.reservationId = reservation.getReservationID();
+            } else if (!isValidStay(checkInDate, checkOutDate)) {
+                event.outcome = "INVALID_DATES";
+            } else {
+                event.outcome = room.isAvailableToReserve(checkInDate, checkOutDate) ? "TOO_LONG_TO_STORE" : "CONFLICT";
+            }
+            event.commit();
+        }
+        return reservation != null;
+    }
+
+    /**
+     * Checks whether a stay falls within the dates the hotel takes reservations for:
+     * check-in from 1 to the calendar horizon and check-out after check-in, at most
+     * the day after the horizon.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return true if the dates are valid, false otherwise.
+     */
+    public boolean isValidStay(int checkInDate, int checkOutDate) {
+        return checkInDate >= 1 && checkInDate <= horizonDays && checkOutDate <= horizonDays + 1
+                && checkInDate < checkOutDate;
+    }
+
+    /**
+     * Books the room for the guest if the dates are valid and the room is free.
+     *
+     * @param guestName    The name of the guest.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param room         The room to reserve.
+     * @param discountCode The discount code to apply.
+     * @return The new reservation, or null if it could not be created.
+     */
+    private Reservation reserve(String guestName, int checkInDate, int checkOutDate, Room room, String discountCode) {
         // Validate the check-in and check-out dates
-        if ((checkInDate < 1 || checkInDate > 30 || checkOutDate < 2 || checkOutDate > 31)
-                || checkInDate >= checkOutDate) {
-            return false; // Invalid dates
+        if (!isValidStay(checkInDate, checkOutDate)) {
+            return null; // Invalid dates
         }
 
         // Check if the room is available for the specified dates
         if (room.isAvailableToReserve(checkInDate, checkOutDate)) {
-            // Add the reservation to the room and hotel reservation lists
             Reservation reservation = new Reservation(guestName, checkInDate, checkOutDate, room, this, discountCode);
-            room.getReservationsList().add(reservation); // Add reservation to the room's list
-            reservationsList.add(reservation); // Add reservation to the hotel's list
-            room.updateStatus(); // Update room status
-            return true; // Reservation created successfully
+            if (offHeapStore != null) {
+                if (!OffHeapReservationStore.fits(reservation.getReservationID(), guestName, discountCode)) {
+                    return null; // Too long for a record, and never stored cut short
+                }
+                reservation.storeOffHeap(offHeapStore, offHeapStore.add(reservation));
+            }
+            book(reservation);
+            return reservation; // Reservation created successfully
+        }
+
+        recordConflict(checkInDate, checkOutDate, room);
+        return null; // Room not available for reservation
+    }
+
+    /**
+     * Adds a new reservation to its room and to the hotel's lists, indexes and snapshot, and
+     * tells the listeners.
+     *
+     * @param reservation The reservation, whose room is free for its stay.
+     */
+    private void book(Reservation reservation) {
+        Room room = reservation.getRoom();
+        int checkInDate = reservation.getCheckInDate();
+        int checkOutDate = reservation.getCheckOutDate();
+
+        // Add the reservation to the room and hotel reservation lists
+        String previousStatus = room.getStatus();
+        room.addReservation(reservation); // Add reservation to the room's list and book its nights
+        reservation.setHotelSlot(reservationsList.size()); // Handle for removing it without a search
+        reservationsList.add(reservation); // Add reservation to the hotel's list
+        reservationsById.put(reservation.getReservationID(), reservation);
+        reservationIndex.add(reservation); // Make the reservation findable by date
+        inventory.book(room.getType(), checkInDate, checkOutDate); // Count the nights for type-level searches
+        roomIndex.book(room, checkInDate, checkOutDate);
+        trackStatusChange(previousStatus, room); // Keep the count of fully booked rooms current
+        publish(snapshot.withRoom(snapshot.getRoom(room.getKey()).withReservation(reservation),
+                1, reservation.getTotalPriceCentavos(), getAvailableRoomsCount()));
+        if (pricingEngine != null) {
+            pricingEngine.onBooked(checkInDate, checkOutDate); // Reprice the nights of the stay
+        }
+        for (ReservationListener listener : listeners) {
+            listener.reservationCreated(reservation);
+        }
+    }
+
+    /**
+     * Emits a BookingConflictEvent naming the reservation that blocked a booking.
+     * The conflicting reservation is only looked up while the event is being recorded.
+     *
+     * @param checkInDate  The requested check-in date.
+     * @param checkOutDate The requested check-out date.
+     * @param room         The room that was requested.
+     */
+    private void recordConflict(int checkInDate, int checkOutDate, Room room) {
+        BookingConflictEvent event = new BookingConflictEvent();
+        if (!event.shouldCommit()) {
+            return; // Conflicts are not being recorded
+        }
+
+        for (Reservation existing : room.getReservationsList()) {
+            if (checkInDate < existing.getCheckOutDate() && checkOutDate > existing.getCheckInDate()) {
+                event.conflictingReservationId = existing.getReservationID();
+                break;
+            }
+        }
+        event.hotel = name;
+        event.room = room.getName();
+        event.checkInDate = checkInDate;
+        event.checkOutDate = checkOutDate;
+        event.commit();
+    }
+
+    /**
+     * Puts a booking request that could not be served on the waitlist. It is booked
+     * automatically as soon as a cancellation frees a room of the wanted type for the stay.
+     *
+     * @param guestName    The name of the guest.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param roomType     The type of room wanted.
+     * @param discountCode The discount code to apply when booked.
+     * @return The waiting request, or null if the dates are not valid.
+     */
+    public WaitlistRequest addToWaitlist(String guestName, int checkInDate, int checkOutDate,
+                                         Room.RoomType roomType, String discountCode) {
+        if (!isValidStay(checkInDate, checkOutDate)) {
+            return null; // Invalid dates
         }
-        return false; // Room not available for reservation
+        WaitlistRequest request = new WaitlistRequest(guestName, checkInDate, checkOutDate, roomType, discountCode);
+        waitlist.add(request);
+        return request;
+    }
+
+    /**
+     * Takes a request off the waitlist.
+     *
+     * @param request The request.
+     * @return true if the request was waiting, false otherwise.
+     */
+    public boolean removeFromWaitlist(WaitlistRequest request) {
+        return waitlist.remove(request);
+    }
+
+    /**
+     * Gets the index of the hotel's reservations by date, which answers overlap, containment,
+     * arrival and departure queries without scanning every reservation.
+     *
+     * @return The reservation index.
+     */
+    public ReservationIndex getReservationIndex() {
+        return reservationIndex;
     }
 
     /**
-     * Cancels an existing reservation.
+     * Registers a listener to be told about every reservation made or cancelled from now on.
+     *
+     * @param listener The listener.
+     */
+    public void addReservationListener(ReservationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops telling a listener about reservations.
+     *
+     * @param listener The listener.
+     * @return true if the listener was registered, false otherwise.
+     */
+    public boolean removeReservationListener(ReservationListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Gets the waitlist of the hotel.
+     *
+     * @return The waitlist.
+     */
+    public Waitlist getWaitlist() {
+        return waitlist;
+    }
+
+    /**
+     * Cancels an existing reservation. The freed nights are then offered to the waitlist.
      *
      * @param reservation The reservation to cancel.
      * @return true if the reservation was successfully cancelled, false otherwise.
      */
     public boolean cancelReservation(Reservation reservation) {
+        CancellationEvent event = new CancellationEvent();
+        event.begin();
+        long startTime = ReservationMetrics.startTimer();
+
+        boolean cancelled = cancel(reservation);
+
+        ReservationMetrics.CANCELLATION.record(startTime, cancelled);
+        event.end();
+        if (event.shouldCommit()) {
+            event.hotel = name;
+            event.room = reservation.getRoom().getName();
+            event.reservationId = reservation.getReservationID();
+            event.checkInDate = reservation.getCheckInDate();
+            event.checkOutDate = reservation.getCheckOutDate();
+            event.cancelled = cancelled;
+            event.commit();
+        }
+
+        if (cancelled && waitlist.size() > 0) {
+            fulfillWaitlist(reservation.getRoom(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+        }
+        return cancelled;
+    }
+
+    /**
+     * Books waiting requests into nights of a room that were just freed. Only requests for the
+     * room's type whose stay overlaps the freed nights can have become possible, so only those
+     * are looked up; they are tried longest waiting first.
+     *
+     * @param room         The room that was freed.
+     * @param checkInDate  The first freed night.
+     * @param checkOutDate The night after the last freed night.
+     */
+    private void fulfillWaitlist(Room room, int checkInDate, int checkOutDate) {
+        for (WaitlistRequest request : waitlist.findOverlapping(room.getType(), checkInDate, checkOutDate)) {
+            if (room.isAvailableToReserve(request.getCheckInDate(), request.getCheckOutDate())
+                    && createReservation(request.getGuestName(), request.getCheckInDate(), request.getCheckOutDate(),
+                    room, request.getDiscountCode())) {
+                List<Reservation> roomReservations = room.getReservationsList();
+                request.setReservation(roomReservations.get(roomReservations.size() - 1));
+                waitlist.remove(request);
+            }
+        }
+    }
+
+    /**
+     * Removes the reservation from its room and from the hotel. The reservation is found
+     * through its slot handles and the latest reservation of each list is moved into its
+     * place, so cancelling takes the same time however many bookings the hotel has.
+     *
+     * @param reservation The reservation to cancel.
+     * @return true if the reservation was found and removed, false otherwise.
+     */
+    private boolean cancel(Reservation reservation) {
         Room room = reservation.getRoom();
+        int slot = reservation.getHotelSlot();
 
-        int roomIndex = roomsList.indexOf(room); // Get the index of the room in the hotel
-        // Find the actual reservation object in the room's reservation list
-        Reservation reservationToRemove = null;
+        // A reservation of this hotel sits at its slot; any other was never booked here or is already cancelled
+        if (!roomRegistry.contains(room) || slot < 0 || slot >= reservationsList.size()
+                || reservationsList.get(slot) != reservation) {
+            return false; // Reservation not found for cancellation
+        }
 
-        for (Reservation r : roomsList.get(roomIndex).getReservationsList()) {
-            if (r.isEqual(reservation)) { // Call isEqual to compare attributes of reservations
-                reservationToRemove = r; // Found the matching reservation
-                break;
+        // Remove the reservation from both the room and hotel reservation lists
+        String previousStatus = room.getStatus();
+        room.removeReservation(reservation); // Also frees the nights
+        Reservation last = reservationsList.remove(reservationsList.size() - 1);
+        if (last != reservation) {
+            reservationsList.set(slot, last); // Fill the gap with the latest reservation
+            last.setHotelSlot(slot);
+        }
+        reservation.setHotelSlot(-1);
+        reservationsById.remove(reservation.getReservationID());
+        int record = reservation.getRecord();
+        if (record >= 0) {
+            reservation.loadOnHeap(); // The cancelled reservation must not read a record that gets reused
+            offHeapStore.remove(record);
+        }
+        reservationIndex.remove(reservation);
+        inventory.release(room.getType(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+        roomIndex.release(room, reservation.getCheckInDate(), reservation.getCheckOutDate());
+        trackStatusChange(previousStatus, room); // Keep the count of fully booked rooms current
+        publish(snapshot.withRoom(snapshot.getRoom(room.getKey()).withoutReservation(reservation),
+                -1, -reservation.getTotalPriceCentavos(), getAvailableRoomsCount()));
+        if (pricingEngine != null) {
+            pricingEngine.onCancelled(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        }
+        for (ReservationListener listener : listeners) {
+            listener.reservationCancelled(reservation);
+        }
+        return true; // Reservation cancelled successfully
+    }
+
+    /**
+     * Moves upcoming reservations between rooms of the same type so that free nights form long
+     * stretches rather than short gaps that cannot be sold. Only stays that check in during the
+     * given number of days after today are moved, which bounds the work of one run; a type is
+     * left untouched unless the new assignment strands fewer nights. Waiting requests are
+     * offered the rooms whose calendars changed.
+     *
+     * @param today      The current date; stays that have started are never moved.
+     * @param windowDays The number of days after today whose check-ins may be moved.
+     * @return A report of the moved reservations and recovered room-nights.
+     */
+    public RoomAssignmentReport optimizeRoomAssignments(int today, int windowDays) {
+        RoomAssignmentOptimizer optimizer = new RoomAssignmentOptimizer(today, windowDays, horizonDays);
+        int moved = 0;
+        int strandedBefore = 0;
+        int strandedAfter = 0;
+
+        for (Room.RoomType type : Room.RoomType.values()) {
+            List<Room> rooms = new ArrayList<>();
+            for (Room room : roomsList) {
+                if (room.getType() == type) {
+                    rooms.add(room);
+                }
+            }
+            RoomAssignmentOptimizer.Plan plan = optimizer.plan(rooms);
+            strandedBefore += plan.strandedNightsBefore;
+            strandedAfter += plan.strandedNightsAfter;
+            if (!plan.moves.isEmpty()) {
+                applyMoves(plan.moves);
+                moved += plan.moves.size();
+            }
+        }
+
+        return new RoomAssignmentReport(moved, strandedBefore, strandedAfter);
+    }
+
+    /**
+     * Moves reservations to their planned rooms. Every reservation is taken out of its old room
+     * before any is put in its new one, so the moves never clash with each other.
+     *
+     * @param moves The planned moves.
+     */
+    private void applyMoves(List<RoomAssignmentOptimizer.Move> moves) {
+        Set<Room> changedRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        HotelSnapshot next = snapshot;
+
+        for (RoomAssignmentOptimizer.Move move : moves) {
+            Room from = move.reservation.getRoom();
+            String previousStatus = from.getStatus();
+            from.removeReservation(move.reservation);
+            roomIndex.release(from, move.reservation.getCheckInDate(), move.reservation.getCheckOutDate());
+            trackStatusChange(previousStatus, from);
+            next = next.withRoom(next.getRoom(from.getKey()).withoutReservation(move.reservation), 0, 0,
+                    getAvailableRoomsCount());
+            changedRooms.add(from);
+        }
+        for (RoomAssignmentOptimizer.Move move : moves) {
+            Room to = move.target;
+            String previousStatus = to.getStatus();
+            move.reservation.moveTo(to);
+            if (move.reservation.getRecord() >= 0) {
+                offHeapStore.setRoomKey(move.reservation.getRecord(), to.getKey());
+            }
+            to.addReservation(move.reservation);
+            roomIndex.book(to, move.reservation.getCheckInDate(), move.reservation.getCheckOutDate());
+            trackStatusChange(previousStatus, to);
+            next = next.withRoom(next.getRoom(to.getKey()).withReservation(move.reservation), 0, 0,
+                    getAvailableRoomsCount());
+            changedRooms.add(to);
+        }
+        publish(next); // Readers see all moves of the room type at once
+        for (RoomAssignmentOptimizer.Move move : moves) {
+            for (ReservationListener listener : listeners) {
+                listener.reservationMoved(move.reservation, move.source);
+            }
+        }
+
+        if (waitlist.size() > 0) {
+            for (Room room : changedRooms) {
+                fulfillWaitlist(room, 1, horizonDays + 1);
             }
         }
+    }
 
-        // Check if the reservation exists in both the hotel's and room's reservation lists
-        if (reservationToRemove != null && reservationsList.contains(reservation)) {
-            // Remove the reservation from both the room and hotel reservation lists
-            roomsList.get(roomIndex).getReservationsList().remove(reservationToRemove);
-            reservationsList.remove(reservation);
-            room.updateStatus(); // Update room status
-            return true; // Reservation cancelled successfully
+    /**
+     * Updates the count of fully booked rooms after a room's status may have changed.
+     *
+     * @param previousStatus The status of the room before the change.
+     * @param room           The room that changed.
+     */
+    private void trackStatusChange(String previousStatus, Room room) {
+        boolean wasFullyBooked = previousStatus.equals("Fully booked");
+        boolean isFullyBooked = room.getStatus().equals("Fully booked");
+        if (wasFullyBooked != isFullyBooked) {
+            fullyBookedRooms += isFullyBooked ? 1 : -1;
         }
+    }
+
+    /**
+     * Finds a room of the hotel by name.
+     *
+     * @param roomName The name of the room.
+     * @return The room with that name, or null if the hotel has none.
+     */
+    public Room findRoom(String roomName) {
+        return roomRegistry.find(roomName);
+    }
 
-        return false; // Reservation not found for cancellation
+    /**
+     * Gets the room holding a room key.
+     *
+     * @param key The key of the room (0 to the room capacity).
+     * @return The room with that key, or null if no room holds it.
+     */
+    public Room getRoom(int key) {
+        return roomRegistry.get(key);
+    }
+
+    /**
+     * Finds a reservation of the hotel by its ID.
+     *
+     * @param reservationId The ID of the reservation.
+     * @return The reservation with that ID, or null if the hotel has none.
+     */
+    public Reservation findReservation(String reservationId) {
+        long startTime = ReservationMetrics.startTimer();
+        Reservation found = reservationsById.get(reservationId);
+        ReservationMetrics.RESERVATION_LOOKUP.record(startTime, found != null);
+        return found;
+    }
+
+    /**
+     * Makes a reservation ID unique within the hotel. IDs are built from the room, guest and
+     * dates, and a reservation keeps its ID when the hotel moves it to another room, so a new
+     * booking can build the ID of one already standing; it then gets the first free suffix
+     * "-2", "-3" and so on.
+     *
+     * @param baseId The ID built from the reservation's details.
+     * @return An ID no standing reservation of the hotel has.
+     */
+    String uniqueReservationId(String baseId) {
+        String id = baseId;
+        for (int suffix = 2; reservationsById.containsKey(id); suffix++) {
+            id = baseId + "-" + suffix;
+        }
+        return id;
     }
 
     /**
      * Calculates the total earnings from all reservations.
-     * <p>
-     * This method iterates through the list of reservations and sums up the total price of each reservation
-     * to calculate the total earnings for the hotel. If there are no reservations, it returns 0.0.
      *
-     * @return The total earnings from all reservations.
+     * @return The total earnings from all reservations, in pesos.
      */
     public double getActualEarnings() {
-        double totalEarnings = 0.0; // Initialize total earnings
+        return Money.toPesos(getActualEarningsCentavos());
+    }
 
-        // If there are no reservations, return 0.0
-        if (reservationsList.isEmpty()) {
-            return totalEarnings;
-        }
+    /**
+     * Calculates the total earnings from all reservations.
+     * <p>
+     * This method iterates through the list of reservations and sums up the total price of each reservation
+     * to calculate the total earnings for the hotel. The sum is exact, so it does not depend on the order
+     * of the reservations. If there are no reservations, it returns 0.
+     *
+     * @return The total earnings from all reservations, in centavos.
+     */
+    public long getActualEarningsCentavos() {
+        long totalEarnings = 0; // Initialize total earnings
 
         // Sum the total price of each reservation
         for (Reservation reservation : reservationsList) {
-            totalEarnings += reservation.getTotalPrice();
+            totalEarnings += reservation.getTotalPriceCentavos();
         }
         return totalEarnings; // Return total earnings
     }
@@ -220,6 +1022,26 @@ public class Hotel {
      */
     public void setName(String name) {
         this.name = name; // Set the new hotel name
+        publish(snapshot.withName(name));
+    }
+
+    /**
+     * Gets the latest committed snapshot of the hotel. The snapshot never changes, so it can be
+     * read from any thread without locking while bookings carry on.
+     *
+     * @return The current snapshot.
+     */
+    public HotelSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a snapshot as the next committed version of the hotel.
+     *
+     * @param next The snapshot holding every part of the change.
+     */
+    private void publish(HotelSnapshot next) {
+        snapshot = next.committed();
     }
 
     /**
@@ -229,10 +1051,35 @@ public class Hotel {
      * @return The count of available rooms.
      */
     public long getAvailableRoomsCount() {
-        // Using stream to filter rooms that are not fully booked and counting them
-        return roomsList.stream()
-                .filter(room -> !room.getStatus().equals("Fully booked"))
-                .count();
+        // Fully booked rooms are counted as bookings come and go, so no room has to be visited
+        return roomsList.size() - fullyBookedRooms;
+    }
+
+    /**
+     * Gets the maximum number of rooms the hotel can have.
+     *
+     * @return The room capacity.
+     */
+    public int getMaxRooms() {
+        return maxRooms;
+    }
+
+    /**
+     * Gets the number of rooms on each floor.
+     *
+     * @return The rooms per floor.
+     */
+    public int getRoomsPerFloor() {
+        return roomsPerFloor;
+    }
+
+    /**
+     * Gets the number of nights that can be booked; valid dates run from 1 to this value.
+     *
+     * @return The calendar horizon in days.
+     */
+    public int getHorizonDays() {
+        return horizonDays;
     }
 
     /**
@@ -247,18 +1094,19 @@ public class Hotel {
     /**
      * Gets the list of rooms in the hotel.
      *
-     * @return The list of rooms.
+     * @return A read-only view of the rooms that follows later changes.
      */
-    public ArrayList<Room> getRoomsList() {
-        return roomsList; // Return the list of rooms
+    public List<Room> getRoomsList() {
+        return roomsView; // Return the view, not the list itself
     }
 
     /**
-     * Gets the list of reservations in the hotel.
+     * Gets the list of reservations in the hotel, in booking order except that a cancellation
+     * moves the latest reservation into the cancelled one's place. A new reservation is always last.
      *
-     * @return The list of reservations.
+     * @return A read-only view of the reservations that follows later changes.
      */
-    public ArrayList<Reservation> getReservationsList() {
-        return reservationsList; // Return the list of reservations
+    public List<Reservation> getReservationsList() {
+        return reservationsView; // Return the view, not the list itself
     }
 }
@@ -1,6 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * The HotelInfoController class handles user interactions for viewing information
@@ -30,15 +31,15 @@ public class HotelInfoController {
         this.selectHotelView = selectHotelView;
 
         // Add action listeners to buttons
-        this.view.getHighLevelInfoButton().addActionListener(e -> viewHighLevelInfo());
-        this.view.getAvailableRoomsButton().addActionListener(e -> viewAvailableRooms());
-        this.view.getBookedRoomsButton().addActionListener(e -> viewBookedRooms());
-        this.view.getRoomInfoButton().addActionListener(e -> viewRoomInfo());
-        this.view.getReservationInfoButton().addActionListener(e -> viewReservationInfo());
+        this.view.getHighLevelInfoButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "viewHighLevelInfo", () -> viewHighLevelInfo()));
+        this.view.getAvailableRoomsButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "viewAvailableRooms", () -> viewAvailableRooms()));
+        this.view.getBookedRoomsButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "viewBookedRooms", () -> viewBookedRooms()));
+        this.view.getRoomInfoButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "viewRoomInfo", () -> viewRoomInfo()));
+        this.view.getReservationInfoButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "viewReservationInfo", () -> viewReservationInfo()));
 
         // Add action listeners for bottom buttons
-        this.view.getBackToSelectionButton().addActionListener(e -> backToSelectionPage());
-        this.view.getBackToMainMenuButton().addActionListener(e -> backToMainMenu());
+        this.view.getBackToSelectionButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "backToSelectionPage", () -> backToSelectionPage()));
+        this.view.getBackToMainMenuButton().addActionListener(e -> UiActionEvent.record("HotelInfo", "backToMainMenu", () -> backToMainMenu()));
     }
 
     /**
@@ -66,12 +67,13 @@ public class HotelInfoController {
             return; // Terminate the method
         }
 
-        String checkInInput = JOptionPane.showInputDialog(view, "Enter Check-In Date (1-30):");
+        int horizonDays = model.getHotel().getHorizonDays();
+        String checkInInput = JOptionPane.showInputDialog(view, "Enter Check-In Date (1-" + horizonDays + "):");
         if (checkInInput == null) {
             return; // Terminate the method if canceled
         }
 
-        String checkOutInput = JOptionPane.showInputDialog(view, "Enter Check-Out Date (1-30):");
+        String checkOutInput = JOptionPane.showInputDialog(view, "Enter Check-Out Date (1-" + horizonDays + "):");
         if (checkOutInput == null) {
             return; // Terminate the method if canceled
         }
@@ -81,11 +83,11 @@ public class HotelInfoController {
             int checkInDate = Integer.parseInt(checkInInput);
             int checkOutDate = Integer.parseInt(checkOutInput);
 
-            if (checkInDate < 1 || checkOutDate > 30 || checkInDate >= checkOutDate) {
+            if (checkInDate < 1 || checkOutDate > horizonDays || checkInDate >= checkOutDate) {
                 throw new IllegalArgumentException();
             }
 
-            ArrayList<Room> availableRooms = model.getAvailableRooms(checkInDate, checkOutDate);
+            Collection<Room> availableRooms = model.getAvailableRooms(checkInDate, checkOutDate);
             if (availableRooms.isEmpty()) {
                 JOptionPane.showMessageDialog(view, "No available rooms for the selected dates.", "Available Rooms", JOptionPane.INFORMATION_MESSAGE);
                 return; // Return to the HotelInfo menu
@@ -106,27 +108,28 @@ public class HotelInfoController {
 
             JOptionPane.showMessageDialog(view, scrollPane, "Available Rooms", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(view, "Invalid input! Please enter valid dates (1-30).", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(view, "Invalid input! Please enter valid dates (1-" + horizonDays + ").", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Prompts the user to enter check-in and check-out dates and displays booked
-     * rooms for the specified dates.
+     * Prompts the user to enter check-in and check-out dates and displays the rooms
+     * booked for any night between the specified dates.
      */
     private void viewBookedRooms() {
         // Check if there are any reservations before prompting for input
-        if (model.getReservations().isEmpty()) {
+        if (model.getHotel().getReservationIndex().size() == 0) {
             JOptionPane.showMessageDialog(view, "No reservations currently exist.", "Error", JOptionPane.ERROR_MESSAGE);
             return; // Terminate the method
         }
 
-        String checkInInput = JOptionPane.showInputDialog(view, "Enter Check-In Date (1-30):");
+        int horizonDays = model.getHotel().getHorizonDays();
+        String checkInInput = JOptionPane.showInputDialog(view, "Enter Check-In Date (1-" + horizonDays + "):");
         if (checkInInput == null) {
             return; // Terminate the method if canceled
         }
 
-        String checkOutInput = JOptionPane.showInputDialog(view, "Enter Check-Out Date (1-30):");
+        String checkOutInput = JOptionPane.showInputDialog(view, "Enter Check-Out Date (1-" + horizonDays + "):");
         if (checkOutInput == null) {
             return; // Terminate the method if canceled
         }
@@ -136,20 +139,18 @@ public class HotelInfoController {
             int checkInDate = Integer.parseInt(checkInInput);
             int checkOutDate = Integer.parseInt(checkOutInput);
 
-            if (checkInDate < 1 || checkOutDate > 30 || checkInDate >= checkOutDate) {
+            if (checkInDate < 1 || checkOutDate > horizonDays || checkInDate >= checkOutDate) {
                 throw new IllegalArgumentException();
             }
 
             StringBuilder message = new StringBuilder("Booked Rooms:\n");
             boolean hasBookings = false; // Flag to check if there are any bookings
-            for (Room room : model.getHotel().getRoomsList()) {
-                for (Reservation reservation : room.getReservationsList()) {
-                    if (reservation.getCheckInDate() >= checkInDate && reservation.getCheckOutDate() <= checkOutDate) {
-                        message.append(room.getName()).append(" (").append(room.getType()).append(") - Reservation ID: ")
-                                .append(reservation.getReservationID()).append("\n");
-                        hasBookings = true; // Mark that we found at least one booking
-                    }
-                }
+            // Ask the index for every stay that has a night in the range instead of visiting every room
+            for (Reservation reservation : model.getHotel().getReservationIndex().findOverlapping(checkInDate, checkOutDate)) {
+                Room room = reservation.getRoom();
+                message.append(room.getName()).append(" (").append(room.getType()).append(") - Reservation ID: ")
+                        .append(reservation.getReservationID()).append("\n");
+                hasBookings = true; // Mark that we found at least one booking
             }
 
             if (!hasBookings) {
@@ -167,7 +168,7 @@ public class HotelInfoController {
 
             JOptionPane.showMessageDialog(view, scrollPane, "Booked Rooms", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(view, "Invalid input! Please enter valid dates (1-30).", "Error", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(view, "Invalid input! Please enter valid dates (1-" + horizonDays + ").", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -175,7 +176,7 @@ public class HotelInfoController {
      * Prompts the user to select a room and displays detailed information about that room.
      */
     private void viewRoomInfo() {
-        ArrayList<Room> rooms = model.getHotel().getRoomsList();
+        List<Room> rooms = model.getHotel().getRoomsList();
 
         if (rooms.isEmpty()) {
             JOptionPane.showMessageDialog(view, "No rooms available in the hotel.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -187,18 +188,14 @@ public class HotelInfoController {
         String selectedRoom = (String) JOptionPane.showInputDialog(view, "Select a Room to View Information:",
                 "Room Information", JOptionPane.QUESTION_MESSAGE, null, roomNames, roomNames[0]);
 
-        if (selectedRoom != null) {
-            for (Room room : rooms) {
-                if (room.getName().equals(selectedRoom)) {
-                    String message = String.format("Room Name: %s\nRoom Type: %s\nPrice Per Night: PHP%.2f\nStatus: %s",
-                            room.getName(),
-                            room.getType(),
-                            room.getBasePrice() * room.getType().getPriceMultiplier(),
-                            room.getStatus());
-                    JOptionPane.showMessageDialog(view, message, "Room Information", JOptionPane.INFORMATION_MESSAGE);
-                    break;
-                }
-            }
+        Room room = selectedRoom != null ? model.getHotel().findRoom(selectedRoom) : null;
+        if (room != null) {
+            String message = String.format("Room Name: %s\nRoom Type: %s\nPrice Per Night: PHP%.2f\nStatus: %s",
+                    room.getName(),
+                    room.getType(),
+                    room.getBasePrice() * room.getType().getPriceMultiplier(),
+                    room.getStatus());
+            JOptionPane.showMessageDialog(view, message, "Room Information", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
@@ -207,7 +204,7 @@ public class HotelInfoController {
      * about the corresponding reservation.
      */
     private void viewReservationInfo() {
-        ArrayList<Reservation> reservations = model.getReservations();
+        Collection<Reservation> reservations = model.getReservations();
 
         if (reservations.isEmpty()) {
             JOptionPane.showMessageDialog(view, "No reservations found.", "Reservation Information", JOptionPane.INFORMATION_MESSAGE);
@@ -234,18 +231,33 @@ public class HotelInfoController {
     }
 
     /**
-     * Closes the current view and returns to the hotel selection page.
+     * Shows the view, refreshing the hotel name in case it was changed since the last visit.
+     */
+    public void show() {
+        view.setHotelName(model.getHotel().getName());
+        view.setVisible(true);
+    }
+
+    /**
+     * Releases the view once the hotel it belongs to is no longer managed.
+     */
+    public void close() {
+        view.dispose();
+    }
+
+    /**
+     * Hides the current view and returns to the hotel selection page.
      */
     private void backToSelectionPage() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         selectHotelView.setVisible(true); // Show the selection view again
     }
 
     /**
-     * Closes the current view and returns to the main menu.
+     * Hides the current view and returns to the main menu.
      */
     private void backToMainMenu() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         selectHotelController.goBackToMainMenu(); // Show the main menu
     }
 }
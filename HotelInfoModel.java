@@ -1,4 +1,4 @@
-import java.util.ArrayList;
+import java.util.Collection;
 
 /**
  * The HotelInfoModel class represents the data model for hotel information,
@@ -31,7 +31,7 @@ public class HotelInfoModel {
      * @return The total income as a double.
      */
     public double getTotalIncome() {
-        return hotel.getActualEarnings();
+        return hotel.getSnapshot().getActualEarnings();
     }
 
     /**
@@ -39,28 +39,19 @@ public class HotelInfoModel {
      *
      * @param checkInDate  The date of check-in.
      * @param checkOutDate The date of check-out.
-     * @return A list of available rooms for the specified dates.
+     * @return A read-only view of the available rooms for the specified dates.
      */
-    public ArrayList<Room> getAvailableRooms(int checkInDate, int checkOutDate) {
-        ArrayList<Room> availableRooms = new ArrayList<>();
-        for (Room room : hotel.getRoomsList()) {
-            if (room.isAvailableToReserve(checkInDate, checkOutDate)) {
-                availableRooms.add(room);
-            }
-        }
-        return availableRooms;
+    public Collection<Room> getAvailableRooms(int checkInDate, int checkOutDate) {
+        return hotel.getSnapshot().getAvailableRooms(checkInDate, checkOutDate);
     }
 
     /**
      * Retrieves a list of all reservations made in the hotel.
      *
-     * @return A list of all reservations associated with the hotel.
+     * @return A read-only view of all reservations associated with the hotel.
      */
-    public ArrayList<Reservation> getReservations() {
-        ArrayList<Reservation> allReservations = new ArrayList<>();
-        for (Room room : hotel.getRoomsList()) {
-            allReservations.addAll(room.getReservationsList());
-        }
-        return allReservations;
+    public Collection<Reservation> getReservations() {
+        // Read from the latest snapshot so the view is consistent even while bookings are made
+        return hotel.getSnapshot().getReservations();
     }
 }
@@ -15,6 +15,7 @@ public class HotelInfoView extends JFrame {
     private final JButton reservationInfoButton;
     private final JButton backToSelectionButton;
     private final JButton backToMainMenuButton;
+    private final JLabel hotelNameLabel; // Label showing the name of the hotel being viewed
 
     /**
      * Constructs a HotelInfoView for the specified hotel.
@@ -41,7 +42,8 @@ public class HotelInfoView extends JFrame {
                 </html>""";
 
         JLabel asciiLabel = new JLabel(asciiArt, SwingConstants.CENTER);
-        JLabel hotelNameLabel = new JLabel("<html>The hotel being managed is hotel " + hotelName + ".<br><br><center>Click what type of information to view:</center></html>", SwingConstants.CENTER);
+        hotelNameLabel = new JLabel("", SwingConstants.CENTER);
+        setHotelName(hotelName);
 
         // Create buttons
         highLevelInfoButton = new JButton("High-Level Information");
@@ -128,6 +130,15 @@ public class HotelInfoView extends JFrame {
         });
     }
 
+    /**
+     * Updates the hotel name shown at the top of the view.
+     *
+     * @param hotelName The name of the hotel being viewed.
+     */
+    public void setHotelName(String hotelName) {
+        hotelNameLabel.setText("<html>The hotel being managed is hotel " + hotelName + ".<br><br><center>Click what type of information to view:</center></html>");
+    }
+
     /**
      * Returns the button for viewing high-level information.
      *
@@ -1,16 +1,30 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Manages the hotel reservation system.
+ * <p>
+ * Besides the working list of hotels, the system publishes an immutable copy of the list
+ * whenever a hotel is added or removed. Together with each hotel's {@link HotelSnapshot},
+ * this lets searches and screens read without locking and without seeing half-applied changes.
  */
 public class HotelReservationSystem {
     private final ArrayList<Hotel> hotelList;
+    private volatile PersistentVector<Hotel> publishedHotels; // Immutable copy of the hotel list for readers
+    private final GuestRegistry guestRegistry; // Stay history of every guest across the hotels
+    private final ReservationColumns reservationColumns; // Every reservation in primitive columns for reports
 
     /**
      * Constructs a new HotelReservationSystem with an empty list of hotels.
      */
     public HotelReservationSystem() {
         hotelList = new ArrayList<>();
+        publishedHotels = PersistentVector.empty();
+        guestRegistry = new GuestRegistry();
+        reservationColumns = new ReservationColumns();
     }
 
     /**
@@ -20,6 +34,24 @@ public class HotelReservationSystem {
      * @return true if the hotel is added, false otherwise.
      */
     public boolean addHotel(String hotelName) {
+        return addHotel(hotelName, Hotel.DEFAULT_MAX_ROOMS, Hotel.DEFAULT_ROOMS_PER_FLOOR, Hotel.DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Adds a new hotel with the given capacity and calendar horizon to the system if it does not already exist.
+     *
+     * @param hotelName     The name of the hotel to be added.
+     * @param maxRooms      The maximum number of rooms of the hotel.
+     * @param roomsPerFloor The number of rooms on each floor.
+     * @param horizonDays   The number of nights that can be booked.
+     * @return true if the hotel is added, false otherwise.
+     */
+    public boolean addHotel(String hotelName, int maxRooms, int roomsPerFloor, int horizonDays) {
+        // Check the capacity and calendar settings
+        if (!Hotel.isValidConfiguration(maxRooms, roomsPerFloor, horizonDays)) {
+            return false;
+        }
+
         // Check if the hotel already exists
         for (Hotel hotel : hotelList) {
             if (hotel.getName().equalsIgnoreCase(hotelName)) {
@@ -43,8 +75,11 @@ public class HotelReservationSystem {
         }
 
         // Add new hotel
-        Hotel newHotel = new Hotel(hotelName);
+        Hotel newHotel = new Hotel(hotelName, maxRooms, roomsPerFloor, horizonDays);
+        newHotel.addReservationListener(guestRegistry);
+        newHotel.addReservationListener(reservationColumns);
         hotelList.add(newHotel);
+        publishedHotels = publishedHotels.append(newHotel);
         return true;
     }
 
@@ -118,23 +153,48 @@ public class HotelReservationSystem {
             return false;
         }
         hotelList.remove(hotel);
+        hotel.removeReservationListener(guestRegistry);
+        hotel.removeReservationListener(reservationColumns);
+        reservationColumns.removeHotel(hotel);
+
+        // Removals are rare, so the published list is simply rebuilt
+        PersistentVector<Hotel> remaining = PersistentVector.empty();
+        for (Hotel h : hotelList) {
+            remaining = remaining.append(h);
+        }
+        publishedHotels = remaining;
         return true;
     }
 
     /**
-     * Returns a list of available rooms for reservation within a specified date range.
+     * Returns the rooms available for reservation within a specified date range.
+     * The rooms are read from the hotel's latest snapshot, so the search never waits for a
+     * booking and the result stays as of the time of the call. The rooms are checked once while the search is timed and the keys of the free ones are
+     * kept, so the metric and event cover the whole search and reading the view only looks
+     * the rooms up by key.
      *
      * @param hotel        The hotel to check for available rooms.
      * @param checkInDate  The check-in date.
      * @param checkOutDate The check-out date.
-     * @return A list of available rooms.
+     * @return A read-only view of the available rooms.
      */
-    public ArrayList<Room> getAvailableRooms(Hotel hotel, int checkInDate, int checkOutDate) {
-        ArrayList<Room> availableRooms = new ArrayList<>();
-        for (Room room : hotel.getRoomsList()) {
-            if (room.isAvailableToReserve(checkInDate, checkOutDate)) {
-                availableRooms.add(room);
-            }
+    public Collection<Room> getAvailableRooms(Hotel hotel, int checkInDate, int checkOutDate) {
+        HotelSearchEvent event = new HotelSearchEvent();
+        event.begin();
+        long startTime = ReservationMetrics.startTimer();
+        HotelSnapshot snapshot = hotel.getSnapshot();
+        int[] keys = snapshot.findAvailableRoomKeys(checkInDate, checkOutDate);
+        Collection<Room> availableRooms = snapshot.getRooms(keys);
+        ReservationMetrics.ROOM_SEARCH.record(startTime, keys.length > 0);
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "availableRooms";
+            event.hotel = hotel.getName();
+            event.checkInDate = checkInDate;
+            event.checkOutDate = checkOutDate;
+            event.hotelsSearched = 1;
+            event.results = keys.length;
+            event.commit();
         }
         return availableRooms;
     }
@@ -149,21 +209,103 @@ public class HotelReservationSystem {
     }
 
     /**
-     * Gets a list of available hotels in the system.
+     * Gets the registry of guests, which holds each guest's stays in every hotel of the system.
+     *
+     * @return The guest registry.
+     */
+    public GuestRegistry getGuestRegistry() {
+        return guestRegistry;
+    }
+
+    /**
+     * Gets the columnar copy of every reservation in the system, used for occupancy, average
+     * daily rate and revenue reports.
+     *
+     * @return The reservation columns.
+     */
+    public ReservationColumns getReservationColumns() {
+        return reservationColumns;
+    }
+
+    /**
+     * Gets an immutable, point-in-time copy of the list of hotels that can be read from any thread.
+     *
+     * @return The hotels as of the last time one was added or removed.
+     */
+    public List<Hotel> getHotelSnapshot() {
+        return publishedHotels.asList();
+    }
+
+    /**
+     * Gets the available hotels in the system.
      * A hotel is considered available if it has at least one room that is not fully booked.
+     * The search reads only published snapshots and never waits for a booking. Each hotel's
+     * snapshot is taken once, when the search is made, and the result is filtered lazily
+     * against those snapshots, so every read of it gives the same hotels. The hotels are
+     * counted once while the search is timed.
      *
-     * @return A list of available hotels.
+     * @return A read-only view of the available hotels.
      */
-    public ArrayList<Hotel> getAvailableHotels() {
-        ArrayList<Hotel> availableHotels = new ArrayList<>();
+    public Collection<Hotel> getAvailableHotels() {
+        HotelSearchEvent event = new HotelSearchEvent();
+        event.begin();
+        long startTime = ReservationMetrics.startTimer();
+        List<Hotel> hotels = publishedHotels.asList();
+        HotelSnapshot[] snapshots = new HotelSnapshot[hotels.size()];
+        int found = 0;
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = hotels.get(i).getSnapshot();
+            if (snapshots[i].getAvailableRoomsCount() > 0) {
+                found++; // At least one room in the hotel is not fully booked
+            }
+        }
+        Collection<Hotel> availableHotels = new SpliteratorView<>(() -> IntStream.range(0, snapshots.length)
+                .filter(i -> snapshots[i].getAvailableRoomsCount() > 0).mapToObj(hotels::get).spliterator(), found);
 
-        for (Hotel hotel : hotelList) {
-            // Check if there is at least one room in the hotel that is not fully booked
-            if (hotel.getAvailableRoomsCount() > 0) {
+        ReservationMetrics.HOTEL_SEARCH.record(startTime, found > 0);
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "availableHotels";
+            event.hotelsSearched = hotels.size();
+            event.results = found;
+            event.commit();
+        }
+        return availableHotels;
+    }
+
+    /**
+     * Gets the hotels with a room of a type free on every night of a stay. Each hotel answers
+     * from its room type inventory, without looking at any room. The inventories change with
+     * every booking, so every hotel is asked once, while the search is timed, and the hotels
+     * found are kept.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return A read-only list of the available hotels, as of the time of the call.
+     */
+    public Collection<Hotel> getAvailableHotels(Room.RoomType type, int checkInDate, int checkOutDate) {
+        HotelSearchEvent event = new HotelSearchEvent();
+        event.begin();
+        long startTime = ReservationMetrics.startTimer();
+        List<Hotel> hotels = publishedHotels.asList();
+        List<Hotel> availableHotels = new ArrayList<>();
+        for (Hotel hotel : hotels) {
+            if (hotel.getAvailableRoomCount(type, checkInDate, checkOutDate) > 0) {
                 availableHotels.add(hotel);
             }
         }
 
-        return availableHotels;
+        ReservationMetrics.HOTEL_SEARCH.record(startTime, !availableHotels.isEmpty());
+        event.end();
+        if (event.shouldCommit()) {
+            event.search = "availableHotelsByType";
+            event.checkInDate = checkInDate;
+            event.checkOutDate = checkOutDate;
+            event.hotelsSearched = hotels.size();
+            event.results = availableHotels.size();
+            event.commit();
+        }
+        return Collections.unmodifiableList(availableHotels);
     }
 }
@@ -0,0 +1,32 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for availability searches: the rooms of one hotel
+ * through {@link HotelReservationSystem#getAvailableRooms}, or every hotel through
+ * {@link HotelReservationSystem#getAvailableHotels}. The event duration is the time
+ * the search took.
+ */
+@Name("hrs.HotelSearch")
+@Label("Availability Search")
+@Category({"Hotel Reservation System", "Search"})
+@Description("A search for available rooms or hotels")
+public class HotelSearchEvent extends Event {
+    @Label("Search")
+    @Description("availableRooms or availableHotels")
+    String search; // Kind of search
+
+    @Label("Hotel")
+    String hotel; // Hotel searched, or null when every hotel was searched
+
+    @Label("Check-In Date")
+    int checkInDate; // First night searched, 0 when the search has no dates
+
+    @Label("Check-Out Date")
+    int checkOutDate; // Day the searched stay would end, 0 when the search has no dates
+
+    @Label("Hotels Searched")
+    int hotelsSearched; // Number of hotels looked at
+
+    @Label("Results")
+    int results; // Number of rooms or hotels found
+}
@@ -0,0 +1,475 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.StreamSupport;
+
+/**
+ * An immutable, point-in-time view of a hotel: its rooms, reservations and earnings as they
+ * were after one committed change.
+ * <p>
+ * A {@link Hotel} publishes a new snapshot after every change through a volatile reference,
+ * so any thread can read a consistent view without locking and without ever seeing a booking
+ * that is only half applied. Rooms are kept in a {@link PersistentVector} indexed by room key
+ * and each room's reservations in a {@link PersistentIntMap}, so a new snapshot shares almost
+ * everything with the previous one and a booking only copies the path to its own room.
+ * <p>
+ * Available rooms and reservations are handed out as {@link SpliteratorView}s that read the
+ * snapshot in place, so a search allocates nothing per room and parallel streams split the
+ * rooms by key range.
+ */
+public final class HotelSnapshot {
+    private static final int MIN_SPLIT_ROOMS = 64;       // Room key ranges shorter than this are not split further
+
+    private final long version;                          // Number of changes committed before this snapshot
+    private final String name;                           // Name of the hotel
+    private final int horizonDays;                       // Number of nights that can be booked
+    private final PersistentVector<RoomSnapshot> rooms;  // Rooms by room key, null for free keys
+    private final int roomCount;                         // Number of rooms
+    private final int reservationCount;                  // Number of reservations
+    private final long availableRoomsCount;              // Number of rooms that are not fully booked
+    private final long earnings;                         // Total price of all reservations, in centavos
+
+    /**
+     * Constructs a HotelSnapshot.
+     *
+     * @param version             The number of changes committed before this snapshot.
+     * @param name                The name of the hotel.
+     * @param horizonDays         The number of nights that can be booked.
+     * @param rooms               The rooms by room key.
+     * @param roomCount           The number of rooms.
+     * @param reservationCount    The number of reservations.
+     * @param availableRoomsCount The number of rooms that are not fully booked.
+     * @param earnings            The total price of all reservations, in centavos.
+     */
+    private HotelSnapshot(long version, String name, int horizonDays, PersistentVector<RoomSnapshot> rooms,
+                          int roomCount, int reservationCount, long availableRoomsCount, long earnings) {
+        this.version = version;
+        this.name = name;
+        this.horizonDays = horizonDays;
+        this.rooms = rooms;
+        this.roomCount = roomCount;
+        this.reservationCount = reservationCount;
+        this.availableRoomsCount = availableRoomsCount;
+        this.earnings = earnings;
+    }
+
+    /**
+     * Takes the snapshot of a new hotel without rooms.
+     *
+     * @param name        The name of the hotel.
+     * @param horizonDays The number of nights that can be booked.
+     * @return The snapshot.
+     */
+    static HotelSnapshot empty(String name, int horizonDays) {
+        return new HotelSnapshot(0, name, horizonDays, PersistentVector.empty(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Returns this snapshot as the next committed version, once all parts of a change are applied.
+     *
+     * @return The snapshot with its version increased by one.
+     */
+    HotelSnapshot committed() {
+        return new HotelSnapshot(version + 1, name, horizonDays, rooms, roomCount, reservationCount,
+                availableRoomsCount, earnings);
+    }
+
+    /**
+     * Returns a snapshot with a new name.
+     *
+     * @param newName The new name of the hotel.
+     * @return The changed snapshot.
+     */
+    HotelSnapshot withName(String newName) {
+        return new HotelSnapshot(version, newName, horizonDays, rooms, roomCount, reservationCount,
+                availableRoomsCount, earnings);
+    }
+
+    /**
+     * Returns a snapshot with a room added or replaced.
+     *
+     * @param room                The snapshot of the room.
+     * @param reservationChange   The change in the number of reservations.
+     * @param earningsChange      The change in earnings, in centavos.
+     * @param availableRoomsCount The number of rooms that are not fully booked after the change.
+     * @return The changed snapshot.
+     */
+    HotelSnapshot withRoom(RoomSnapshot room, int reservationChange, long earningsChange, long availableRoomsCount) {
+        int key = room.getRoom().getKey();
+        boolean isNew = key >= rooms.size() || rooms.get(key) == null;
+        PersistentVector<RoomSnapshot> changed = key < rooms.size() ? rooms.set(key, room) : rooms.append(room);
+        return new HotelSnapshot(version, name, horizonDays, changed, roomCount + (isNew ? 1 : 0),
+                reservationCount + reservationChange, availableRoomsCount, earnings + earningsChange);
+    }
+
+    /**
+     * Returns a snapshot without a room.
+     *
+     * @param key                 The key of the removed room.
+     * @param availableRoomsCount The number of rooms that are not fully booked after the change.
+     * @return The changed snapshot.
+     */
+    HotelSnapshot withoutRoom(int key, long availableRoomsCount) {
+        PersistentVector<RoomSnapshot> changed = key == rooms.size() - 1 ? rooms.removeLast() : rooms.set(key, null);
+        return new HotelSnapshot(version, name, horizonDays, changed, roomCount - 1, reservationCount,
+                availableRoomsCount, earnings);
+    }
+
+    /**
+     * Gets the number of changes committed before this snapshot. A higher version is a later view.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the name of the hotel.
+     *
+     * @return The name of the hotel.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of nights that can be booked.
+     *
+     * @return The calendar horizon in days.
+     */
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Gets the snapshot of the room holding a room key.
+     *
+     * @param key The key of the room.
+     * @return The room snapshot, or null if no room held the key.
+     */
+    public RoomSnapshot getRoom(int key) {
+        return key >= 0 && key < rooms.size() ? rooms.get(key) : null;
+    }
+
+    /**
+     * Gets the snapshots of all rooms in room key order.
+     *
+     * @return The room snapshots.
+     */
+    public List<RoomSnapshot> getRooms() {
+        List<RoomSnapshot> result = new ArrayList<>(roomCount);
+        for (RoomSnapshot room : rooms.asList()) {
+            if (room != null) {
+                result.add(room);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of rooms.
+     *
+     * @return The number of rooms.
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Gets the rooms that were free between the specified dates. The rooms are looked up
+     * lazily each time the view is read, without copying.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return A read-only view of the available rooms, in room key order.
+     */
+    public Collection<Room> getAvailableRooms(int checkInDate, int checkOutDate) {
+        return new SpliteratorView<>(() -> new AvailableRooms(
+                new AvailableRoomKeys(rooms, checkInDate, checkOutDate, 0, rooms.size())));
+    }
+
+    /**
+     * Walks the keys of the rooms that were free between the specified dates, without
+     * creating an object per room.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return A cursor over the available room keys, in ascending order.
+     */
+    public Spliterator.OfInt getAvailableRoomKeys(int checkInDate, int checkOutDate) {
+        return new AvailableRoomKeys(rooms, checkInDate, checkOutDate, 0, rooms.size());
+    }
+
+    /**
+     * Finds the keys of the rooms that were free between the specified dates, checking every
+     * room once.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The available room keys, in ascending order.
+     */
+    public int[] findAvailableRoomKeys(int checkInDate, int checkOutDate) {
+        return StreamSupport.intStream(getAvailableRoomKeys(checkInDate, checkOutDate), false).toArray();
+    }
+
+    /**
+     * Gets the rooms of some room keys of this snapshot, such as those found by
+     * {@link #findAvailableRoomKeys(int, int)}. The rooms are looked up by key each time the
+     * view is read; nothing is checked again.
+     *
+     * @param keys The room keys, each holding a room in this snapshot; not changed afterwards.
+     * @return A read-only view of the rooms, in the order of the keys.
+     */
+    public Collection<Room> getRooms(int[] keys) {
+        return new SpliteratorView<>(() -> Arrays.stream(keys).mapToObj(key -> rooms.get(key).getRoom()).spliterator(),
+                keys.length);
+    }
+
+    /**
+     * Counts the rooms that were free between the specified dates.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return The number of available rooms.
+     */
+    public int countAvailableRooms(int checkInDate, int checkOutDate) {
+        int[] count = {0};
+        getAvailableRoomKeys(checkInDate, checkOutDate).forEachRemaining((int key) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Gets all reservations, room by room in room key order and in check-in order within a room.
+     * The reservations are read in place each time the view is read, without copying.
+     *
+     * @return A read-only view of the reservations.
+     */
+    public Collection<Reservation> getReservations() {
+        return new SpliteratorView<>(() -> new Reservations(rooms, 0, rooms.size(), null, reservationCount),
+                reservationCount);
+    }
+
+    /**
+     * Gets the number of reservations.
+     *
+     * @return The number of reservations.
+     */
+    public int getReservationCount() {
+        return reservationCount;
+    }
+
+    /**
+     * Gets the number of rooms that were not fully booked.
+     *
+     * @return The count of available rooms.
+     */
+    public long getAvailableRoomsCount() {
+        return availableRoomsCount;
+    }
+
+    /**
+     * Gets the total price of all reservations.
+     *
+     * @return The total earnings, in pesos.
+     */
+    public double getActualEarnings() {
+        return Money.toPesos(earnings);
+    }
+
+    /**
+     * Gets the total price of all reservations. The total is kept exact as bookings come and go.
+     *
+     * @return The total earnings, in centavos.
+     */
+    public long getActualEarningsCentavos() {
+        return earnings;
+    }
+
+    /**
+     * Walks the keys of the rooms in a key range that were free for a stay. Splitting hands
+     * the first half of the remaining key range to the new cursor.
+     */
+    private static final class AvailableRoomKeys implements Spliterator.OfInt {
+        private final PersistentVector<RoomSnapshot> rooms; // Rooms by key
+        private final int checkInDate;                      // Check-in date of the stay
+        private final int checkOutDate;                     // Check-out date of the stay
+        private int index;                                  // Next room key to look at
+        private final int end;                              // Room key after the last one to look at
+
+        /**
+         * Constructs a cursor over a room key range.
+         *
+         * @param rooms        The rooms by key.
+         * @param checkInDate  The check-in date.
+         * @param checkOutDate The check-out date.
+         * @param index        The first room key, inclusive.
+         * @param end          The last room key, exclusive.
+         */
+        AvailableRoomKeys(PersistentVector<RoomSnapshot> rooms, int checkInDate, int checkOutDate, int index, int end) {
+            this.rooms = rooms;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (index < end) {
+                int key = index++;
+                RoomSnapshot room = rooms.get(key);
+                if (room != null && room.isAvailableToReserve(checkInDate, checkOutDate)) {
+                    action.accept(key);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (end - index < 2 * MIN_SPLIT_ROOMS) {
+                return null; // Too few rooms left to be worth handing out
+            }
+            int middle = (index + end) >>> 1;
+            Spliterator.OfInt prefix = new AvailableRoomKeys(rooms, checkInDate, checkOutDate, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null; // Keys come in their natural order
+        }
+    }
+
+    /**
+     * Walks the rooms that were free for a stay by turning the keys of an
+     * {@link AvailableRoomKeys} cursor into rooms.
+     */
+    private final class AvailableRooms implements Spliterator<Room> {
+        private final Spliterator.OfInt keys; // The keys of the available rooms
+
+        /**
+         * Constructs a cursor over the rooms of a key cursor.
+         *
+         * @param keys The cursor over the available room keys.
+         */
+        AvailableRooms(Spliterator.OfInt keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Room> action) {
+            return keys.tryAdvance((int key) -> action.accept(rooms.get(key).getRoom()));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Room> action) {
+            keys.forEachRemaining((int key) -> action.accept(rooms.get(key).getRoom()));
+        }
+
+        @Override
+        public Spliterator<Room> trySplit() {
+            Spliterator.OfInt prefix = keys.trySplit();
+            return prefix == null ? null : new AvailableRooms(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return keys.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Walks the reservations of the rooms in a key range. The size is exact until the cursor
+     * is first split; splitting hands the room being read and the first half of the remaining
+     * key range to the new cursor, which keeps the encounter order.
+     */
+    private static final class Reservations implements Spliterator<Reservation> {
+        private final PersistentVector<RoomSnapshot> rooms; // Rooms by key
+        private int index;                                  // Next room key to read
+        private final int end;                              // Room key after the last one to read
+        private Iterator<Reservation> current;              // Reservations left in the room being read, or null
+        private long exactSize;                             // Reservations left, -1 once the cursor has been split
+
+        /**
+         * Constructs a cursor over a room key range.
+         *
+         * @param rooms     The rooms by key.
+         * @param index     The first room key, inclusive.
+         * @param end       The last room key, exclusive.
+         * @param current   The reservations left in a room before the range, or null.
+         * @param exactSize The number of reservations in the range, or -1 if unknown.
+         */
+        Reservations(PersistentVector<RoomSnapshot> rooms, int index, int end, Iterator<Reservation> current,
+                     long exactSize) {
+            this.rooms = rooms;
+            this.index = index;
+            this.end = end;
+            this.current = current;
+            this.exactSize = exactSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Reservation> action) {
+            while (current == null || !current.hasNext()) {
+                if (index >= end) {
+                    return false;
+                }
+                RoomSnapshot room = rooms.get(index++);
+                current = room == null || room.getReservations().isEmpty() ? null : room.getReservations().iterator();
+            }
+            action.accept(current.next());
+            if (exactSize > 0) {
+                exactSize--;
+            }
+            return true;
+        }
+
+        @Override
+        public Spliterator<Reservation> trySplit() {
+            if (end - index < 2 * MIN_SPLIT_ROOMS) {
+                return null; // Too few rooms left to be worth handing out
+            }
+            int middle = (index + end) >>> 1;
+            Spliterator<Reservation> prefix = new Reservations(rooms, index, middle, current, -1);
+            index = middle;
+            current = null;
+            exactSize = -1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return exactSize >= 0 ? exactSize : end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE | (exactSize >= 0 ? SIZED : 0);
+        }
+    }
+}
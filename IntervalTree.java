@@ -0,0 +1,345 @@
+import java.util.List;
+
+/**
+ * A set of half-open intervals [start, end) that finds every interval overlapping a query
+ * range in logarithmic time plus the number of intervals found.
+ * <p>
+ * The intervals are kept in a randomized balanced binary search tree (a treap) ordered by
+ * start, and every node also remembers the largest and smallest end in its subtree. An overlap
+ * query skips any subtree whose largest end lies before the range, and everything to the
+ * right of a node that starts after the range, so only nodes near a match are visited. A
+ * containment query likewise skips any subtree whose smallest end lies after the range.
+ *
+ * @param <V> The type of the values stored with the intervals.
+ */
+public class IntervalTree<V> {
+    private Entry<V> root;     // Root of the tree, null when empty
+    private int size;          // Number of intervals
+    private long nextSequence; // Order in which intervals were added, breaks ties between equal starts
+
+    /**
+     * An interval in the tree. The entry returned by {@link #insert(int, int, Object)} is the
+     * handle used to remove the interval again.
+     *
+     * @param <V> The type of the value.
+     */
+    public static final class Entry<V> {
+        private final int start;      // Start of the interval, inclusive
+        private final int end;        // End of the interval, exclusive
+        private final V value;        // Value stored with the interval
+        private final long sequence;  // Order in which the interval was added
+        private final int priority;   // Heap priority that keeps the tree balanced
+        private int maxEnd;           // Largest end in the subtree rooted here
+        private int minEnd;           // Smallest end in the subtree rooted here
+        private Entry<V> left;        // Intervals that start earlier
+        private Entry<V> right;       // Intervals that start later
+
+        /**
+         * Constructs an Entry.
+         *
+         * @param start    The start of the interval.
+         * @param end      The end of the interval.
+         * @param value    The value.
+         * @param sequence The order in which the interval was added.
+         */
+        private Entry(int start, int end, V value, long sequence) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.sequence = sequence;
+            this.priority = Long.hashCode(sequence * 0x9E3779B97F4A7C15L); // Spread sequence numbers into random-looking priorities
+            this.maxEnd = end;
+            this.minEnd = end;
+        }
+
+        /**
+         * Gets the start of the interval.
+         *
+         * @return The start, inclusive.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Gets the end of the interval.
+         *
+         * @return The end, exclusive.
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * Gets the value stored with the interval.
+         *
+         * @return The value.
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Gets the order in which the interval was added; earlier intervals have lower numbers.
+         *
+         * @return The sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    /**
+     * Adds an interval.
+     *
+     * @param start The start of the interval, inclusive.
+     * @param end   The end of the interval, exclusive; must be greater than start.
+     * @param value The value to store with the interval.
+     * @return The entry of the interval, needed to remove it.
+     * @throws IllegalArgumentException If the interval is empty.
+     */
+    public Entry<V> insert(int start, int end, V value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Empty interval [" + start + ", " + end + ")");
+        }
+        Entry<V> entry = new Entry<>(start, end, value, nextSequence++);
+        root = insert(root, entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Removes an interval.
+     *
+     * @param entry The entry returned when the interval was added.
+     * @return true if the interval was in the tree, false otherwise.
+     */
+    public boolean remove(Entry<V> entry) {
+        int sizeBefore = size;
+        root = remove(root, entry);
+        return size < sizeBefore;
+    }
+
+    /**
+     * Finds every interval that overlaps the range [from, to).
+     *
+     * @param from   The start of the range, inclusive.
+     * @param to     The end of the range, exclusive.
+     * @param result The list the overlapping entries are added to, in order of start.
+     */
+    public void findOverlapping(int from, int to, List<Entry<V>> result) {
+        findOverlapping(root, from, to, result);
+    }
+
+    /**
+     * Finds every interval that lies within the range [from, to]: starting on or after from and
+     * ending on or before to. Only subtrees holding at least one such interval are entered
+     * once the search is inside the range, so the cost is a logarithmic search plus at most a
+     * logarithmic walk per interval found.
+     *
+     * @param from   The smallest start, inclusive.
+     * @param to     The largest end, inclusive.
+     * @param result The list the contained entries are added to, in order of start.
+     */
+    public void findContained(int from, int to, List<Entry<V>> result) {
+        findContained(root, from, to, result);
+    }
+
+    /**
+     * Gets the number of intervals.
+     *
+     * @return The size of the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the tree holds no intervals.
+     *
+     * @return true if the tree is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts an entry into a subtree.
+     *
+     * @param node  The root of the subtree.
+     * @param entry The entry to insert.
+     * @return The new root of the subtree.
+     */
+    private Entry<V> insert(Entry<V> node, Entry<V> entry) {
+        if (node == null) {
+            return entry;
+        }
+        if (compare(entry, node) < 0) {
+            node.left = insert(node.left, entry);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, entry);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Removes an entry from a subtree.
+     *
+     * @param node  The root of the subtree.
+     * @param entry The entry to remove.
+     * @return The new root of the subtree.
+     */
+    private Entry<V> remove(Entry<V> node, Entry<V> entry) {
+        if (node == null) {
+            return null; // Not in the tree
+        }
+        if (node == entry) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (compare(entry, node) < 0) {
+            node.left = remove(node.left, entry);
+        } else {
+            node.right = remove(node.right, entry);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two subtrees where every entry of the first comes before every entry of the second.
+     *
+     * @param left  The first subtree.
+     * @param right The second subtree.
+     * @return The root of the joined tree.
+     */
+    private Entry<V> merge(Entry<V> left, Entry<V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Collects the entries of a subtree that overlap [from, to).
+     *
+     * @param node   The root of the subtree.
+     * @param from   The start of the range, inclusive.
+     * @param to     The end of the range, exclusive.
+     * @param result The list to add the entries to.
+     */
+    private void findOverlapping(Entry<V> node, int from, int to, List<Entry<V>> result) {
+        if (node == null || node.maxEnd <= from) {
+            return; // Everything in this subtree ends before the range starts
+        }
+        findOverlapping(node.left, from, to, result);
+        if (node.start < to) {
+            if (node.end > from) {
+                result.add(node);
+            }
+            findOverlapping(node.right, from, to, result); // Later starts may still fall in the range
+        }
+    }
+
+    /**
+     * Collects the entries of a subtree that lie within [from, to].
+     *
+     * @param node   The root of the subtree.
+     * @param from   The smallest start, inclusive.
+     * @param to     The largest end, inclusive.
+     * @param result The list to add the entries to.
+     */
+    private void findContained(Entry<V> node, int from, int to, List<Entry<V>> result) {
+        if (node == null || node.minEnd > to) {
+            return; // Everything in this subtree ends after the range
+        }
+        if (node.start >= from) {
+            findContained(node.left, from, to, result); // Earlier starts may still fall in the range
+            if (node.end <= to) {
+                result.add(node);
+            }
+        }
+        if (node.start < to) {
+            findContained(node.right, from, to, result); // Intervals starting at to or later cannot end by to
+        }
+    }
+
+    /**
+     * Orders entries by start, then by the order they were added.
+     *
+     * @param a The first entry.
+     * @param b The second entry.
+     * @return A negative number, zero or a positive number as a comes before, is, or comes after b.
+     */
+    private static int compare(Entry<?> a, Entry<?> b) {
+        int byStart = Integer.compare(a.start, b.start);
+        return byStart != 0 ? byStart : Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * Recomputes the largest and smallest end of a node's subtree from its children.
+     *
+     * @param node The node.
+     */
+    private static void update(Entry<?> node) {
+        int maxEnd = node.end;
+        int minEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+            minEnd = Math.min(minEnd, node.left.minEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+            minEnd = Math.min(minEnd, node.right.minEnd);
+        }
+        node.maxEnd = maxEnd;
+        node.minEnd = minEnd;
+    }
+
+    /**
+     * Rotates a node down to the right, lifting its left child.
+     *
+     * @param node The node.
+     * @return The lifted child.
+     */
+    private static <V> Entry<V> rotateRight(Entry<V> node) {
+        Entry<V> lifted = node.left;
+        node.left = lifted.right;
+        lifted.right = node;
+        update(node);
+        update(lifted);
+        return lifted;
+    }
+
+    /**
+     * Rotates a node down to the left, lifting its right child.
+     *
+     * @param node The node.
+     * @return The lifted child.
+     */
+    private static <V> Entry<V> rotateLeft(Entry<V> node) {
+        Entry<V> lifted = node.right;
+        node.right = lifted.left;
+        lifted.left = node;
+        update(node);
+        update(lifted);
+        return lifted;
+    }
+}
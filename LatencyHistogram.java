@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram in the style of HdrHistogram.
+ * <p>
+ * Values are grouped into buckets whose width grows with the magnitude of the value:
+ * every power of two is split into 16 equal buckets, so any recorded value is known to
+ * within about 6%. Recording is a single atomic increment and never allocates, which
+ * makes it cheap enough to call on every operation from any number of threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;                          // 16 buckets per power of two
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;      // Number of buckets per power of two
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT; // Enough for any long
+
+    private final AtomicLongArray counts; // Number of values recorded in each bucket
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value The value to record, usually a duration in nanoseconds. Negative values count as 0.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(Math.max(0, value)));
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the value below which the given fraction of the recorded values fall.
+     *
+     * @param percentile The fraction of values, between 0.0 and 1.0 (e.g., 0.99 for p99).
+     * @return The highest value of the bucket holding that percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0; // Nothing recorded yet
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile * total)); // Rank of the value we are looking for
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKET_COUNT - 1); // Values recorded while we were reading
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Finds the bucket a value belongs to.
+     *
+     * @param value The value, never negative.
+     * @return The index of the bucket.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value; // Small values each get their own bucket
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // Position of the highest set bit
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The highest value of the bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket; // Small values each get their own bucket
+        }
+        int magnitude = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKET_COUNT;
+        long lowest = (long) (SUB_BUCKET_COUNT | subBucket) << (magnitude - SUB_BUCKET_BITS);
+        return lowest + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,414 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The LoadSimulator class reproduces production load on the hotel reservation system
+ * without real guests. It builds a number of hotels and rooms through the regular
+ * HotelReservationSystem and Hotel methods, then drives a configurable mix of searches,
+ * bookings, cancellations and price changes from several threads and prints a capacity
+ * report with throughput, latency percentiles, conflict rate and heap use over time.
+ * By default workers lock a hotel while working on it; with {@code --shards} the hotels
+ * are spread over a {@link ShardedHotelReservationSystem} and workers send commands instead.
+ * With {@code --storage memory} every hotel keeps its reservations in an {@link OffHeapReservationStore}.
+ * <p>
+ * Hotel popularity follows a Zipf distribution and stay lengths follow a skewed
+ * distribution of mostly short stays. Every worker draws from its own random generator
+ * seeded from the configured seed and runs a fixed number of operations, so the same
+ * settings always issue the same requests.
+ * <p>
+ * Usage: {@code java LoadSimulator [--hotels N] [--rooms M] [--horizon D] [--threads T] [--operations K]
+ * [--seed S] [--zipf E] [--mix search,book,cancel,price] [--shards N] [--storage heap|memory]}
+ */
+public class LoadSimulator {
+    // Relative frequency of stay lengths of 1 to 7 nights
+    private static final int[] STAY_LENGTH_WEIGHTS = {30, 25, 17, 10, 7, 4, 7};
+    private static final String[] DISCOUNT_CODES = {null, null, null, null, "I_WORK_HERE", "STAY4_GET1", "PAYDAY"};
+    private static final long HEAP_SAMPLE_MILLIS = 250; // Interval between heap samples
+
+    private final int hotelCount;            // Number of hotels to build
+    private final int roomsPerHotel;         // Number of rooms in each hotel
+    private final int horizonDays;           // Number of nights each hotel can be booked for
+    private final int threadCount;           // Number of worker threads
+    private final int operationsPerThread;   // Number of operations each worker runs
+    private final long seed;                 // Seed every random choice derives from
+    private final double zipfExponent;       // Skew of hotel popularity (0 = uniform)
+    private final int[] mix;                 // Weights of search, book, cancel and price change
+    private final int shardCount;            // Number of shards, or 0 to lock hotels instead
+    private final boolean offHeap;           // Whether hotels keep their reservations off-heap
+
+    private final HotelReservationSystem hrs;       // The system under load when hotels are locked
+    private final ShardedHotelReservationSystem sharded; // The system under load when sharded, or null
+    private final List<Hotel> hotels;               // The hotels that were built
+    private final double[] hotelPopularity;         // Cumulative Zipf distribution over hotels
+    private final Map<String, LatencyHistogram> latencies; // Latency of each operation type
+    private final LongAdder bookingAttempts;        // Number of bookings tried
+    private final LongAdder bookingConflicts;       // Number of bookings refused
+    private final List<long[]> heapSamples;         // Pairs of elapsed milliseconds and used heap bytes
+
+    /**
+     * Constructs a LoadSimulator with the given settings.
+     *
+     * @param hotelCount          The number of hotels to build.
+     * @param roomsPerHotel       The number of rooms in each hotel.
+     * @param horizonDays         The number of nights each hotel can be booked for.
+     * @param threadCount         The number of worker threads.
+     * @param operationsPerThread The number of operations each worker runs.
+     * @param seed                The seed of every random choice.
+     * @param zipfExponent        The skew of hotel popularity; 0 spreads load evenly.
+     * @param mix                 The weights of search, book, cancel and price change operations.
+     * @param shardCount          The number of shards to spread the hotels over, or 0 to lock each hotel instead.
+     * @param offHeap             true to keep every hotel's reservations in an off-heap store.
+     */
+    public LoadSimulator(int hotelCount, int roomsPerHotel, int horizonDays, int threadCount, int operationsPerThread,
+                         long seed, double zipfExponent, int[] mix, int shardCount, boolean offHeap) {
+        this.hotelCount = hotelCount;
+        this.roomsPerHotel = roomsPerHotel;
+        this.horizonDays = horizonDays;
+        this.threadCount = threadCount;
+        this.operationsPerThread = operationsPerThread;
+        this.seed = seed;
+        this.zipfExponent = zipfExponent;
+        this.mix = mix;
+        this.shardCount = shardCount;
+        this.offHeap = offHeap;
+
+        this.hrs = new HotelReservationSystem();
+        this.sharded = shardCount > 0 ? new ShardedHotelReservationSystem(shardCount) : null;
+        this.hotels = new ArrayList<>();
+        this.hotelPopularity = new double[hotelCount];
+        this.latencies = new LinkedHashMap<>();
+        for (String operation : new String[]{"search", "book", "cancel", "price"}) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        this.bookingAttempts = new LongAdder();
+        this.bookingConflicts = new LongAdder();
+        this.heapSamples = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    /**
+     * Runs the simulator from the command line.
+     *
+     * @param args The simulator options, see the class documentation.
+     */
+    public static void main(String[] args) {
+        int hotelCount = 20;
+        int roomsPerHotel = 50;
+        int horizonDays = 30;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        int operationsPerThread = 100_000;
+        long seed = 42;
+        double zipfExponent = 1.0;
+        int[] mix = {50, 30, 15, 5};
+        int shardCount = 0;
+        boolean offHeap = false;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--hotels" -> hotelCount = Integer.parseInt(value);
+                case "--rooms" -> roomsPerHotel = Integer.parseInt(value);
+                case "--horizon" -> horizonDays = Integer.parseInt(value);
+                case "--threads" -> threadCount = Integer.parseInt(value);
+                case "--operations" -> operationsPerThread = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--zipf" -> zipfExponent = Double.parseDouble(value);
+                case "--mix" -> mix = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--shards" -> shardCount = Integer.parseInt(value);
+                case "--storage" -> offHeap = switch (value) {
+                    case "heap" -> false;
+                    case "memory" -> true;
+                    default -> throw new IllegalArgumentException("--storage must be heap or memory");
+                };
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (mix.length != 4) {
+            throw new IllegalArgumentException("--mix needs four weights: search,book,cancel,price");
+        }
+
+        new LoadSimulator(hotelCount, roomsPerHotel, horizonDays, threadCount, operationsPerThread, seed, zipfExponent, mix,
+                shardCount, offHeap).run();
+    }
+
+    /**
+     * Builds the hotels, runs the workload and prints the capacity report.
+     */
+    public void run() {
+        buildHotels();
+
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long start = System.nanoTime();
+
+        // Sample the heap in the background while the workers run
+        heapSampler.scheduleAtFixedRate(() -> heapSamples.add(new long[]{
+                (System.nanoTime() - start) / 1_000_000, memory.getHeapMemoryUsage().getUsed()
+        }), 0, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            SplittableRandom random = new SplittableRandom(seed + t); // Each worker has its own stream
+            results.add(workers.submit(() -> runWorker(random)));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker failed", e.getCause());
+        } finally {
+            workers.shutdown();
+            heapSampler.shutdown();
+            if (sharded != null) {
+                sharded.close();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        printReport(elapsedNanos);
+    }
+
+    /**
+     * Creates the hotels and their rooms, and prepares the Zipf popularity of the hotels.
+     */
+    private void buildHotels() {
+        Room.RoomType[] types = Room.RoomType.values();
+        double total = 0;
+
+        for (int h = 0; h < hotelCount; h++) {
+            String hotelName = "Sim Hotel " + (h + 1);
+            boolean added = sharded != null
+                    ? sharded.addHotel(hotelName, roomsPerHotel, Hotel.DEFAULT_ROOMS_PER_FLOOR, horizonDays).join()
+                    : hrs.addHotel(hotelName, roomsPerHotel, Hotel.DEFAULT_ROOMS_PER_FLOOR, horizonDays);
+            if (!added) {
+                throw new IllegalArgumentException("Cannot build " + roomsPerHotel + " rooms over " + horizonDays + " days");
+            }
+
+            Function<Hotel, Hotel> addRooms = hotel -> {
+                // Spread the rooms over the room types
+                int remaining = roomsPerHotel;
+                for (int t = 0; t < types.length && remaining > 0; t++) {
+                    int count = t == types.length - 1 ? remaining : Math.max(1, roomsPerHotel / types.length);
+                    count = Math.min(count, remaining);
+                    hotel.addRooms(count, types[t]);
+                    remaining -= count;
+                }
+                if (offHeap) {
+                    hotel.storeReservationsOffHeap(OffHeapReservationStore.DEFAULT_CAPACITY);
+                }
+                return hotel;
+            };
+            hotels.add(sharded != null
+                    ? sharded.execute(hotelName, addRooms).join()
+                    : addRooms.apply(hrs.getHotelList().get(hrs.getHotelList().size() - 1)));
+
+            // The hotel of rank h + 1 is chosen with probability proportional to 1 / (h + 1)^s
+            total += 1.0 / Math.pow(h + 1, zipfExponent);
+            hotelPopularity[h] = total;
+        }
+        for (int h = 0; h < hotelCount; h++) {
+            hotelPopularity[h] /= total;
+        }
+    }
+
+    /**
+     * Runs the operations of one worker thread.
+     *
+     * @param random The random generator of this worker.
+     */
+    private void runWorker(SplittableRandom random) {
+        int totalWeight = Arrays.stream(mix).sum();
+        List<Reservation> ownReservations = new ArrayList<>(); // Reservations this worker may cancel
+
+        for (int i = 0; i < operationsPerThread; i++) {
+            Hotel hotel = pickHotel(random);
+            int pick = random.nextInt(totalWeight);
+            long startTime = System.nanoTime();
+            String operation;
+
+            if ((pick -= mix[0]) < 0) {
+                operation = "search";
+                search(hotel, random);
+            } else if ((pick -= mix[1]) < 0) {
+                operation = "book";
+                book(hotel, random, ownReservations);
+            } else if ((pick -= mix[2]) < 0) {
+                operation = "cancel";
+                cancel(random, ownReservations);
+            } else {
+                operation = "price";
+                int date = 1 + random.nextInt(horizonDays);
+                double modifier = 0.5 + random.nextInt(11) / 10.0;
+                onHotel(hotel, h -> {
+                    h.setDatePriceModifier(date, modifier);
+                    return null;
+                });
+            }
+
+            latencies.get(operation).record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Searches for available hotels, or for available rooms of the given hotel.
+     *
+     * @param hotel  The hotel to search when searching rooms.
+     * @param random The random generator of the worker.
+     */
+    private void search(Hotel hotel, SplittableRandom random) {
+        // Search results are lazy views, so each one is counted to make the search actually run
+        if (random.nextBoolean()) {
+            if (sharded != null) {
+                sharded.getAvailableHotels().join().size();
+            } else {
+                hrs.getAvailableHotels().size();
+            }
+        } else {
+            int[] stay = pickStay(random);
+            if (sharded != null) {
+                sharded.getAvailableRooms(hotel, stay[0], stay[1]).join().size();
+            } else {
+                hrs.getAvailableRooms(hotel, stay[0], stay[1]).size(); // Reads the snapshot, no lock needed
+            }
+        }
+    }
+
+    /**
+     * Books a random room of the hotel for a random stay.
+     *
+     * @param hotel           The hotel to book in.
+     * @param random          The random generator of the worker.
+     * @param ownReservations The reservations made by this worker, extended on success.
+     */
+    private void book(Hotel hotel, SplittableRandom random, List<Reservation> ownReservations) {
+        int[] stay = pickStay(random);
+        String discountCode = DISCOUNT_CODES[random.nextInt(DISCOUNT_CODES.length)];
+        int roomKey = random.nextInt(roomsPerHotel); // Rooms are never removed, so keys run from 0 to roomsPerHotel - 1
+        bookingAttempts.increment();
+
+        Reservation reservation = onHotel(hotel, h -> {
+            Room room = h.getRoom(roomKey);
+            if (!h.createReservation("Guest", stay[0], stay[1], room, discountCode)) {
+                return null;
+            }
+            List<Reservation> roomReservations = room.getReservationsList();
+            return roomReservations.get(roomReservations.size() - 1);
+        });
+        if (reservation != null) {
+            ownReservations.add(reservation);
+        } else {
+            bookingConflicts.increment();
+        }
+    }
+
+    /**
+     * Cancels a random reservation made earlier by this worker.
+     *
+     * @param random          The random generator of the worker.
+     * @param ownReservations The reservations made by this worker, shrunk on success.
+     */
+    private void cancel(SplittableRandom random, List<Reservation> ownReservations) {
+        // Drawn before looking at the list, so every cancel takes one draw whatever earlier bookings did
+        double pick = random.nextDouble();
+        if (ownReservations.isEmpty()) {
+            return; // Nothing to cancel yet
+        }
+        int index = (int) (pick * ownReservations.size());
+        Reservation reservation = ownReservations.get(index);
+        ownReservations.set(index, ownReservations.get(ownReservations.size() - 1));
+        ownReservations.remove(ownReservations.size() - 1);
+
+        onHotel(reservation.getHotel(), hotel -> hotel.cancelReservation(reservation));
+    }
+
+    /**
+     * Runs an operation on a hotel: on its shard when sharded, or holding the hotel's lock otherwise.
+     *
+     * @param hotel     The hotel.
+     * @param operation The operation, given the hotel.
+     * @param <T>       The type of the operation's result.
+     * @return The operation's result.
+     */
+    private <T> T onHotel(Hotel hotel, Function<Hotel, T> operation) {
+        if (sharded != null) {
+            return sharded.execute(hotel, operation).join();
+        }
+        synchronized (hotel) {
+            return operation.apply(hotel);
+        }
+    }
+
+    /**
+     * Picks a hotel following the Zipf popularity of the hotels.
+     *
+     * @param random The random generator of the worker.
+     * @return The chosen hotel.
+     */
+    private Hotel pickHotel(SplittableRandom random) {
+        int index = Arrays.binarySearch(hotelPopularity, random.nextDouble());
+        if (index < 0) {
+            index = -index - 1; // Insertion point is the first hotel whose cumulative share exceeds the draw
+        }
+        return hotels.get(Math.min(index, hotels.size() - 1));
+    }
+
+    /**
+     * Picks the dates of a stay of realistic length.
+     *
+     * @param random The random generator of the worker.
+     * @return The check-in date and the check-out date.
+     */
+    private int[] pickStay(SplittableRandom random) {
+        int pick = random.nextInt(Arrays.stream(STAY_LENGTH_WEIGHTS).sum());
+        int nights = 1;
+        while ((pick -= STAY_LENGTH_WEIGHTS[nights - 1]) >= 0) {
+            nights++;
+        }
+        nights = Math.min(nights, horizonDays);
+        int checkInDate = 1 + random.nextInt(horizonDays + 1 - nights); // Check-out must stay within the calendar
+        return new int[]{checkInDate, checkInDate + nights};
+    }
+
+    /**
+     * Prints the capacity report.
+     *
+     * @param elapsedNanos The time the workload took.
+     */
+    private void printReport(long elapsedNanos) {
+        long totalOperations = (long) threadCount * operationsPerThread;
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.println("=== Capacity report ===");
+        System.out.printf("seed=%d hotels=%d rooms/hotel=%d horizon=%d threads=%d operations/thread=%d zipf=%.2f mix=%s shards=%d%n",
+                seed, hotelCount, roomsPerHotel, horizonDays, threadCount, operationsPerThread, zipfExponent,
+                Arrays.toString(mix), shardCount);
+        System.out.printf("elapsed=%.3fs throughput=%.0f ops/s%n", seconds, totalOperations / seconds);
+
+        long attempts = bookingAttempts.sum();
+        System.out.printf("bookings=%d conflicts=%d conflict rate=%.2f%%%n", attempts, bookingConflicts.sum(),
+                attempts == 0 ? 0.0 : 100.0 * bookingConflicts.sum() / attempts);
+
+        System.out.println("operation      count     p50(us)     p99(us)    p999(us)");
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            System.out.printf("%-10s %9d %11.1f %11.1f %11.1f%n", entry.getKey(), histogram.getCount(),
+                    histogram.getValueAtPercentile(0.50) / 1000.0,
+                    histogram.getValueAtPercentile(0.99) / 1000.0,
+                    histogram.getValueAtPercentile(0.999) / 1000.0);
+        }
+
+        System.out.println("time(ms)   heap used(MB)");
+        synchronized (heapSamples) {
+            for (long[] sample : heapSamples) {
+                System.out.printf("%8d %15.1f%n", sample[0], sample[1] / (1024.0 * 1024.0));
+            }
+        }
+    }
+}
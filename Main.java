@@ -1,15 +1,38 @@
 /**
  * The Main class serves as the entry point for the Hotel Reservation System application.
- * It initializes the necessary components and sets up the Model-View-Controller (MVC) architecture.
+ * It initializes the necessary components and sets up the Model-View-Controller (MVC) architecture,
+ * or runs the system headless when started with the "--headless" flag.
  */
 public class Main {
     /**
      * The main method is the entry point of the application.
-     * It initializes the hotel reservation system, the model, the view, and the controller.
+     * Without arguments it initializes the hotel reservation system, the model, the view, and the controller.
+     * With "--headless" as the first argument the remaining arguments are handed to the
+     * {@link CommandLineRunner} and no GUI class is ever loaded.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments ("--headless" followed by the batch commands, or none for the GUI)
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            // Tell the JDK up front that no display will be used
+            System.setProperty("java.awt.headless", "true");
+
+            String[] commandArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, commandArgs, 0, commandArgs.length);
+            System.exit(CommandLineRunner.run(commandArgs));
+        }
+
+        launchGui();
+    }
+
+    /**
+     * Builds the main menu MVC graph and shows it. Kept separate from {@link #main(String[])}
+     * so that the Swing classes are only loaded when the GUI is actually started.
+     */
+    private static void launchGui() {
+        // Publish the operation metrics so they can be watched with any JMX console
+        ReservationMetrics.registerMBeans();
+
         // Create an instance of HotelReservationSystem to manage hotel and reservation data
         HotelReservationSystem hotelReservationSystem = new HotelReservationSystem();
 
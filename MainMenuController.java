@@ -8,6 +8,7 @@ import javax.swing.*;
 public class MainMenuController {
     private final MainMenuView view;  // The view component of the main menu
     private final MainMenuModel model; // The model component containing hotel data
+    private final ViewRegistry viewRegistry; // Screens built so far, reused on every visit
 
     /**
      * Constructs a MainMenuController with the specified view and model.
@@ -18,14 +19,15 @@ public class MainMenuController {
     public MainMenuController(MainMenuView view, MainMenuModel model) {
         this.view = view;
         this.model = model;
+        this.viewRegistry = new ViewRegistry();
 
         // Initialize the view with the number of hotels
         updateHotelCount();
 
         // Add action listeners to the buttons in the view
-        this.view.getManageHotelsButton().addActionListener(e -> manageHotels());
-        this.view.getCreateReservationButton().addActionListener(e -> createReservation());
-        this.view.getCreateHotelButton().addActionListener(e -> createHotel(model.getHotelReservationSystem()));
+        this.view.getManageHotelsButton().addActionListener(e -> UiActionEvent.record("MainMenu", "manageHotels", () -> manageHotels()));
+        this.view.getCreateReservationButton().addActionListener(e -> UiActionEvent.record("MainMenu", "createReservation", () -> createReservation()));
+        this.view.getCreateHotelButton().addActionListener(e -> UiActionEvent.record("MainMenu", "createHotel", () -> createHotel(model.getHotelReservationSystem())));
     }
 
     /**
@@ -38,11 +40,11 @@ public class MainMenuController {
             JOptionPane.showMessageDialog(view, "No hotels available to manage.",
                     "Manage Hotels Error", JOptionPane.ERROR_MESSAGE);
         } else {
-            // Create and display the hotel selection view
-            SelectHotelModel selectHotelModel = new SelectHotelModel(model.getHotelReservationSystem());
-            SelectHotelView selectHotelView = new SelectHotelView();
-            SelectHotelController selectHotelController = new SelectHotelController(selectHotelView, selectHotelModel, view);
-            selectHotelView.setVisible(true); // Show the hotel selection view
+            // Display the hotel selection view, building it on the first visit only
+            SelectHotelController selectHotelController = viewRegistry.get("selectHotel",
+                    () -> new SelectHotelController(new SelectHotelView(),
+                            new SelectHotelModel(model.getHotelReservationSystem()), view, viewRegistry));
+            selectHotelController.show(); // Refresh and show the hotel selection view
             view.setVisible(false); // Hide the main menu view
         }
     }
@@ -61,11 +63,11 @@ public class MainMenuController {
             JOptionPane.showMessageDialog(view, "No rooms available.",
                     "Reservation Error", JOptionPane.ERROR_MESSAGE);
         } else {
-            // Create and display the reservation creation view
-            CreateReservationModel createReservationModel = new CreateReservationModel(model.getHotelReservationSystem());
-            CreateReservationView createReservationView = new CreateReservationView();
-            CreateReservationController createReservationController = new CreateReservationController(createReservationView, createReservationModel, view);
-            createReservationView.setVisible(true); // Show the reservation creation view
+            // Display the reservation creation view, building it on the first visit only
+            CreateReservationController createReservationController = viewRegistry.get("createReservation",
+                    () -> new CreateReservationController(new CreateReservationView(),
+                            new CreateReservationModel(model.getHotelReservationSystem()), view));
+            createReservationController.show(); // Refresh and show the reservation creation view
             view.setVisible(false); // Hide the main menu view
         }
     }
@@ -76,11 +78,10 @@ public class MainMenuController {
      * @param hrs The hotel reservation system to which the new hotel will be added.
      */
     private void createHotel(HotelReservationSystem hrs) {
-        // Create and display the hotel creation view
-        CreateHotelModel createHotelModel = new CreateHotelModel(hrs);
-        CreateHotelView createHotelView = new CreateHotelView();
-        CreateHotelController createHotelController = new CreateHotelController(createHotelView, createHotelModel, view);
-        createHotelView.setVisible(true); // Show the hotel creation view
+        // Display the hotel creation view, building it on the first visit only
+        CreateHotelController createHotelController = viewRegistry.get("createHotel",
+                () -> new CreateHotelController(new CreateHotelView(), new CreateHotelModel(hrs), view));
+        createHotelController.show(); // Reset and show the hotel creation view
         view.setVisible(false); // Hide the main menu view
     }
 
@@ -0,0 +1,137 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic. Amounts are whole centavos held in a {@code long} and rates
+ * (date price modifiers, room type multipliers and discounts) are whole basis points held in
+ * an {@code int}, where 10,000 basis points are 100%.
+ * <p>
+ * Adding amounts is exact, so sums come out the same in any order, on any number of threads,
+ * and when kept up to date one booking at a time. Applying rates is the only place where
+ * centavos are rounded, and it always rounds once, half to even, at the end of the product.
+ */
+public final class Money {
+    public static final long CENTAVOS_PER_PESO = 100;   // Centavos in one peso
+    public static final int BASIS_POINTS = 10_000;       // Basis points in a rate of 100%
+
+    /**
+     * Money is only a set of static helpers.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts pesos to centavos, rounding half to even to the nearest centavo.
+     *
+     * @param pesos The amount in pesos.
+     * @return The amount in centavos.
+     * @throws ArithmeticException If the amount does not fit in a long.
+     */
+    public static long toCentavos(double pesos) {
+        return BigDecimal.valueOf(pesos).movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    /**
+     * Converts centavos to pesos for display.
+     *
+     * @param centavos The amount in centavos.
+     * @return The amount in pesos.
+     */
+    public static double toPesos(long centavos) {
+        return centavos / (double) CENTAVOS_PER_PESO;
+    }
+
+    /**
+     * Converts a rate given as a fraction (e.g. 0.93 for 93%) to basis points, rounding half
+     * to even to the nearest basis point.
+     *
+     * @param rate The rate as a fraction.
+     * @return The rate in basis points.
+     */
+    public static int toBasisPoints(double rate) {
+        return BigDecimal.valueOf(rate).movePointRight(4).setScale(0, RoundingMode.HALF_EVEN).intValueExact();
+    }
+
+    /**
+     * Converts basis points to a fraction for display.
+     *
+     * @param basisPoints The rate in basis points.
+     * @return The rate as a fraction.
+     */
+    public static double toRate(int basisPoints) {
+        return basisPoints / (double) BASIS_POINTS;
+    }
+
+    /**
+     * Applies a rate to an amount, rounding half to even to the nearest centavo.
+     *
+     * @param centavos    The amount in centavos.
+     * @param basisPoints The rate in basis points.
+     * @return The amount times the rate, in centavos.
+     * @throws ArithmeticException If the product does not fit in a long.
+     */
+    public static long applyRate(long centavos, int basisPoints) {
+        return divideHalfEven(Math.multiplyExact(centavos, (long) basisPoints), BASIS_POINTS);
+    }
+
+    /**
+     * Applies two rates to an amount, rounding half to even only once, after both.
+     *
+     * @param centavos The amount in centavos.
+     * @param first    The first rate in basis points.
+     * @param second   The second rate in basis points.
+     * @return The amount times both rates, in centavos.
+     * @throws ArithmeticException If the product does not fit in a long.
+     */
+    public static long applyRates(long centavos, int first, int second) {
+        long product = Math.multiplyExact(Math.multiplyExact(centavos, (long) first), (long) second);
+        return divideHalfEven(product, (long) BASIS_POINTS * BASIS_POINTS);
+    }
+
+    /**
+     * Divides an amount, rounding half to even to the nearest centavo.
+     *
+     * @param dividend The amount in centavos.
+     * @param divisor  The positive number to divide by.
+     * @return The quotient, in centavos.
+     */
+    public static long divideHalfEven(long dividend, long divisor) {
+        long quotient = Math.floorDiv(dividend, divisor);
+        long twiceRemainder = 2 * Math.floorMod(dividend, divisor);
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient++; // More than half way, or exactly half way to an odd quotient
+        }
+        return quotient;
+    }
+
+    /**
+     * Formats an amount as pesos with two decimals, e.g. 129900 as "1299.00".
+     *
+     * @param centavos The amount in centavos.
+     * @return The formatted amount.
+     */
+    public static String format(long centavos) {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text, centavos);
+        return text.toString();
+    }
+
+    /**
+     * Appends an amount as pesos with two decimals, exactly and without creating a string.
+     *
+     * @param text     The builder to append to.
+     * @param centavos The amount in centavos.
+     */
+    public static void appendTo(StringBuilder text, long centavos) {
+        if (centavos < 0) {
+            text.append('-');
+        }
+        long magnitude = Math.abs(centavos); // Long.MIN_VALUE is far beyond any amount of money handled here
+        long fraction = magnitude % CENTAVOS_PER_PESO;
+        text.append(magnitude / CENTAVOS_PER_PESO).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+}
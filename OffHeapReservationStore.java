@@ -0,0 +1,481 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Holds a hotel's reservations and nightly occupancy outside the Java heap, in fixed-size
+ * records of a direct buffer or of a memory-mapped file.
+ * <p>
+ * A hotel storing its reservations off-heap (see {@link Hotel#storeReservationsOffHeap(int)})
+ * writes a record for every booking, frees it on cancellation and rewrites its room key when
+ * the reservation moves. Each {@link Reservation} then keeps only the number of its record in
+ * place of its guest name and discount code, and reads them from here, so the strings of a
+ * large book of reservations are not on the heap for the garbage collector to trace or copy.
+ * Freed records are chained into a free list and reused before the store grows.
+ * <p>
+ * A record holds the room key, the dates, the price the guest was quoted and the reservation
+ * ID, guest name and discount code as UTF-8 in a shared {@link #TEXT_BYTES}-byte area. A
+ * reservation whose text does not fit is refused by the hotel rather than stored cut short.
+ * <p>
+ * A file-backed store survives restarts: the hotel books every stored reservation back at its
+ * stored price and ID when the file is opened again.
+ * <p>
+ * Layout: a header, then one int per night counting the rooms booked that night, then the
+ * records. All values are big-endian so files can be moved between machines. A buffer is
+ * indexed by int, so one store holds at most about 16 million records (2 GiB).
+ */
+public class OffHeapReservationStore {
+    public static final int DEFAULT_CAPACITY = 1_024;   // Records allocated before the first growth
+    static final int TEXT_BYTES = 96;                   // Room for the reservation ID, guest name and discount code
+
+    private static final int MAGIC = 0x48524553;        // "HRES", marks a reservation store file
+    private static final int VERSION = 2;               // Layout version of the file
+
+    // Header fields
+    private static final int MAGIC_OFFSET = 0;          // Magic number
+    private static final int VERSION_OFFSET = 4;        // Layout version
+    private static final int RECORD_SIZE_OFFSET = 8;    // Size of a record, checked when a file is opened
+    private static final int HORIZON_OFFSET = 12;       // Calendar horizon of the hotel
+    private static final int USED_OFFSET = 16;          // Number of records ever handed out
+    private static final int FREE_HEAD_OFFSET = 20;     // First free record, -1 if none
+    private static final int LIVE_OFFSET = 24;          // Number of records holding a reservation
+    private static final int HEADER_SIZE = 32;          // Size of the header
+
+    // Record fields
+    private static final int STATE = 0;                 // LIVE or FREE
+    private static final int NEXT_FREE = 4;             // Next free record while free, -1 if last
+    private static final int ROOM_KEY = 8;              // Key of the reserved room
+    private static final int CHECK_IN = 12;             // Check-in date
+    private static final int CHECK_OUT = 16;            // Check-out date
+    private static final int ID_LENGTH = 20;            // Bytes of the reservation ID
+    private static final int NAME_LENGTH = 21;          // Bytes of the guest name
+    private static final int CODE_LENGTH = 22;          // Bytes of the discount code, 0 for none
+    private static final int PRICE = 24;                // Total price in centavos
+    private static final int TEXT = 32;                 // Reservation ID, guest name and discount code, in that order
+    static final int RECORD_SIZE = TEXT + TEXT_BYTES;   // Size of a record
+
+    private static final int FREE = 0;                  // State of a free record
+    private static final int LIVE = 1;                  // State of a record holding a reservation
+
+    private final int horizonDays;                      // Calendar horizon of the hotel
+    private final FileChannel file;                     // Backing file, null for memory only
+    private final int recordsOffset;                    // Offset of the first record
+    private ByteBuffer memory;                          // Header, occupancy and records
+    private int capacity;                               // Number of records that fit in memory
+
+    /**
+     * Constructs a store over memory that already holds a valid header.
+     *
+     * @param horizonDays The calendar horizon of the hotel.
+     * @param file        The backing file, or null.
+     * @param memory      The memory, sized for the capacity.
+     * @param capacity    The number of records that fit in the memory.
+     */
+    private OffHeapReservationStore(int horizonDays, FileChannel file, ByteBuffer memory, int capacity) {
+        this.horizonDays = horizonDays;
+        this.file = file;
+        this.recordsOffset = recordsOffset(horizonDays);
+        this.memory = memory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates an empty store in direct memory.
+     *
+     * @param horizonDays The calendar horizon of the hotel.
+     * @param capacity    The number of records to allocate at first.
+     * @return The store.
+     */
+    static OffHeapReservationStore allocate(int horizonDays, int capacity) {
+        capacity = Math.max(1, capacity);
+        ByteBuffer memory = ByteBuffer.allocateDirect(Math.toIntExact(size(horizonDays, capacity)));
+        OffHeapReservationStore store = new OffHeapReservationStore(horizonDays, null, memory, capacity);
+        store.writeHeader();
+        return store;
+    }
+
+    /**
+     * Opens a store kept in a file, creating the file if it does not exist.
+     *
+     * @param path        The file.
+     * @param horizonDays The calendar horizon of the hotel.
+     * @param capacity    The number of records to map at first if the file is new.
+     * @return The store, still holding every record of the file.
+     * @throws IOException If the file cannot be opened or was written for another calendar.
+     */
+    static OffHeapReservationStore open(Path path, int horizonDays, int capacity) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean existing = file.size() >= HEADER_SIZE;
+            if (existing) {
+                capacity = (int) ((file.size() - recordsOffset(horizonDays)) / RECORD_SIZE);
+            }
+            capacity = Math.max(1, capacity);
+            MappedByteBuffer memory = file.map(FileChannel.MapMode.READ_WRITE, 0, size(horizonDays, capacity));
+            OffHeapReservationStore store = new OffHeapReservationStore(horizonDays, file, memory, capacity);
+
+            if (!existing) {
+                store.writeHeader();
+            } else if (memory.getInt(MAGIC_OFFSET) != MAGIC || memory.getInt(VERSION_OFFSET) != VERSION
+                    || memory.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE || memory.getInt(HORIZON_OFFSET) != horizonDays) {
+                throw new IOException(path + " is not a reservation store for a " + horizonDays + "-day calendar");
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether the text of a reservation fits in a record.
+     *
+     * @param reservationId The reservation ID.
+     * @param guestName     The guest name.
+     * @param discountCode  The discount code, or null.
+     * @return true if the three fit together in {@link #TEXT_BYTES} bytes, false otherwise.
+     */
+    static boolean fits(String reservationId, String guestName, String discountCode) {
+        return utf8(reservationId).length + utf8(guestName).length + utf8(discountCode).length <= TEXT_BYTES;
+    }
+
+    /**
+     * Writes a record for a new reservation, reusing a free record if there is one. The
+     * reservation's text must fit, see {@link #fits}.
+     *
+     * @param reservation The new reservation, still holding its guest name and discount code.
+     * @return The record.
+     */
+    synchronized int add(Reservation reservation) {
+        byte[] id = utf8(reservation.getReservationID());
+        byte[] name = utf8(reservation.getGuestName());
+        byte[] code = utf8(reservation.getDiscountCode());
+
+        int record = allocateRecord();
+        int offset = offsetOf(record);
+        memory.putInt(offset + STATE, LIVE);
+        memory.putInt(offset + NEXT_FREE, -1);
+        memory.putInt(offset + ROOM_KEY, reservation.getRoom().getKey());
+        memory.putInt(offset + CHECK_IN, reservation.getCheckInDate());
+        memory.putInt(offset + CHECK_OUT, reservation.getCheckOutDate());
+        memory.put(offset + ID_LENGTH, (byte) id.length);
+        memory.put(offset + NAME_LENGTH, (byte) name.length);
+        memory.put(offset + CODE_LENGTH, (byte) code.length);
+        memory.putLong(offset + PRICE, reservation.getTotalPriceCentavos());
+        memory.put(offset + TEXT, id);
+        memory.put(offset + TEXT + id.length, name);
+        memory.put(offset + TEXT + id.length + name.length, code);
+        addOccupancy(reservation.getCheckInDate(), reservation.getCheckOutDate(), 1);
+        memory.putInt(LIVE_OFFSET, memory.getInt(LIVE_OFFSET) + 1);
+        return record;
+    }
+
+    /**
+     * Frees the record of a cancelled reservation, or of a stored one that could not be
+     * booked back.
+     *
+     * @param record The record.
+     */
+    synchronized void remove(int record) {
+        int offset = offsetOf(record);
+        addOccupancy(memory.getInt(offset + CHECK_IN), memory.getInt(offset + CHECK_OUT), -1);
+        memory.putInt(LIVE_OFFSET, memory.getInt(LIVE_OFFSET) - 1);
+        memory.putInt(offset + STATE, FREE);
+        memory.putInt(offset + NEXT_FREE, memory.getInt(FREE_HEAD_OFFSET));
+        memory.putInt(FREE_HEAD_OFFSET, record);
+    }
+
+    /**
+     * Rewrites the room key of a moved reservation.
+     *
+     * @param record  The record.
+     * @param roomKey The key of the room the reservation moved to.
+     */
+    synchronized void setRoomKey(int record, int roomKey) {
+        memory.putInt(offsetOf(record) + ROOM_KEY, roomKey);
+    }
+
+    /**
+     * Gets the number of records ever handed out; records below it are either live or free.
+     *
+     * @return The number of records used.
+     */
+    synchronized int getRecordCount() {
+        return memory.getInt(USED_OFFSET);
+    }
+
+    /**
+     * Checks whether a record holds a reservation.
+     *
+     * @param record The record.
+     * @return true if the record is live, false if it is free.
+     */
+    synchronized boolean isLive(int record) {
+        return memory.getInt(offsetOf(record) + STATE) == LIVE;
+    }
+
+    /**
+     * Gets the room key of a record.
+     *
+     * @param record The record.
+     * @return The key of the reserved room.
+     */
+    synchronized int getRoomKey(int record) {
+        return memory.getInt(offsetOf(record) + ROOM_KEY);
+    }
+
+    /**
+     * Gets the check-in date of a record.
+     *
+     * @param record The record.
+     * @return The check-in date.
+     */
+    synchronized int getCheckInDate(int record) {
+        return memory.getInt(offsetOf(record) + CHECK_IN);
+    }
+
+    /**
+     * Gets the check-out date of a record.
+     *
+     * @param record The record.
+     * @return The check-out date.
+     */
+    synchronized int getCheckOutDate(int record) {
+        return memory.getInt(offsetOf(record) + CHECK_OUT);
+    }
+
+    /**
+     * Gets the price of a record, as quoted when the reservation was made.
+     *
+     * @param record The record.
+     * @return The total price, in centavos.
+     */
+    synchronized long getPriceCentavos(int record) {
+        return memory.getLong(offsetOf(record) + PRICE);
+    }
+
+    /**
+     * Gets the reservation ID of a record.
+     *
+     * @param record The record.
+     * @return The reservation ID.
+     */
+    synchronized String getReservationId(int record) {
+        int offset = offsetOf(record);
+        return getString(offset + TEXT, memory.get(offset + ID_LENGTH));
+    }
+
+    /**
+     * Gets the guest name of a record.
+     *
+     * @param record The record.
+     * @return The guest name.
+     */
+    synchronized String getGuestName(int record) {
+        int offset = offsetOf(record);
+        return getString(offset + TEXT + memory.get(offset + ID_LENGTH), memory.get(offset + NAME_LENGTH));
+    }
+
+    /**
+     * Gets the discount code of a record.
+     *
+     * @param record The record.
+     * @return The discount code, or null if none was given.
+     */
+    synchronized String getDiscountCode(int record) {
+        int offset = offsetOf(record);
+        int length = memory.get(offset + CODE_LENGTH);
+        if (length == 0) {
+            return null;
+        }
+        return getString(offset + TEXT + memory.get(offset + ID_LENGTH) + memory.get(offset + NAME_LENGTH), length);
+    }
+
+    /**
+     * Gets the number of rooms booked on a night.
+     *
+     * @param night The night (1 to the hotel's horizon).
+     * @return The number of booked rooms.
+     */
+    public synchronized int getBookedRooms(int night) {
+        return memory.getInt(HEADER_SIZE + night * Integer.BYTES);
+    }
+
+    /**
+     * Gets the number of reservations stored.
+     *
+     * @return The number of live records.
+     */
+    public synchronized int size() {
+        return memory.getInt(LIVE_OFFSET);
+    }
+
+    /**
+     * Gets the number of records that fit before the store has to grow.
+     *
+     * @return The capacity in records.
+     */
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Checks whether the store is kept in a file.
+     *
+     * @return true if the store is file-backed, false if it lives in direct memory only.
+     */
+    public boolean isFileBacked() {
+        return file != null;
+    }
+
+    /**
+     * Writes the changes of a file-backed store to the disk.
+     */
+    public synchronized void force() {
+        if (memory instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    /**
+     * Writes the changes of a file-backed store to the disk and closes the file.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    synchronized void close() throws IOException {
+        force();
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Takes a record from the free list, or the next unused record, growing the memory if it
+     * is full.
+     *
+     * @return The record.
+     */
+    private int allocateRecord() {
+        int record = memory.getInt(FREE_HEAD_OFFSET);
+        if (record >= 0) {
+            memory.putInt(FREE_HEAD_OFFSET, memory.getInt(offsetOf(record) + NEXT_FREE));
+            return record;
+        }
+
+        record = memory.getInt(USED_OFFSET);
+        if (record == capacity) {
+            grow();
+        }
+        memory.putInt(USED_OFFSET, record + 1);
+        return record;
+    }
+
+    /**
+     * Doubles the number of records. A file is extended and mapped again; direct memory is
+     * copied into a larger buffer.
+     */
+    private void grow() {
+        int newCapacity = Math.multiplyExact(capacity, 2);
+        long newSize = size(horizonDays, newCapacity);
+        if (file != null) {
+            try {
+                memory = file.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+            } catch (IOException e) {
+                throw new IllegalStateException("cannot grow reservation store: " + e.getMessage(), e);
+            }
+        } else {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.toIntExact(newSize));
+            larger.put(memory.duplicate().clear());
+            memory = larger;
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * Adds to the booked room count of every night of a stay.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param change       The number to add.
+     */
+    private void addOccupancy(int checkInDate, int checkOutDate, int change) {
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            int offset = HEADER_SIZE + night * Integer.BYTES;
+            memory.putInt(offset, memory.getInt(offset) + change);
+        }
+    }
+
+    /**
+     * Writes the header of an empty store.
+     */
+    private void writeHeader() {
+        memory.putInt(MAGIC_OFFSET, MAGIC);
+        memory.putInt(VERSION_OFFSET, VERSION);
+        memory.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+        memory.putInt(HORIZON_OFFSET, horizonDays);
+        memory.putInt(USED_OFFSET, 0);
+        memory.putInt(FREE_HEAD_OFFSET, -1);
+        memory.putInt(LIVE_OFFSET, 0);
+    }
+
+    /**
+     * Reads UTF-8 text from the memory.
+     *
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     * @return The text.
+     */
+    private String getString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        memory.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes text as UTF-8.
+     *
+     * @param value The text, or null.
+     * @return The bytes, empty for null.
+     */
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the offset of a record.
+     *
+     * @param record The record.
+     * @return The offset of its first byte.
+     */
+    private int offsetOf(int record) {
+        return recordsOffset + record * RECORD_SIZE;
+    }
+
+    /**
+     * Gets the offset of the first record: after the header and one int for every night from
+     * 0 to the day after the horizon, rounded up to a multiple of 8.
+     *
+     * @param horizonDays The calendar horizon.
+     * @return The offset.
+     */
+    private static int recordsOffset(int horizonDays) {
+        int occupancyEnd = HEADER_SIZE + (horizonDays + 2) * Integer.BYTES;
+        return (occupancyEnd + 7) & ~7;
+    }
+
+    /**
+     * Gets the memory a store needs.
+     *
+     * @param horizonDays The calendar horizon.
+     * @param capacity    The number of records.
+     * @return The size in bytes.
+     */
+    private static long size(int horizonDays, int capacity) {
+        return recordsOffset(horizonDays) + (long) capacity * RECORD_SIZE;
+    }
+}
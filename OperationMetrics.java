@@ -0,0 +1,89 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls, successes and failures of one operation of the reservation system
+ * and records how long each call took. Counters are {@link LongAdder}s and latencies go
+ * to a lock-free {@link LatencyHistogram}, so recording never blocks the caller.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+    private final String name;                 // Name of the operation
+    private final LongAdder successes;         // Number of calls that succeeded
+    private final LongAdder failures;          // Number of calls that failed
+    private final LatencyHistogram latencies;  // Duration of every call, in nanoseconds
+
+    /**
+     * Constructs an OperationMetrics for the operation with the given name.
+     *
+     * @param name The name of the operation.
+     */
+    public OperationMetrics(String name) {
+        this.name = name;
+        this.successes = new LongAdder();
+        this.failures = new LongAdder();
+        this.latencies = new LatencyHistogram();
+    }
+
+    /**
+     * Records a finished call of the operation. Does nothing when metrics are disabled.
+     *
+     * @param startTime The value returned by {@link ReservationMetrics#startTimer()} when the call started.
+     * @param success   Whether the call succeeded.
+     */
+    public void record(long startTime, boolean success) {
+        if (!ReservationMetrics.ENABLED) {
+            return; // Instrumentation is switched off
+        }
+        latencies.record(System.nanoTime() - startTime);
+        if (success) {
+            successes.increment();
+        } else {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Gets the name of the operation.
+     *
+     * @return The name of the operation.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return successes.sum() + failures.sum();
+    }
+
+    @Override
+    public long getSuccessCount() {
+        return successes.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencies.getValueAtPercentile(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencies.getValueAtPercentile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencies.getValueAtPercentile(0.999) / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        successes.reset();
+        failures.reset();
+        latencies.reset();
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Management interface of {@link OperationMetrics}, exposed through JMX.
+ * Latencies are reported in microseconds.
+ */
+public interface OperationMetricsMBean {
+    /**
+     * Gets the number of times the operation was called.
+     *
+     * @return The number of calls.
+     */
+    long getCount();
+
+    /**
+     * Gets the number of calls that succeeded.
+     *
+     * @return The number of successful calls.
+     */
+    long getSuccessCount();
+
+    /**
+     * Gets the number of calls that failed.
+     *
+     * @return The number of failed calls.
+     */
+    long getFailureCount();
+
+    /**
+     * Gets the median latency of the operation.
+     *
+     * @return The 50th percentile latency in microseconds.
+     */
+    double getP50Micros();
+
+    /**
+     * Gets the 99th percentile latency of the operation.
+     *
+     * @return The 99th percentile latency in microseconds.
+     */
+    double getP99Micros();
+
+    /**
+     * Gets the 99.9th percentile latency of the operation.
+     *
+     * @return The 99.9th percentile latency in microseconds.
+     */
+    double getP999Micros();
+
+    /**
+     * Clears the counts and latencies recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,264 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable map from int keys to elements that is updated by making a changed copy.
+ * <p>
+ * The entries are kept in a balanced (AVL) binary tree ordered by key. Adding or removing an
+ * entry copies only the nodes on the path from the root to that entry and shares every other
+ * node with the previous version, so an update costs O(log n) small allocations, and old
+ * versions stay valid for anyone still reading them.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class PersistentIntMap<E> implements Iterable<E> {
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Node<E> root; // Root of the tree, null for the empty map
+    private final int size;     // Number of entries
+
+    /**
+     * A node of the tree. Never changed once made.
+     *
+     * @param <E> The type of the element.
+     */
+    private static final class Node<E> {
+        final int key;        // Key of the entry
+        final E element;      // Element of the entry
+        final Node<E> left;   // Entries with smaller keys, or null
+        final Node<E> right;  // Entries with larger keys, or null
+        final int height;     // Number of nodes on the longest path down from this one
+
+        /**
+         * Constructs a node over two subtrees whose heights differ by at most one.
+         *
+         * @param key     The key.
+         * @param element The element.
+         * @param left    The subtree of smaller keys, or null.
+         * @param right   The subtree of larger keys, or null.
+         */
+        Node(int key, E element, Node<E> left, Node<E> right) {
+            this.key = key;
+            this.element = element;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /**
+     * Constructs a PersistentIntMap.
+     *
+     * @param root The root of the tree, or null.
+     * @param size The number of entries.
+     */
+    private PersistentIntMap(Node<E> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty map.
+     *
+     * @param <E> The type of the elements.
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentIntMap<E> empty() {
+        return (PersistentIntMap<E>) EMPTY;
+    }
+
+    /**
+     * Returns a map with an element stored under a key, replacing any element stored under it.
+     *
+     * @param key     The key.
+     * @param element The element, not null.
+     * @return The changed map; this map is left as it was.
+     */
+    public PersistentIntMap<E> put(int key, E element) {
+        boolean added = get(key) == null;
+        return new PersistentIntMap<>(insert(root, key, element), added ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the element stored under a key.
+     *
+     * @param key The key.
+     * @return The smaller map, or this map if nothing is stored under the key.
+     */
+    public PersistentIntMap<E> remove(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentIntMap<>(delete(root, key), size - 1);
+    }
+
+    /**
+     * Gets the element stored under a key.
+     *
+     * @param key The key.
+     * @return The element, or null if nothing is stored under the key.
+     */
+    public E get(int key) {
+        Node<E> node = root;
+        while (node != null) {
+            if (key < node.key) {
+                node = node.left;
+            } else if (key > node.key) {
+                node = node.right;
+            } else {
+                return node.element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The size of the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map has no entries.
+     *
+     * @return true if the map is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterates over the elements in key order.
+     *
+     * @return An iterator over the elements.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node<E>> path = new ArrayDeque<>(); // Nodes whose element and right side are still to come
+
+            {
+                pushLeft(root);
+            }
+
+            /**
+             * Puts a node and its chain of left children on the path.
+             *
+             * @param node The node, or null.
+             */
+            private void pushLeft(Node<E> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = path.pop();
+                pushLeft(node.right);
+                return node.element;
+            }
+        };
+    }
+
+    /**
+     * Gets the height of a subtree.
+     *
+     * @param node The root of the subtree, or null.
+     * @return The height, 0 for an empty subtree.
+     */
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Returns a copy of a subtree with an element stored under a key.
+     *
+     * @param node    The root of the subtree, or null.
+     * @param key     The key.
+     * @param element The element.
+     * @return The root of the changed subtree.
+     */
+    private static <E> Node<E> insert(Node<E> node, int key, E element) {
+        if (node == null) {
+            return new Node<>(key, element, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.element, insert(node.left, key, element), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.element, node.left, insert(node.right, key, element));
+        }
+        return new Node<>(key, element, node.left, node.right);
+    }
+
+    /**
+     * Returns a copy of a subtree without the entry of a key, which it must hold.
+     *
+     * @param node The root of the subtree.
+     * @param key  The key.
+     * @return The root of the changed subtree, or null if it is now empty.
+     */
+    private static <E> Node<E> delete(Node<E> node, int key) {
+        if (key < node.key) {
+            return balance(node.key, node.element, delete(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.element, node.left, delete(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<E> successor = node.right; // The smallest key on the right takes the removed entry's place
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.element, node.left, delete(node.right, successor.key));
+    }
+
+    /**
+     * Makes a node over two subtrees whose heights differ by at most two, rotating it so that
+     * they differ by at most one.
+     *
+     * @param key     The key of the node.
+     * @param element The element of the node.
+     * @param left    The subtree of smaller keys, or null.
+     * @param right   The subtree of larger keys, or null.
+     * @return The root of the balanced subtree.
+     */
+    private static <E> Node<E> balance(int key, E element, Node<E> left, Node<E> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.element, left.left, new Node<>(key, element, left.right, right));
+            }
+            return new Node<>(left.right.key, left.right.element,
+                    new Node<>(left.key, left.element, left.left, left.right.left),
+                    new Node<>(key, element, left.right.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.element, new Node<>(key, element, left, right.left), right.right);
+            }
+            return new Node<>(right.left.key, right.left.element,
+                    new Node<>(key, element, left, right.left.left),
+                    new Node<>(right.key, right.element, right.left.right, right.right));
+        }
+        return new Node<>(key, element, left, right);
+    }
+}
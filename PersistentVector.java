@@ -0,0 +1,172 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable indexed sequence that is updated by making a changed copy.
+ * <p>
+ * Elements are stored in the leaves of a tree whose nodes have 32 children. Setting or
+ * appending an element copies only the nodes on the path from the root to that element
+ * and shares every other node with the previous version, so an update costs a handful
+ * of small array copies however large the vector is, and old versions stay valid for
+ * anyone still reading them.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class PersistentVector<E> {
+    private static final int BITS = 5;                  // Each level of the tree resolves 5 bits of the index
+    private static final int WIDTH = 1 << BITS;         // Number of children of a node
+    private static final int MASK = WIDTH - 1;          // Mask of the index bits resolved at one level
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Object[WIDTH]);
+
+    private final int size;       // Number of elements
+    private final int shift;      // Index bits below the root level
+    private final Object[] root;  // Root node; inner nodes hold Object[] children, leaves hold elements
+
+    /**
+     * Constructs a PersistentVector from its parts.
+     *
+     * @param size  The number of elements.
+     * @param shift The index bits below the root level.
+     * @param root  The root node.
+     */
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * Gets the empty vector.
+     *
+     * @param <E> The type of the elements.
+     * @return The empty vector.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return The size of the vector.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the element at an index.
+     *
+     * @param index The index, from 0 to size - 1.
+     * @return The element.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for size " + size);
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    /**
+     * Returns a vector with the element at an index replaced.
+     *
+     * @param index   The index, from 0 to size - 1.
+     * @param element The new element.
+     * @return The changed vector; this vector is left as it was.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public PersistentVector<E> set(int index, E element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for size " + size);
+        }
+        return new PersistentVector<>(size, shift, setInNode(root, shift, index, element));
+    }
+
+    /**
+     * Returns a vector with an element added at the end.
+     *
+     * @param element The element to add.
+     * @return The longer vector; this vector is left as it was.
+     */
+    public PersistentVector<E> append(E element) {
+        if (size == (WIDTH << shift)) {
+            // The tree is full: grow a new root above the old one
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            return new PersistentVector<>(size + 1, shift + BITS, setInNode(newRoot, shift + BITS, size, element));
+        }
+        return new PersistentVector<>(size + 1, shift, setInNode(root, shift, size, element));
+    }
+
+    /**
+     * Returns a vector without its last element.
+     *
+     * @return The shorter vector; this vector is left as it was.
+     * @throws IllegalStateException If the vector is empty.
+     */
+    public PersistentVector<E> removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("Vector is empty");
+        }
+        if (size == 1) {
+            return empty();
+        }
+        // Clearing the slot lets the removed element be collected; empty nodes are simply reused
+        PersistentVector<E> cleared = set(size - 1, null);
+        return new PersistentVector<>(size - 1, cleared.shift, cleared.root);
+    }
+
+    /**
+     * Gets a read-only list view of the vector. The view is random access, so its streams
+     * split by index range.
+     *
+     * @return The elements as a list, in index order.
+     */
+    public List<E> asList() {
+        return new ListView();
+    }
+
+    /**
+     * The read-only list view of the vector.
+     */
+    private final class ListView extends AbstractList<E> implements RandomAccess {
+        @Override
+        public E get(int index) {
+            return PersistentVector.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Copies the path to an index and stores an element at its end.
+     *
+     * @param node    The node at the current level, possibly null if not created yet.
+     * @param level   The index bits below this node.
+     * @param index   The index of the element.
+     * @param element The element to store.
+     * @return The copied node.
+     */
+    private static Object[] setInNode(Object[] node, int level, int index, Object element) {
+        Object[] copy = node == null ? new Object[WIDTH] : Arrays.copyOf(node, WIDTH);
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = setInNode((Object[]) copy[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted when the price modifier of a date is changed
+ * through {@link Hotel#setDatePriceModifier}.
+ */
+@Name("hrs.PriceModifier")
+@Label("Price Modifier Change")
+@Category({"Hotel Reservation System", "Pricing"})
+@Description("A change to the price modifier of one date")
+public class PriceModifierEvent extends Event {
+    @Label("Hotel")
+    String hotel; // Name of the hotel
+
+    @Label("Date")
+    int date; // Date whose modifier was changed
+
+    @Label("Previous Modifier")
+    double previousModifier; // Modifier before the change
+
+    @Label("Requested Modifier")
+    double requestedModifier; // Modifier that was asked for
+
+    @Label("Accepted")
+    boolean accepted; // Whether the date and modifier were within bounds
+}
@@ -0,0 +1,248 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of stay prices for one hotel, keyed by room type, base price, dates and
+ * discount code, so that the same stay asked for again by a booking, a screen or a channel
+ * is not priced night by night again.
+ * <p>
+ * Entries are kept in a segmented LRU: a new entry starts in a small probation segment and
+ * moves to the protected segment when it is asked for a second time. Entries leaving the
+ * protected segment fall back to probation, and only entries leaving probation are evicted,
+ * so a burst of one-off quotes cannot push out the stays that are asked for again and again.
+ * <p>
+ * Every entry is also listed under each night of its stay, so changing the price modifier of
+ * a night drops exactly the stays that include it, and changing the base price drops only
+ * the stays priced at another base price. Hits, misses, evictions and invalidations are
+ * counted in {@link ReservationMetrics#QUOTE_CACHE}.
+ */
+public class QuoteCache {
+    public static final int DEFAULT_CAPACITY = 4_096;  // Entries kept by a hotel's cache
+    private static final int PROBATION_PERCENT = 20;   // Share of the capacity for entries asked for once
+
+    private final int probationCapacity;                // Most entries in probation
+    private final int protectedCapacity;                // Most entries in the protected segment
+    private final LinkedHashMap<Key, Long> probation;   // Entries asked for once, least recent first
+    private final LinkedHashMap<Key, Long> protectedEntries; // Entries asked for again, least recent first
+    private final List<HashSet<Key>> keysByNight;       // Keys of the entries whose stay includes each night
+
+    /**
+     * Key of a cached stay price.
+     */
+    private static final class Key {
+        final Room.RoomType type;   // Room type of the stay
+        final long basePrice;       // Base price of the room, in centavos
+        final int checkInDate;      // Check-in date
+        final int checkOutDate;     // Check-out date
+        final String discountCode;  // Discount code, or null
+
+        /**
+         * Constructs the key of a stay.
+         *
+         * @param room         The room.
+         * @param checkInDate  The check-in date.
+         * @param checkOutDate The check-out date.
+         * @param discountCode The discount code, or null.
+         */
+        Key(Room room, int checkInDate, int checkOutDate, String discountCode) {
+            this.type = room.getType();
+            this.basePrice = room.getBasePriceCentavos();
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.discountCode = discountCode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return type == key.type && basePrice == key.basePrice && checkInDate == key.checkInDate
+                    && checkOutDate == key.checkOutDate && Objects.equals(discountCode, key.discountCode);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = type.hashCode();
+            hash = 31 * hash + Long.hashCode(basePrice);
+            hash = 31 * hash + checkInDate;
+            hash = 31 * hash + checkOutDate;
+            return 31 * hash + Objects.hashCode(discountCode);
+        }
+    }
+
+    /**
+     * Constructs an empty QuoteCache.
+     *
+     * @param capacity    The most entries to keep (at least 2).
+     * @param horizonDays The calendar horizon of the hotel.
+     */
+    public QuoteCache(int capacity, int horizonDays) {
+        capacity = Math.max(2, capacity);
+        this.probationCapacity = Math.max(1, capacity * PROBATION_PERCENT / 100);
+        this.protectedCapacity = capacity - probationCapacity;
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        this.keysByNight = new ArrayList<>(horizonDays + 1);
+        for (int night = 0; night <= horizonDays; night++) {
+            keysByNight.add(null); // Created when the first stay including the night is cached
+        }
+    }
+
+    /**
+     * Gets the price of a stay, computing and caching it if it is not cached.
+     *
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param discountCode The discount code, or null.
+     * @param price        Computes the price on a miss.
+     * @return The price of the stay, in centavos.
+     */
+    public synchronized long get(Room room, int checkInDate, int checkOutDate, String discountCode, LongSupplier price) {
+        Key key = new Key(room, checkInDate, checkOutDate, discountCode);
+
+        Long cached = protectedEntries.get(key);
+        if (cached == null) {
+            cached = probation.remove(key);
+            if (cached != null) {
+                promote(key, cached); // Asked for a second time
+            }
+        }
+        ReservationMetrics.QUOTE_CACHE.recordLookup(cached != null);
+        if (cached != null) {
+            return cached;
+        }
+
+        long computed = price.getAsLong();
+        if (checkInDate >= 1 && checkOutDate <= keysByNight.size() && checkInDate < checkOutDate) {
+            probation.put(key, computed);
+            index(key);
+            if (probation.size() > probationCapacity) {
+                Key eldest = eldest(probation);
+                probation.remove(eldest);
+                unindex(eldest);
+                ReservationMetrics.QUOTE_CACHE.recordEviction();
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * Drops every cached stay that includes a night, after the night's price changed.
+     *
+     * @param night The night.
+     */
+    public synchronized void invalidateNight(int night) {
+        if (night < 0 || night >= keysByNight.size() || keysByNight.get(night) == null) {
+            return;
+        }
+        List<Key> stale = new ArrayList<>(keysByNight.get(night));
+        for (Key key : stale) {
+            remove(key);
+        }
+        ReservationMetrics.QUOTE_CACHE.recordInvalidations(stale.size());
+    }
+
+    /**
+     * Drops every cached stay priced at a base price other than the given one, after the
+     * base price of the hotel's rooms changed.
+     *
+     * @param basePrice The new base price, in centavos.
+     */
+    public synchronized void invalidateBasePrice(long basePrice) {
+        List<Key> stale = new ArrayList<>();
+        for (Key key : probation.keySet()) {
+            if (key.basePrice != basePrice) {
+                stale.add(key);
+            }
+        }
+        for (Key key : protectedEntries.keySet()) {
+            if (key.basePrice != basePrice) {
+                stale.add(key);
+            }
+        }
+        for (Key key : stale) {
+            remove(key);
+        }
+        ReservationMetrics.QUOTE_CACHE.recordInvalidations(stale.size());
+    }
+
+    /**
+     * Gets the number of cached stays.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return probation.size() + protectedEntries.size();
+    }
+
+    /**
+     * Moves an entry into the protected segment, moving the least recent protected entry
+     * back to probation if the segment is full.
+     *
+     * @param key   The key of the entry.
+     * @param price The cached price.
+     */
+    private void promote(Key key, long price) {
+        protectedEntries.put(key, price);
+        if (protectedEntries.size() > protectedCapacity) {
+            Key eldest = eldest(protectedEntries);
+            Long demoted = protectedEntries.remove(eldest);
+            probation.put(eldest, demoted); // Probation just lost the promoted entry, so it has room
+        }
+    }
+
+    /**
+     * Removes an entry from whichever segment holds it and from the night lists.
+     *
+     * @param key The key of the entry.
+     */
+    private void remove(Key key) {
+        if (probation.remove(key) != null || protectedEntries.remove(key) != null) {
+            unindex(key);
+        }
+    }
+
+    /**
+     * Lists an entry under every night of its stay.
+     *
+     * @param key The key of the entry.
+     */
+    private void index(Key key) {
+        for (int night = key.checkInDate; night < key.checkOutDate; night++) {
+            HashSet<Key> keys = keysByNight.get(night);
+            if (keys == null) {
+                keys = new HashSet<>();
+                keysByNight.set(night, keys);
+            }
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Removes an entry from the lists of the nights of its stay.
+     *
+     * @param key The key of the entry.
+     */
+    private void unindex(Key key) {
+        for (int night = key.checkInDate; night < key.checkOutDate; night++) {
+            keysByNight.get(night).remove(key);
+        }
+    }
+
+    /**
+     * Gets the least recently used key of a segment.
+     *
+     * @param segment The segment, not empty.
+     * @return The least recent key.
+     */
+    private static Key eldest(Map<Key, Long> segment) {
+        return segment.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Computes a hotel's nightly prices for many rooms at once. Kernels take each room's rate
+ * (base price times room type multiplier, in centavos times basis points) and the date
+ * price modifiers, and fill two night-major tables: the price of every room on every night,
+ * and every room's running total from night 1, from which any stay total is one subtraction.
+ * <p>
+ * Every price is rounded exactly as {@link Hotel#calculatePriceCentavosForRoomOnDate(Room, int)}
+ * rounds it, so all kernels produce the same tables.
+ */
+interface QuoteKernel {
+    /**
+     * Fills the price and running total tables.
+     *
+     * @param roomRates The rate of each room: base price in centavos times the multiplier in basis points.
+     * @param modifiers The date price modifiers in basis points, indexed by night from 1.
+     * @param nights    The number of nights to quote.
+     * @param prices    Receives the price of room r on night n at (n - 1) * rooms + r.
+     * @param totals    Receives the total of room r for nights 1 to n at n * rooms + r; row 0 is left at zero.
+     */
+    void quote(long[] roomRates, int[] modifiers, int nights, long[] prices, long[] totals);
+
+    /**
+     * Gets the name of the kernel, for reports.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Gets the fastest kernel this JVM can run: the vectorized kernel when it was built (it
+     * lives in the opt-in {@code vector} directory, see {@code VectorQuoteKernel}) and
+     * the {@code jdk.incubator.vector} module is present, the scalar kernel otherwise.
+     *
+     * @return The kernel.
+     */
+    static QuoteKernel best() {
+        return Holder.BEST;
+    }
+
+    /**
+     * Picks the kernel once, the first time one is asked for.
+     */
+    final class Holder {
+        private static final QuoteKernel BEST = load();
+
+        /**
+         * Holder only holds the chosen kernel.
+         */
+        private Holder() {
+        }
+
+        /**
+         * Loads the vectorized kernel by name, so that this class still links when the
+         * incubator module is missing, and falls back to the scalar kernel.
+         *
+         * @return The kernel.
+         */
+        private static QuoteKernel load() {
+            try {
+                return (QuoteKernel) Class.forName("VectorQuoteKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarQuoteKernel(); // Vector API not available in this JVM
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * The price of every room of a hotel on every night of its calendar, before discounts,
+ * computed in one pass by a {@link QuoteKernel}.
+ * <p>
+ * Prices and running totals are stored night by night with the rooms of a night next to
+ * each other, so a night's prices for all rooms, or any stay's total for a room, are read
+ * without recomputing anything. The table is a copy: it does not follow later price changes.
+ */
+public class QuoteTable {
+    private final Room[] rooms;      // Rooms of the table, in room key order
+    private final int nights;        // Number of nights quoted, from night 1
+    private final long[] prices;     // Price of room r on night n at (n - 1) * rooms + r, in centavos
+    private final long[] totals;     // Total of room r for nights 1 to n at n * rooms + r, in centavos
+    private final String kernel;     // Name of the kernel that computed the table
+
+    /**
+     * Computes the quote table of a set of rooms.
+     *
+     * @param rooms     The rooms, in the order they should appear in the table.
+     * @param modifiers The date price modifiers in basis points, indexed by night from 1.
+     * @param nights    The number of nights to quote.
+     * @param kernel    The kernel that computes the prices.
+     */
+    QuoteTable(Room[] rooms, int[] modifiers, int nights, QuoteKernel kernel) {
+        this.rooms = rooms;
+        this.nights = nights;
+        this.prices = new long[nights * rooms.length];
+        this.totals = new long[(nights + 1) * rooms.length];
+        this.kernel = kernel.getName();
+
+        long[] roomRates = new long[rooms.length];
+        for (int i = 0; i < rooms.length; i++) {
+            roomRates[i] = rooms[i].getBasePriceCentavos() * rooms[i].getType().getPriceMultiplierBasisPoints();
+        }
+        kernel.quote(roomRates, modifiers, nights, prices, totals);
+    }
+
+    /**
+     * Gets the number of rooms in the table.
+     *
+     * @return The number of rooms.
+     */
+    public int getRoomCount() {
+        return rooms.length;
+    }
+
+    /**
+     * Gets a room of the table.
+     *
+     * @param index The position of the room (0 to the room count - 1).
+     * @return The room.
+     */
+    public Room getRoom(int index) {
+        return rooms[index];
+    }
+
+    /**
+     * Gets the number of nights in the table.
+     *
+     * @return The number of nights, counted from night 1.
+     */
+    public int getNights() {
+        return nights;
+    }
+
+    /**
+     * Gets the price of a room on a night.
+     *
+     * @param index The position of the room.
+     * @param night The night (1 to the number of nights).
+     * @return The price, in centavos.
+     */
+    public long getNightPriceCentavos(int index, int night) {
+        return prices[(night - 1) * rooms.length + index];
+    }
+
+    /**
+     * Gets the price of a stay in a room, before discounts.
+     *
+     * @param index        The position of the room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date (at most the number of nights + 1).
+     * @return The total price, in centavos.
+     */
+    public long getStayTotalCentavos(int index, int checkInDate, int checkOutDate) {
+        return totals[(checkOutDate - 1) * rooms.length + index] - totals[(checkInDate - 1) * rooms.length + index];
+    }
+
+    /**
+     * Gets the name of the kernel that computed the table.
+     *
+     * @return The kernel name, e.g. "scalar" or "vector x4".
+     */
+    public String getKernel() {
+        return kernel;
+    }
+}
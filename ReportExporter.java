@@ -0,0 +1,406 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes reservation, occupancy and revenue reports of one or more hotels as CSV or JSON.
+ * <p>
+ * Reports are streamed: reservations are read one at a time from each hotel's
+ * {@link ReservationIndex}, every row is built in one reused character buffer, and the
+ * encoded bytes go through one fixed-size byte buffer that is written to the channel
+ * whenever it fills up. No list of rows is ever built, so the memory used stays the same
+ * however many reservations are exported. The occupancy report keeps one counter per night
+ * of the calendar of the hotel being exported.
+ */
+public class ReportExporter {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024; // Bytes collected before each write to the channel
+
+    /**
+     * The formats a report can be written in.
+     */
+    public enum Format {
+        CSV,  // One header line, then one line per row
+        JSON  // An array with one object per row
+    }
+
+    private static final String[] RESERVATION_COLUMNS = {
+            "hotel", "reservationId", "guest", "room", "roomType", "checkIn", "checkOut", "nights",
+            "discountCode", "totalPrice"};
+    private static final String[] OCCUPANCY_COLUMNS = {"hotel", "night", "bookedRooms", "rooms", "occupancy"};
+    private static final String[] REVENUE_COLUMNS = {
+            "hotel", "reservations", "roomNights", "revenue", "averageDailyRate", "revenuePerAvailableRoom"};
+
+    private final WritableByteChannel channel;  // Where the report goes
+    private final Format format;                // How rows are written
+    private final ByteBuffer buffer;            // Encoded bytes waiting to be written
+    private final CharsetEncoder encoder;       // Turns the rows into UTF-8
+    private final StringBuilder row;            // The row being built, reused for every row
+    private String[] columns;                   // Column names of the report being written
+    private int rowsInReport;                   // Rows written to the current report so far
+
+    /**
+     * Constructs a ReportExporter with the default buffer size.
+     *
+     * @param channel The channel to write to; it is not closed by the exporter.
+     * @param format  The format of the reports.
+     */
+    public ReportExporter(WritableByteChannel channel, Format format) {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a ReportExporter.
+     *
+     * @param channel    The channel to write to; it is not closed by the exporter.
+     * @param format     The format of the reports.
+     * @param bufferSize The number of bytes to collect before each write (at least 16).
+     * @throws IllegalArgumentException If the buffer size is too small.
+     */
+    public ReportExporter(WritableByteChannel channel, Format format, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("Buffer size " + bufferSize + " is too small");
+        }
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.row = new StringBuilder(256);
+    }
+
+    /**
+     * Writes every reservation of the given hotels, each hotel's in order of check-in.
+     *
+     * @param hotels The hotels to export.
+     * @return The number of reservations written.
+     * @throws IOException If the channel cannot be written.
+     */
+    public long exportReservations(List<Hotel> hotels) throws IOException {
+        beginReport(RESERVATION_COLUMNS);
+        for (Hotel hotel : hotels) {
+            for (Reservation reservation : hotel.getReservationIndex()) {
+                beginRow();
+                appendField(0, hotel.getName());
+                appendField(1, reservation.getReservationID());
+                appendField(2, reservation.getGuestName());
+                appendField(3, reservation.getRoom().getName());
+                appendField(4, reservation.getRoom().getType().name());
+                appendField(5, reservation.getCheckInDate());
+                appendField(6, reservation.getCheckOutDate());
+                appendField(7, reservation.getCheckOutDate() - reservation.getCheckInDate());
+                appendField(8, reservation.getDiscountCode());
+                appendMoney(9, reservation.getTotalPriceCentavos());
+                endRow();
+            }
+        }
+        return endReport();
+    }
+
+    /**
+     * Writes, for every night of each hotel's calendar, the number of rooms booked out of the
+     * hotel's rooms.
+     *
+     * @param hotels The hotels to export.
+     * @return The number of rows written.
+     * @throws IOException If the channel cannot be written.
+     */
+    public long exportOccupancy(List<Hotel> hotels) throws IOException {
+        beginReport(OCCUPANCY_COLUMNS);
+        for (Hotel hotel : hotels) {
+            // Each stay adds one at its check-in and removes one at its check-out; a running sum gives each night's count
+            int[] changes = new int[hotel.getHorizonDays() + 2];
+            for (Reservation reservation : hotel.getReservationIndex()) {
+                changes[reservation.getCheckInDate()]++;
+                changes[reservation.getCheckOutDate()]--;
+            }
+
+            int rooms = hotel.getRoomsList().size();
+            int bookedRooms = 0;
+            for (int night = 1; night <= hotel.getHorizonDays(); night++) {
+                bookedRooms += changes[night];
+                beginRow();
+                appendField(0, hotel.getName());
+                appendField(1, night);
+                appendField(2, bookedRooms);
+                appendField(3, rooms);
+                appendField(4, rooms == 0 ? 0.0 : (double) bookedRooms / rooms, 4);
+                endRow();
+            }
+        }
+        return endReport();
+    }
+
+    /**
+     * Writes one revenue summary per hotel: its reservations, the room nights they cover,
+     * the revenue they bring, the average price of a room night, and the revenue per room
+     * night the hotel could have sold.
+     *
+     * @param hotels The hotels to export.
+     * @return The number of rows written.
+     * @throws IOException If the channel cannot be written.
+     */
+    public long exportRevenue(List<Hotel> hotels) throws IOException {
+        beginReport(REVENUE_COLUMNS);
+        for (Hotel hotel : hotels) {
+            long reservations = 0;
+            long roomNights = 0;
+            long revenue = 0; // In centavos, so the total is exact
+            for (Reservation reservation : hotel.getReservationIndex()) {
+                reservations++;
+                roomNights += reservation.getCheckOutDate() - reservation.getCheckInDate();
+                revenue += reservation.getTotalPriceCentavos();
+            }
+            long availableRoomNights = (long) hotel.getRoomsList().size() * hotel.getHorizonDays();
+
+            beginRow();
+            appendField(0, hotel.getName());
+            appendField(1, reservations);
+            appendField(2, roomNights);
+            appendMoney(3, revenue);
+            appendMoney(4, roomNights == 0 ? 0 : Money.divideHalfEven(revenue, roomNights));
+            appendMoney(5, availableRoomNights == 0 ? 0 : Money.divideHalfEven(revenue, availableRoomNights));
+            endRow();
+        }
+        return endReport();
+    }
+
+    /**
+     * Starts a report: writes the CSV header or opens the JSON array.
+     *
+     * @param reportColumns The column names.
+     * @throws IOException If the channel cannot be written.
+     */
+    private void beginReport(String[] reportColumns) throws IOException {
+        columns = reportColumns;
+        rowsInReport = 0;
+        row.setLength(0);
+        if (format == Format.CSV) {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append(columns[i]);
+            }
+            row.append('\n');
+        } else {
+            row.append('[');
+        }
+        writeRow();
+    }
+
+    /**
+     * Finishes a report: closes the JSON array and writes out everything still buffered.
+     *
+     * @return The number of rows in the report.
+     * @throws IOException If the channel cannot be written.
+     */
+    private long endReport() throws IOException {
+        row.setLength(0);
+        if (format == Format.JSON) {
+            row.append(rowsInReport == 0 ? "]\n" : "\n]\n");
+        }
+        writeRow();
+        flush();
+        return rowsInReport;
+    }
+
+    /**
+     * Starts a row in the reused row buffer.
+     */
+    private void beginRow() {
+        row.setLength(0);
+        if (format == Format.JSON) {
+            row.append(rowsInReport == 0 ? "\n{" : ",\n{");
+        }
+    }
+
+    /**
+     * Finishes the row in the row buffer and encodes it into the byte buffer.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    private void endRow() throws IOException {
+        row.append(format == Format.JSON ? "}" : "\n");
+        rowsInReport++;
+        writeRow();
+    }
+
+    /**
+     * Starts a field: writes the separator and, for JSON, the key.
+     *
+     * @param column The position of the field in the row.
+     */
+    private void appendName(int column) {
+        if (column > 0) {
+            row.append(',');
+        }
+        if (format == Format.JSON) {
+            appendJsonString(columns[column]);
+            row.append(':');
+        }
+    }
+
+    /**
+     * Appends a text field, quoted and escaped as the format requires. A null value becomes
+     * an empty CSV field or a JSON null.
+     *
+     * @param column The position of the field in the row.
+     * @param value  The text.
+     */
+    private void appendField(int column, String value) {
+        appendName(column);
+        if (value == null) {
+            if (format == Format.JSON) {
+                row.append("null");
+            }
+        } else if (format == Format.JSON) {
+            appendJsonString(value);
+        } else {
+            appendCsvString(value);
+        }
+    }
+
+    /**
+     * Appends a whole number field.
+     *
+     * @param column The position of the field in the row.
+     * @param value  The number.
+     */
+    private void appendField(int column, long value) {
+        appendName(column);
+        row.append(value);
+    }
+
+    /**
+     * Appends an amount of money as pesos with two decimals, written exactly from its centavos.
+     *
+     * @param column   The position of the field in the row.
+     * @param centavos The amount in centavos.
+     */
+    private void appendMoney(int column, long centavos) {
+        appendName(column);
+        Money.appendTo(row, centavos);
+    }
+
+    /**
+     * Appends a decimal field with a fixed number of decimals, rounded half up.
+     *
+     * @param column   The position of the field in the row.
+     * @param value    The number.
+     * @param decimals The number of decimals (0 to 9).
+     */
+    private void appendField(int column, double value, int decimals) {
+        appendName(column);
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            row.append('-');
+        }
+        row.append(scaled / scale);
+        if (decimals > 0) {
+            row.append('.');
+            // Pad the fraction with leading zeros, e.g. 5 hundredths as "05"
+            String fraction = Long.toString(scaled % scale);
+            for (int i = fraction.length(); i < decimals; i++) {
+                row.append('0');
+            }
+            row.append(fraction);
+        }
+    }
+
+    /**
+     * Appends text as a CSV field, quoting it if it holds a separator, quote or line break.
+     *
+     * @param value The text.
+     */
+    private void appendCsvString(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"'); // Quotes are escaped by doubling them
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    /**
+     * Appends text as a JSON string, escaping quotes, backslashes and control characters.
+     *
+     * @param value The text.
+     */
+    private void appendJsonString(String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> row.append("\\\"");
+                case '\\' -> row.append("\\\\");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                case '\t' -> row.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        row.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        row.append(c);
+                    }
+                }
+            }
+        }
+        row.append('"');
+    }
+
+    /**
+     * Encodes the row buffer into the byte buffer, writing the byte buffer out whenever it is full.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    private void writeRow() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(row);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything in the byte buffer to the channel.
+     *
+     * @throws IOException If the channel cannot be written.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
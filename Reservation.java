@@ -2,14 +2,45 @@
  * Represents a reservation for a room in a hotel.
  */
 public class Reservation {
-    private final String guestName;      // Name of the guest
+    private static final int EMPLOYEE_RATE = 9_000;      // I_WORK_HERE: guests pay 90%, in basis points
+    private static final int PAYDAY_RATE = 9_300;        // PAYDAY: guests pay 93%, in basis points
+
     private final int checkInDate;       // Check-in date
     private final int checkOutDate;      // Check-out date
-    private final Room room;              // Room being reserved
-    private final double totalPrice;      // Total price of the reservation
+    private Room room;                    // Room being reserved, changed only when the hotel reassigns rooms
+    private final long totalPrice;        // Total price of the reservation, in centavos
     private final String reservationID;   // Unique reservation ID
-    private final String discountCode;    // Discount code applied to the reservation
     private final Hotel hotel;            // Reference to the Hotel instance
+    private int hotelSlot = -1;           // Position in the hotel's reservation list, -1 when not booked
+    private int roomSlot = -1;            // Position in the room's reservation list, -1 when not booked
+    private volatile Details details;     // Guest name and discount code, or the off-heap record holding them
+
+    /**
+     * The guest name and discount code of a reservation, or the record of the off-heap store
+     * that holds them. Never changed once made: the reservation switches to new details as a
+     * whole, so a reader always sees the strings or the record, never half of each.
+     */
+    private static final class Details {
+        final String guestName;              // Name of the guest, null while the store holds it
+        final String discountCode;           // Discount code applied to the reservation, null while the store holds it
+        final OffHeapReservationStore store; // Store holding the name and code, null if held here
+        final int record;                    // Record of the reservation in the store, -1 if held here
+
+        /**
+         * Constructs the details of a reservation.
+         *
+         * @param guestName    The guest name, or null if the store holds it.
+         * @param discountCode The discount code, or null if none was given or the store holds it.
+         * @param store        The store holding the name and code, or null.
+         * @param record       The record in the store, or -1.
+         */
+        Details(String guestName, String discountCode, OffHeapReservationStore store, int record) {
+            this.guestName = guestName;
+            this.discountCode = discountCode;
+            this.store = store;
+            this.record = record;
+        }
+    }
 
     /**
      * Constructs a new Reservation with the specified details.
@@ -35,14 +66,36 @@ public class Reservation {
      * @param discountCode  The discount code applied to the reservation.
      */
     public Reservation(String guestName, int checkInDate, int checkOutDate, Room room, Hotel hotel, String discountCode) {
-        this.guestName = guestName;
+        this.details = new Details(guestName, discountCode, null, -1);
         this.checkInDate = checkInDate;
         this.checkOutDate = checkOutDate;
         this.room = room;
         this.hotel = hotel;
-        this.discountCode = discountCode;
         this.totalPrice = calculateTotalPrice(); // Calculate the total price of the reservation
-        this.reservationID = generateReservationID(); // Generate a unique reservation ID
+        this.reservationID = hotel.uniqueReservationId(generateReservationID()); // Generate a reservation ID unique within the hotel
+    }
+
+    /**
+     * Constructs a reservation read back from a record of an off-heap store. The reservation
+     * keeps the ID and price it was booked with; nothing is priced again.
+     *
+     * @param reservationID The stored reservation ID.
+     * @param checkInDate   The check-in date.
+     * @param checkOutDate  The check-out date.
+     * @param room          The room being reserved.
+     * @param hotel         The hotel instance to which the reservation belongs.
+     * @param store         The store holding the record.
+     * @param record        The record.
+     */
+    Reservation(String reservationID, int checkInDate, int checkOutDate, Room room, Hotel hotel,
+                OffHeapReservationStore store, int record) {
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.room = room;
+        this.hotel = hotel;
+        this.totalPrice = store.getPriceCentavos(record);
+        this.reservationID = reservationID;
+        this.details = new Details(null, null, store, record);
     }
 
     /**
@@ -53,56 +106,78 @@ public class Reservation {
      */
     private String generateReservationID() {
         String roomNumber = room.getName(); // Get the room name
-        char guestInitial = guestName.toUpperCase().charAt(0); // Get the guest's initial
+        char guestInitial = details.guestName.toUpperCase().charAt(0); // Get the guest's initial
 
         // Create a reservation ID using room number, guest initial, and dates
         return roomNumber + guestInitial + String.format("%02d", checkInDate) + String.format("%02d", checkOutDate);
     }
 
     /**
-     * Calculates the total price for the reservation based on the number of days
-     * and room base price.
+     * Calculates the total price for the reservation. Stays priced before are answered by the
+     * hotel's quote cache.
      *
-     * @return The total price for the reservation.
+     * @return The total price for the reservation, in centavos.
      */
-    private double calculateTotalPrice() {
-        double totalPrice = 0.0; // Initialize total price
+    private long calculateTotalPrice() {
+        return hotel.quoteStayCentavos(room, checkInDate, checkOutDate, details.discountCode);
+    }
+
+    /**
+     * Prices a stay based on the number of days and room base price. Each night's price is
+     * already rounded to the centavo, so the nights add up exactly; a percentage discount is
+     * rounded once, on the total.
+     *
+     * @param hotel        The hotel whose date price modifiers apply.
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param discountCode The discount code, or null.
+     * @return The total price of the stay, in centavos.
+     */
+    static long priceStay(Hotel hotel, Room room, int checkInDate, int checkOutDate, String discountCode) {
+        long totalPrice = 0; // Initialize total price
 
         // Calculate total price for each day between check-in and check-out
         for (int date = checkInDate; date < checkOutDate; date++) {
-            totalPrice += hotel.calculatePriceForRoomOnDate(room, date);
+            totalPrice += hotel.calculatePriceCentavosForRoomOnDate(room, date);
         }
 
-        totalPrice = applyDiscount(totalPrice); // Apply discount if any
-
-        return totalPrice; // Return the final total price
+        return applyDiscount(hotel, room, checkInDate, checkOutDate, discountCode, totalPrice); // Apply discount if any
     }
 
     /**
      * Applies any applicable discount to the total price based on the provided
      * discount code.
      *
-     * @param totalPrice The total price before discount.
-     * @return The total price after applying the discount.
+     * @param hotel        The hotel whose date price modifiers apply.
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param discountCode The discount code, or null.
+     * @param totalPrice   The total price before discount, in centavos.
+     * @return The total price after applying the discount, in centavos.
      */
-    private double applyDiscount(double totalPrice) {
+    private static long applyDiscount(Hotel hotel, Room room, int checkInDate, int checkOutDate, String discountCode,
+                                      long totalPrice) {
         if (discountCode == null) {
             return totalPrice; // No discount code, return total price
         }
 
         // Apply discounts based on the discount code
         return switch (discountCode) {
-            case "I_WORK_HERE" -> totalPrice * 0.9; // 10% discount
+            case "I_WORK_HERE" -> Money.applyRate(totalPrice, EMPLOYEE_RATE); // 10% discount
             case "STAY4_GET1" -> {
                 if (checkOutDate - checkInDate >= 5) {
-                    totalPrice -= hotel.calculatePriceForRoomOnDate(room, checkInDate); // Free first day for 5+ days
+                    totalPrice -= hotel.calculatePriceCentavosForRoomOnDate(room, checkInDate); // Free first day for 5+ days
                 }
                 yield totalPrice; // Return adjusted total price
             }
             case "PAYDAY" -> {
-                // 7% discount if the reservation covers day 15 or 30 but not those days as check-out
-                if ((checkInDate <= 15 && checkOutDate > 15) || (checkInDate <= 30 && checkOutDate > 30)) {
-                    yield totalPrice * 0.93; // 7% discount
+                // 7% discount if the reservation covers a payday (day 15 or 30 of any 30-day month,
+                // i.e. any multiple of 15) but not as the check-out day
+                int firstPayday = (checkInDate + 14) / 15 * 15;
+                if (firstPayday < checkOutDate) {
+                    yield Money.applyRate(totalPrice, PAYDAY_RATE); // 7% discount
                 }
                 yield totalPrice; // Return total price if no discount applied
             }
@@ -123,8 +198,8 @@ public class Reservation {
         // Compare attributes for equality
         return this.checkInDate == other.checkInDate &&
                 this.checkOutDate == other.checkOutDate &&
-                Double.compare(this.totalPrice, other.totalPrice) == 0 &&
-                this.guestName.equals(other.guestName) &&
+                this.totalPrice == other.totalPrice &&
+                this.getGuestName().equals(other.getGuestName()) &&
                 this.room.getName().equals(other.room.getName()) &&
                 this.reservationID.equals(other.reservationID); // Return true if all attributes match
     }
@@ -135,7 +210,16 @@ public class Reservation {
      * @return The guest name.
      */
     public String getGuestName() {
-        return guestName;
+        Details current = details;
+        while (current.store != null) {
+            String guestName = current.store.getGuestName(current.record);
+            Details after = details;
+            if (after == current) {
+                return guestName; // The record was not freed while it was read
+            }
+            current = after; // Switched meanwhile; the record may have been reused
+        }
+        return current.guestName;
     }
 
     /**
@@ -165,6 +249,63 @@ public class Reservation {
         return room;
     }
 
+    /**
+     * Moves the reservation to another room of the same type. The reservation ID keeps the
+     * name of the room it was first booked in, and the price does not change.
+     *
+     * @param newRoom The room the guest will stay in.
+     */
+    void moveTo(Room newRoom) {
+        this.room = newRoom;
+    }
+
+    /**
+     * Gets the position of the reservation in its hotel's reservation list, the handle that
+     * lets the hotel remove it without searching.
+     *
+     * @return The position, or -1 if the reservation is not booked.
+     */
+    int getHotelSlot() {
+        return hotelSlot;
+    }
+
+    /**
+     * Sets the position of the reservation in its hotel's reservation list.
+     *
+     * @param hotelSlot The position, or -1 once the reservation is removed.
+     */
+    void setHotelSlot(int hotelSlot) {
+        this.hotelSlot = hotelSlot;
+    }
+
+    /**
+     * Gets the position of the reservation in its room's reservation list, the handle that
+     * lets the room remove it without searching.
+     *
+     * @return The position, or -1 if the reservation is not booked.
+     */
+    int getRoomSlot() {
+        return roomSlot;
+    }
+
+    /**
+     * Sets the position of the reservation in its room's reservation list.
+     *
+     * @param roomSlot The position, or -1 once the reservation is removed.
+     */
+    void setRoomSlot(int roomSlot) {
+        this.roomSlot = roomSlot;
+    }
+
+    /**
+     * Gets the hotel the reservation was made in.
+     *
+     * @return The hotel.
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+
     /**
      * Gets the reservation ID.
      *
@@ -177,9 +318,18 @@ public class Reservation {
     /**
      * Gets the total price for the reservation.
      *
-     * @return The total price.
+     * @return The total price, in pesos.
      */
     public double getTotalPrice() {
+        return Money.toPesos(totalPrice);
+    }
+
+    /**
+     * Gets the total price for the reservation.
+     *
+     * @return The total price, in centavos.
+     */
+    public long getTotalPriceCentavos() {
         return totalPrice;
     }
 
@@ -189,6 +339,48 @@ public class Reservation {
      * @return The discount code.
      */
     public String getDiscountCode() {
-        return discountCode;
+        Details current = details;
+        while (current.store != null) {
+            String discountCode = current.store.getDiscountCode(current.record);
+            Details after = details;
+            if (after == current) {
+                return discountCode; // The record was not freed while it was read
+            }
+            current = after; // Switched meanwhile; the record may have been reused
+        }
+        return current.discountCode;
+    }
+
+    /**
+     * Gets the record of the reservation in its hotel's off-heap store.
+     *
+     * @return The record, or -1 if the reservation holds its own details.
+     */
+    int getRecord() {
+        return details.record;
+    }
+
+    /**
+     * Hands the guest name and discount code over to a record of an off-heap store.
+     *
+     * @param store  The store.
+     * @param record The record written for this reservation.
+     */
+    void storeOffHeap(OffHeapReservationStore store, int record) {
+        this.details = new Details(null, null, store, record); // Readers still holding the strings keep them
+    }
+
+    /**
+     * Takes the guest name and discount code back from the off-heap store, before the record
+     * is freed or the store closed. A reader that was reading the record at the time notices
+     * the switch and reads the strings instead.
+     */
+    void loadOnHeap() {
+        Details current = details;
+        if (current.store == null) {
+            return;
+        }
+        this.details = new Details(current.store.getGuestName(current.record),
+                current.store.getDiscountCode(current.record), null, -1);
     }
 }
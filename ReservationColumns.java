@@ -0,0 +1,429 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps every reservation of a {@link HotelReservationSystem} in columns of primitives for
+ * reporting: check-in, check-out, room key, hotel key, price in centavos and discount code ID,
+ * one array each, one row per reservation.
+ * <p>
+ * Rows are appended when a reservation is made and marked dead when it is cancelled, so a scan
+ * reads each column front to back without following a single reference. Once dead rows make
+ * up more than half of the rows, the live ones are copied into fresh columns and the dead
+ * ones dropped. Hotels and discount codes are stored as small integer IDs. Reports run either
+ * sequentially or as parallel streams over row ranges, each part adding into its own
+ * accumulators.
+ * <p>
+ * Hotels may be booked from different threads, so changes are made under the store's lock.
+ * A report takes the columns and the row count under the lock and then scans without it:
+ * rows below that count never change again apart from being marked dead, because growing and
+ * compacting always write to new arrays.
+ */
+public class ReservationColumns implements ReservationListener {
+    private static final int INITIAL_CAPACITY = 1024; // Rows allocated before the first growth
+
+    private int[] checkIn;          // Check-in date of each row
+    private int[] checkOut;         // Check-out date of each row
+    private int[] roomKey;          // Room key of each row within its hotel
+    private int[] hotelKey;         // Hotel ID of each row
+    private long[] price;           // Total price of each row, in centavos
+    private int[] discountCode;     // Discount code ID of each row, 0 for none
+    private boolean[] live;         // Whether each row's reservation still stands
+    private int rows;               // Number of rows appended
+    private int liveRows;           // Number of rows not cancelled
+    private int[] liveRowsByHotel;  // Number of rows not cancelled of each hotel ID
+    private int nextHotelKey;       // Hotel ID handed to the next hotel seen
+
+    private final IdentityHashMap<Reservation, Integer> rowOf;  // Row of each live reservation
+    private final IdentityHashMap<Hotel, Integer> hotelKeys;    // Hotel ID of each hotel seen and not removed
+    private final ArrayList<String> discountCodes;              // Discount code of each ID, null for ID 0
+    private final HashMap<String, Integer> discountCodeKeys;    // Discount code ID of each code
+
+    /**
+     * Constructs an empty ReservationColumns.
+     */
+    public ReservationColumns() {
+        this.checkIn = new int[INITIAL_CAPACITY];
+        this.checkOut = new int[INITIAL_CAPACITY];
+        this.roomKey = new int[INITIAL_CAPACITY];
+        this.hotelKey = new int[INITIAL_CAPACITY];
+        this.price = new long[INITIAL_CAPACITY];
+        this.discountCode = new int[INITIAL_CAPACITY];
+        this.live = new boolean[INITIAL_CAPACITY];
+        this.liveRowsByHotel = new int[8];
+        this.rowOf = new IdentityHashMap<>();
+        this.hotelKeys = new IdentityHashMap<>();
+        this.discountCodes = new ArrayList<>();
+        this.discountCodes.add(null); // ID 0 means no discount code
+        this.discountCodeKeys = new HashMap<>();
+    }
+
+    /**
+     * Appends a row for a new reservation.
+     *
+     * @param reservation The new reservation.
+     */
+    @Override
+    public synchronized void reservationCreated(Reservation reservation) {
+        if (rows == checkIn.length) {
+            grow();
+        }
+        int row = rows;
+        checkIn[row] = reservation.getCheckInDate();
+        checkOut[row] = reservation.getCheckOutDate();
+        roomKey[row] = reservation.getRoom().getKey();
+        hotelKey[row] = hotelKeyOf(reservation.getHotel());
+        price[row] = reservation.getTotalPriceCentavos();
+        discountCode[row] = discountCodeKeyOf(reservation.getDiscountCode());
+        live[row] = true;
+        rowOf.put(reservation, row);
+        rows++;
+        liveRows++;
+        liveRowsByHotel[hotelKey[row]]++;
+    }
+
+    /**
+     * Marks the row of a cancelled reservation as dead, compacting the columns once most rows
+     * are dead.
+     *
+     * @param reservation The cancelled reservation.
+     */
+    @Override
+    public synchronized void reservationCancelled(Reservation reservation) {
+        Integer row = rowOf.remove(reservation);
+        if (row != null) {
+            live[row] = false;
+            liveRows--;
+            liveRowsByHotel[hotelKey[row]]--;
+            if (rows >= INITIAL_CAPACITY && liveRows < rows / 2) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Forgets a hotel removed from the system, dropping its ID and any rows it still has, so
+     * the store no longer keeps the hotel reachable.
+     *
+     * @param hotel The removed hotel.
+     */
+    public synchronized void removeHotel(Hotel hotel) {
+        Integer key = hotelKeys.remove(hotel);
+        if (key == null || liveRowsByHotel[key] == 0) {
+            return; // Hotels are only removed without reservations, so there is normally nothing to drop
+        }
+        rowOf.values().removeIf(row -> hotelKey[row] == key);
+        for (int row = 0; row < rows; row++) {
+            if (live[row] && hotelKey[row] == key) {
+                live[row] = false;
+                liveRows--;
+            }
+        }
+        liveRowsByHotel[key] = 0;
+    }
+
+    /**
+     * Updates the room key of a moved reservation.
+     *
+     * @param reservation The moved reservation.
+     * @param from        The room it was in before.
+     */
+    @Override
+    public synchronized void reservationMoved(Reservation reservation, Room from) {
+        Integer row = rowOf.get(reservation);
+        if (row != null) {
+            roomKey[row] = reservation.getRoom().getKey();
+        }
+    }
+
+    /**
+     * Counts the rooms booked on each night of a hotel's calendar.
+     *
+     * @param hotel    The hotel.
+     * @param parallel true to scan with a parallel stream.
+     * @return The number of booked rooms, indexed by night from 1 to the hotel's horizon.
+     */
+    public long[] occupancy(Hotel hotel, boolean parallel) {
+        Columns columns = columns(hotel);
+        int hotelId = columns.hotelId;
+        int nights = hotel.getHorizonDays() + 2;
+
+        // Each stay adds one at its check-in and removes one at its check-out
+        long[] changes = rowRange(columns.rows, parallel).collect(() -> new long[nights], (sum, row) -> {
+            if (columns.live[row] && columns.hotelKey[row] == hotelId) {
+                sum[columns.checkIn[row]]++;
+                sum[columns.checkOut[row]]--;
+            }
+        }, ReservationColumns::addInto);
+
+        long[] booked = new long[hotel.getHorizonDays() + 1];
+        long running = 0;
+        for (int night = 1; night < booked.length; night++) {
+            running += changes[night];
+            booked[night] = running;
+        }
+        return booked;
+    }
+
+    /**
+     * Calculates the average daily rate: revenue divided by the room nights sold, rounded half
+     * to even to the centavo.
+     *
+     * @param hotel    The hotel, or null for every hotel.
+     * @param parallel true to scan with a parallel stream.
+     * @return The average price of a room night, in centavos, or 0 if none were sold.
+     */
+    public long averageDailyRateCentavos(Hotel hotel, boolean parallel) {
+        Columns columns = columns(hotel);
+        int hotelId = columns.hotelId;
+
+        // Slot 0 holds the revenue, slot 1 the room nights
+        long[] sums = rowRange(columns.rows, parallel).collect(() -> new long[2], (sum, row) -> {
+            if (columns.live[row] && (hotel == null || columns.hotelKey[row] == hotelId)) {
+                sum[0] += columns.price[row];
+                sum[1] += columns.checkOut[row] - columns.checkIn[row];
+            }
+        }, ReservationColumns::addInto);
+        return sums[1] == 0 ? 0 : Money.divideHalfEven(sums[0], sums[1]);
+    }
+
+    /**
+     * Sums the revenue of the reservations made with each discount code.
+     *
+     * @param hotel    The hotel, or null for every hotel.
+     * @param parallel true to scan with a parallel stream.
+     * @return The revenue in centavos, indexed by discount code ID; see {@link #getDiscountCode(int)}.
+     */
+    public long[] revenueByDiscountCode(Hotel hotel, boolean parallel) {
+        Columns columns = columns(hotel);
+        int hotelId = columns.hotelId;
+        int codes = columns.discountCodeCount;
+
+        return rowRange(columns.rows, parallel).collect(() -> new long[codes], (sum, row) -> {
+            if (columns.live[row] && (hotel == null || columns.hotelKey[row] == hotelId)) {
+                sum[columns.discountCode[row]] += columns.price[row];
+            }
+        }, ReservationColumns::addInto);
+    }
+
+    /**
+     * Gets the discount code with an ID.
+     *
+     * @param id The discount code ID.
+     * @return The discount code, or null for ID 0 (no discount code).
+     */
+    public synchronized String getDiscountCode(int id) {
+        return discountCodes.get(id);
+    }
+
+    /**
+     * Gets the number of discount code IDs handed out, including ID 0 for no discount code.
+     *
+     * @return The number of IDs.
+     */
+    public synchronized int getDiscountCodeCount() {
+        return discountCodes.size();
+    }
+
+    /**
+     * Gets the number of reservations that have not been cancelled.
+     *
+     * @return The number of live rows.
+     */
+    public synchronized int size() {
+        return liveRows;
+    }
+
+    /**
+     * Gets the number of reservations of a hotel that have not been cancelled.
+     *
+     * @param hotel The hotel.
+     * @return The number of the hotel's live rows, 0 if it has none.
+     */
+    public synchronized int size(Hotel hotel) {
+        Integer key = hotelKeys.get(hotel);
+        return key == null ? 0 : liveRowsByHotel[key];
+    }
+
+    /**
+     * Gets the number of rows, including those of cancelled reservations not yet compacted away.
+     *
+     * @return The number of rows.
+     */
+    public synchronized int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * The columns as they were when a report started.
+     */
+    private static final class Columns {
+        final int[] checkIn;            // Check-in date of each row
+        final int[] checkOut;           // Check-out date of each row
+        final int[] hotelKey;           // Hotel ID of each row
+        final long[] price;             // Total price of each row, in centavos
+        final int[] discountCode;       // Discount code ID of each row
+        final boolean[] live;           // Whether each row's reservation still stands
+        final int rows;                 // Number of rows to scan
+        final int discountCodeCount;    // Number of discount code IDs
+        final int hotelId;              // ID of the hotel reported on, -1 if it has no rows or for every hotel
+
+        /**
+         * Takes the columns of a store. Must be called under the store's lock.
+         *
+         * @param store The store.
+         * @param hotel The hotel reported on, or null for every hotel.
+         */
+        Columns(ReservationColumns store, Hotel hotel) {
+            this.checkIn = store.checkIn;
+            this.checkOut = store.checkOut;
+            this.hotelKey = store.hotelKey;
+            this.price = store.price;
+            this.discountCode = store.discountCode;
+            this.live = store.live;
+            this.rows = store.rows;
+            this.discountCodeCount = store.discountCodes.size();
+            this.hotelId = store.hotelKeys.getOrDefault(hotel, -1);
+        }
+    }
+
+    /**
+     * Takes the columns and row count for a report.
+     *
+     * @param hotel The hotel reported on, or null for every hotel.
+     * @return The columns.
+     */
+    private synchronized Columns columns(Hotel hotel) {
+        return new Columns(this, hotel);
+    }
+
+    /**
+     * Gets the stream of row numbers a report scans.
+     *
+     * @param rows     The number of rows.
+     * @param parallel true for a parallel stream.
+     * @return The row numbers.
+     */
+    private static IntStream rowRange(int rows, boolean parallel) {
+        IntStream range = IntStream.range(0, rows);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Adds the accumulators of one part of a parallel scan into another's.
+     *
+     * @param into The accumulators to add to.
+     * @param from The accumulators to add.
+     */
+    private static void addInto(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+    }
+
+    /**
+     * Gets the ID of a hotel, handing out the next one the first time the hotel is seen.
+     *
+     * @param hotel The hotel.
+     * @return The hotel ID.
+     */
+    private int hotelKeyOf(Hotel hotel) {
+        Integer key = hotelKeys.get(hotel);
+        if (key == null) {
+            key = nextHotelKey++; // IDs of removed hotels are never handed out again
+            hotelKeys.put(hotel, key);
+            if (key == liveRowsByHotel.length) {
+                liveRowsByHotel = Arrays.copyOf(liveRowsByHotel, key * 2);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Gets the ID of a discount code, handing out the next one the first time the code is seen.
+     *
+     * @param code The discount code, or null for none.
+     * @return The discount code ID, 0 for none.
+     */
+    private int discountCodeKeyOf(String code) {
+        if (code == null) {
+            return 0;
+        }
+        Integer key = discountCodeKeys.get(code);
+        if (key == null) {
+            key = discountCodes.size();
+            discountCodes.add(code);
+            discountCodeKeys.put(code, key);
+        }
+        return key;
+    }
+
+    /**
+     * Doubles the capacity of every column. The old arrays are left as they were, so reports
+     * already scanning them are not disturbed.
+     */
+    private void grow() {
+        int capacity = checkIn.length * 2;
+        checkIn = Arrays.copyOf(checkIn, capacity);
+        checkOut = Arrays.copyOf(checkOut, capacity);
+        roomKey = Arrays.copyOf(roomKey, capacity);
+        hotelKey = Arrays.copyOf(hotelKey, capacity);
+        price = Arrays.copyOf(price, capacity);
+        discountCode = Arrays.copyOf(discountCode, capacity);
+        live = Arrays.copyOf(live, capacity);
+    }
+
+    /**
+     * Copies the live rows, in order, to the front of new columns of the same capacity and
+     * renumbers their reservations. The old arrays are left as they were, so reports already
+     * scanning them are not disturbed.
+     */
+    private void compact() {
+        int[] newRow = new int[rows]; // New row of each live row
+        int kept = 0;
+        for (int row = 0; row < rows; row++) {
+            if (live[row]) {
+                newRow[row] = kept++;
+            }
+        }
+        for (Map.Entry<Reservation, Integer> entry : rowOf.entrySet()) {
+            entry.setValue(newRow[entry.getValue()]);
+        }
+
+        checkIn = keepLive(checkIn);
+        checkOut = keepLive(checkOut);
+        roomKey = keepLive(roomKey);
+        hotelKey = keepLive(hotelKey);
+        discountCode = keepLive(discountCode);
+        long[] keptPrice = new long[price.length];
+        for (int row = 0, to = 0; row < rows; row++) {
+            if (live[row]) {
+                keptPrice[to++] = price[row];
+            }
+        }
+        price = keptPrice;
+        boolean[] keptLive = new boolean[live.length];
+        Arrays.fill(keptLive, 0, kept, true);
+        live = keptLive;
+        rows = kept;
+    }
+
+    /**
+     * Copies the values of the live rows of a column, in order, into a new column.
+     *
+     * @param column The column.
+     * @return The new column, of the same capacity.
+     */
+    private int[] keepLive(int[] column) {
+        int[] kept = new int[column.length];
+        for (int row = 0, to = 0; row < rows; row++) {
+            if (live[row]) {
+                kept[to++] = column[row];
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Indexes the reservations of a hotel by date for the front desk's range queries.
+ * <p>
+ * Reservations are kept in two skip lists, one ordered by check-in then check-out and one
+ * ordered by check-out, and in an {@link IntervalTree} of their stays. Arrivals and departures
+ * of a day are a single range of the matching skip list, and overlapping stays come from the
+ * interval tree, each at the cost of a logarithmic search plus the number of reservations
+ * returned. Stays contained in a range also come from the interval tree, which skips every
+ * subtree whose earliest check-out is after the range; that costs a logarithmic search plus
+ * at most a logarithmic walk per reservation returned.
+ */
+public class ReservationIndex implements Iterable<Reservation> {
+    private static final int DATE_BITS = 12;                       // Dates fit in 12 bits (up to 4095)
+    private static final int SEQUENCE_BITS = 64 - 1 - 2 * DATE_BITS; // Remaining bits tell reservations with the same dates apart
+
+    private final ConcurrentSkipListMap<Long, Reservation> byCheckIn;  // Keyed by check-in, check-out, sequence
+    private final ConcurrentSkipListMap<Long, Reservation> byCheckOut; // Keyed by check-out, sequence
+    private final IntervalTree<Reservation> stays;                     // Stays as [check-in, check-out) intervals
+    private final IdentityHashMap<Reservation, Position> positions;    // Where each reservation is in the index
+    private long nextSequence;                                         // Number handed to the next reservation
+
+    /**
+     * The keys of one reservation in the index, needed to remove it.
+     */
+    private static final class Position {
+        final long checkInKey;                          // Key in the check-in list
+        final long checkOutKey;                         // Key in the check-out list
+        final IntervalTree.Entry<Reservation> stay;     // Entry in the interval tree
+
+        /**
+         * Constructs a Position.
+         *
+         * @param checkInKey  The key in the check-in list.
+         * @param checkOutKey The key in the check-out list.
+         * @param stay        The entry in the interval tree.
+         */
+        Position(long checkInKey, long checkOutKey, IntervalTree.Entry<Reservation> stay) {
+            this.checkInKey = checkInKey;
+            this.checkOutKey = checkOutKey;
+            this.stay = stay;
+        }
+    }
+
+    /**
+     * Constructs an empty ReservationIndex.
+     */
+    public ReservationIndex() {
+        this.byCheckIn = new ConcurrentSkipListMap<>();
+        this.byCheckOut = new ConcurrentSkipListMap<>();
+        this.stays = new IntervalTree<>();
+        this.positions = new IdentityHashMap<>();
+    }
+
+    /**
+     * Adds a reservation to the index.
+     *
+     * @param reservation The reservation.
+     */
+    void add(Reservation reservation) {
+        long sequence = nextSequence++;
+        int checkIn = reservation.getCheckInDate();
+        int checkOut = reservation.getCheckOutDate();
+        long checkInKey = checkInKey(checkIn, checkOut, sequence);
+        long checkOutKey = checkOutKey(checkOut, sequence);
+
+        byCheckIn.put(checkInKey, reservation);
+        byCheckOut.put(checkOutKey, reservation);
+        positions.put(reservation, new Position(checkInKey, checkOutKey, stays.insert(checkIn, checkOut, reservation)));
+    }
+
+    /**
+     * Removes a reservation from the index.
+     *
+     * @param reservation The reservation.
+     * @return true if the reservation was indexed, false otherwise.
+     */
+    boolean remove(Reservation reservation) {
+        Position position = positions.remove(reservation);
+        if (position == null) {
+            return false;
+        }
+        byCheckIn.remove(position.checkInKey);
+        byCheckOut.remove(position.checkOutKey);
+        stays.remove(position.stay);
+        return true;
+    }
+
+    /**
+     * Finds the reservations whose stay includes at least one night of [from, to).
+     *
+     * @param from The first night, inclusive.
+     * @param to   The last night, exclusive.
+     * @return The reservations, ordered by check-in.
+     */
+    public List<Reservation> findOverlapping(int from, int to) {
+        List<IntervalTree.Entry<Reservation>> entries = new ArrayList<>();
+        stays.findOverlapping(from, to, entries);
+
+        List<Reservation> result = new ArrayList<>(entries.size());
+        for (IntervalTree.Entry<Reservation> entry : entries) {
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Finds the reservations whose whole stay lies within [from, to): checking in on or after
+     * from and checking out on or before to.
+     *
+     * @param from The first night, inclusive.
+     * @param to   The last check-out date, inclusive.
+     * @return The reservations, ordered by check-in.
+     */
+    public List<Reservation> findContained(int from, int to) {
+        List<IntervalTree.Entry<Reservation>> entries = new ArrayList<>();
+        stays.findContained(from, to, entries);
+
+        List<Reservation> result = new ArrayList<>(entries.size());
+        for (IntervalTree.Entry<Reservation> entry : entries) {
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Finds the reservations checking in on a day.
+     *
+     * @param date The day.
+     * @return The arriving reservations, ordered by check-out.
+     */
+    public List<Reservation> findArrivals(int date) {
+        if (date < 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(byCheckIn.subMap(checkInKey(date, 0, 0), checkInKey(date + 1, 0, 0)).values());
+    }
+
+    /**
+     * Finds the reservations checking out on a day.
+     *
+     * @param date The day.
+     * @return The departing reservations, in the order they were indexed.
+     */
+    public List<Reservation> findDepartures(int date) {
+        if (date < 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(byCheckOut.subMap(checkOutKey(date, 0), checkOutKey(date + 1, 0)).values());
+    }
+
+    /**
+     * Iterates over every indexed reservation in order of check-in, then check-out, without
+     * copying them. The iterator never fails because of concurrent changes; reservations
+     * added or removed while iterating may or may not be visited.
+     *
+     * @return A read-only iterator over the reservations.
+     */
+    @Override
+    public Iterator<Reservation> iterator() {
+        return Collections.unmodifiableCollection(byCheckIn.values()).iterator();
+    }
+
+    /**
+     * Gets the number of indexed reservations.
+     *
+     * @return The size of the index.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Packs check-in, check-out and sequence into a key that sorts in that order.
+     *
+     * @param checkIn  The check-in date.
+     * @param checkOut The check-out date.
+     * @param sequence The sequence number.
+     * @return The key.
+     */
+    private static long checkInKey(int checkIn, int checkOut, long sequence) {
+        return ((long) checkIn << (DATE_BITS + SEQUENCE_BITS)) | ((long) checkOut << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Packs check-out and sequence into a key that sorts in that order.
+     *
+     * @param checkOut The check-out date.
+     * @param sequence The sequence number.
+     * @return The key.
+     */
+    private static long checkOutKey(int checkOut, long sequence) {
+        return ((long) checkOut << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Listens for reservations being made and cancelled in a {@link Hotel}.
+ * Listeners are called on the thread that changed the hotel, right after the change.
+ */
+public interface ReservationListener {
+    /**
+     * Called after a reservation was made.
+     *
+     * @param reservation The new reservation.
+     */
+    void reservationCreated(Reservation reservation);
+
+    /**
+     * Called after a reservation was cancelled.
+     *
+     * @param reservation The cancelled reservation.
+     */
+    void reservationCancelled(Reservation reservation);
+
+    /**
+     * Called after the hotel moved a reservation to another room of the same type.
+     * Listeners that do not care which room a reservation is in can ignore it.
+     *
+     * @param reservation The moved reservation, already in its new room.
+     * @param from        The room it was in before.
+     */
+    default void reservationMoved(Reservation reservation, Room from) {
+    }
+}
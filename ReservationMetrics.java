@@ -0,0 +1,100 @@
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Holds the metrics of the booking, cancellation, search and lookup operations of the
+ * hotel reservation system and publishes them as JMX MBeans under the
+ * "HotelReservationSystem:type=Operation" domain.
+ * <p>
+ * Instrumentation is on by default and can be switched off by starting the JVM with
+ * {@code -Dhrs.metrics=false}. The flag is a constant, so when it is off the JIT removes
+ * the instrumentation entirely.
+ */
+public final class ReservationMetrics {
+    /**
+     * Whether operations are being measured.
+     */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("hrs.metrics", "true"));
+
+    /**
+     * Metrics of {@link Hotel#createReservation}.
+     */
+    public static final OperationMetrics BOOKING = new OperationMetrics("createReservation");
+
+    /**
+     * Metrics of {@link Hotel#cancelReservation}.
+     */
+    public static final OperationMetrics CANCELLATION = new OperationMetrics("cancelReservation");
+
+    /**
+     * Metrics of {@link HotelReservationSystem#getAvailableRooms}.
+     */
+    public static final OperationMetrics ROOM_SEARCH = new OperationMetrics("getAvailableRooms");
+
+    /**
+     * Metrics of {@link HotelReservationSystem#getAvailableHotels}.
+     */
+    public static final OperationMetrics HOTEL_SEARCH = new OperationMetrics("getAvailableHotels");
+
+    /**
+     * Metrics of {@link Hotel#findReservation}.
+     */
+    public static final OperationMetrics RESERVATION_LOOKUP = new OperationMetrics("findReservation");
+
+    /**
+     * Metrics of the quote caches of every hotel; see {@link QuoteCache}.
+     */
+    public static final CacheMetrics QUOTE_CACHE = new CacheMetrics("quoteCache");
+
+    private static boolean registered; // Whether the MBeans were published already
+
+    /**
+     * Prevents instantiation; all metrics are static.
+     */
+    private ReservationMetrics() {
+    }
+
+    /**
+     * Gets the metrics of every instrumented operation.
+     *
+     * @return The metrics of every operation.
+     */
+    public static List<OperationMetrics> getAll() {
+        return List.of(BOOKING, CANCELLATION, ROOM_SEARCH, HOTEL_SEARCH, RESERVATION_LOOKUP);
+    }
+
+    /**
+     * Gets the time to pass to {@link OperationMetrics#record} once the operation finishes.
+     *
+     * @return The current value of {@link System#nanoTime()}, or 0 when metrics are disabled.
+     */
+    public static long startTimer() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Publishes the metrics of every operation to the platform MBean server.
+     * Does nothing when metrics are disabled or already published.
+     */
+    public static synchronized void registerMBeans() {
+        if (!ENABLED || registered) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (OperationMetrics metrics : getAll()) {
+                server.registerMBean(metrics,
+                        new ObjectName("HotelReservationSystem:type=Operation,name=" + metrics.getName()));
+            }
+            server.registerMBean(QUOTE_CACHE,
+                    new ObjectName("HotelReservationSystem:type=Cache,name=" + QUOTE_CACHE.getName()));
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("Could not publish reservation metrics: " + e.getMessage());
+        }
+    }
+}
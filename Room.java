@@ -1,27 +1,73 @@
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a room in a hotel.
  */
 public class Room {
+    public static final long DEFAULT_BASE_PRICE = 129_900; // Base price of a new room, in centavos (PHP 1,299.00)
+
     private final String name;                          // The name of the room
     private final RoomType type;                        // The type of the room
-    private double basePrice;                           // Base price of the room
+    private final int floor;                            // The floor the room is on
+    private final int number;                           // The numeric part of the room name (e.g., 305 for 305D)
+    private final int key;                              // Dense key of the room within its hotel, -1 if none
+    private long basePrice;                             // Base price of the room, in centavos
     private String status;                               // Status of the room (e.g., available, booked)
     private final ArrayList<Reservation> reservationsList; // List of reservations for the room
+    private final List<Reservation> reservationsView; // Read-only view of reservationsList handed to callers
+    private final int horizonDays;                      // Number of nights the room can be booked for
+    private final BitSet bookedNights;                  // Nights taken by a reservation, indexed by date
 
     /**
      * Constructs a new Room with the specified name and type.
+     * The room number and floor are read from the leading digits of the name.
      *
      * @param name The name of the room.
      * @param type The type of the room.
      */
     public Room(String name, RoomType type) {
+        this(name, type, leadingNumber(name) / 100, leadingNumber(name), 30);
+    }
+
+    /**
+     * Constructs a new Room with the specified name, type, floor, room number and calendar horizon.
+     *
+     * @param name        The name of the room.
+     * @param type        The type of the room.
+     * @param floor       The floor the room is on.
+     * @param number      The room number.
+     * @param horizonDays The number of nights the room can be booked for (dates 1 to horizonDays).
+     */
+    public Room(String name, RoomType type, int floor, int number, int horizonDays) {
+        this(name, type, floor, number, horizonDays, -1);
+    }
+
+    /**
+     * Constructs a new Room with the specified name, type, floor, room number, calendar horizon
+     * and key in its hotel's {@link RoomRegistry}.
+     *
+     * @param name        The name of the room.
+     * @param type        The type of the room.
+     * @param floor       The floor the room is on.
+     * @param number      The room number.
+     * @param horizonDays The number of nights the room can be booked for (dates 1 to horizonDays).
+     * @param key         The dense key of the room within its hotel.
+     */
+    public Room(String name, RoomType type, int floor, int number, int horizonDays, int key) {
         this.name = name;
-        this.basePrice = 1299.0; // Default base price for the room
+        this.key = key;
+        this.floor = floor;
+        this.number = number;
+        this.horizonDays = horizonDays;
+        this.bookedNights = new BitSet(horizonDays + 1);
+        this.basePrice = DEFAULT_BASE_PRICE; // Default base price for the room
         this.status = "Available for booking"; // Initial status of the room
         this.type = type;
         this.reservationsList = new ArrayList<>(); // Initialize the list of reservations
+        this.reservationsView = Collections.unmodifiableList(reservationsList);
     }
 
     /**
@@ -32,39 +78,90 @@ public class Room {
      * @return true if the room is available, false otherwise.
      */
     public boolean isAvailableToReserve(int checkInDate, int checkOutDate) {
-        // Check if the reservation dates overlap with any existing reservation
-        for (Reservation reservation : reservationsList) {
-            if (checkInDate < reservation.getCheckOutDate() && checkOutDate > reservation.getCheckInDate()) {
-                return false; // Room is not available due to overlapping reservation
-            }
-        }
-        return true; // Room is available for the specified dates
+        // The room is free if no booked night falls between check-in and the night before check-out
+        int firstBookedNight = bookedNights.nextSetBit(Math.max(0, checkInDate));
+        return firstBookedNight == -1 || firstBookedNight >= checkOutDate;
     }
 
     /**
      * Updates the status of the room based on its reservation availability.
      */
     public void updateStatus() {
-        boolean fullyBooked = true; // Assume room is fully booked unless found available
-        for (int date = 1; date < 31; date++) { // Check for availability in a month
-            // Check if the room is available for any day in the month
-            if (isAvailableToReserve(date, date + 1)) {
-                fullyBooked = false; // Found at least one available day
-                break; // No need to check further
-            }
+        // The room is fully booked when the first free night lies past the calendar horizon
+        boolean fullyBooked = bookedNights.nextClearBit(1) > horizonDays;
+        this.status = fullyBooked ? "Fully booked" : "Available for booking";
+    }
+
+    /**
+     * Adds a reservation to the room and marks its nights as booked.
+     * The caller is responsible for checking that the nights were free.
+     *
+     * @param reservation The reservation to add.
+     */
+    void addReservation(Reservation reservation) {
+        reservation.setRoomSlot(reservationsList.size());
+        reservationsList.add(reservation);
+        bookedNights.set(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        updateStatus();
+    }
+
+    /**
+     * Removes a reservation from the room and frees its nights. The reservation is found
+     * through its slot handle and the room's latest reservation is moved into its place, so
+     * removal takes the same time however many reservations the room has.
+     *
+     * @param reservation The reservation to remove.
+     * @return true if the reservation belonged to the room, false otherwise.
+     */
+    boolean removeReservation(Reservation reservation) {
+        int slot = reservation.getRoomSlot();
+        if (slot < 0 || slot >= reservationsList.size() || reservationsList.get(slot) != reservation) {
+            return false; // Not a reservation of this room
         }
-        // Update status based on availability
-        if (fullyBooked) {
-            this.status = "Fully booked"; // Update status if the room is fully booked
+        Reservation last = reservationsList.remove(reservationsList.size() - 1);
+        if (last != reservation) {
+            reservationsList.set(slot, last); // Fill the gap with the latest reservation
+            last.setRoomSlot(slot);
         }
+        reservation.setRoomSlot(-1);
+        bookedNights.clear(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        updateStatus();
+        return true;
+    }
+
+    /**
+     * Gets a copy of the nights taken by a reservation, indexed by date.
+     *
+     * @return The booked nights; changing the copy does not affect the room.
+     */
+    BitSet copyBookedNights() {
+        return (BitSet) bookedNights.clone();
+    }
+
+    /**
+     * Gets the number of nights the room can be booked for.
+     *
+     * @return The calendar horizon in days.
+     */
+    public int getHorizonDays() {
+        return horizonDays;
     }
 
     /**
      * Sets the base price for the room.
      *
-     * @param basePrice The base price to set.
+     * @param basePrice The base price to set, in pesos; rounded to the nearest centavo.
      */
     public void setBasePrice(double basePrice) {
+        setBasePriceCentavos(Money.toCentavos(basePrice));
+    }
+
+    /**
+     * Sets the base price for the room.
+     *
+     * @param basePrice The base price to set, in centavos.
+     */
+    public void setBasePriceCentavos(long basePrice) {
         this.basePrice = basePrice; // Update the base price of the room
     }
 
@@ -77,13 +174,64 @@ public class Room {
         return name; // Return the room name
     }
 
+    /**
+     * Gets the dense key of the room within its hotel. Keys run from 0 to the room capacity
+     * of the hotel and can index arrays kept per room.
+     *
+     * @return The key of the room, or -1 if the room was not created by a hotel.
+     */
+    public int getKey() {
+        return key; // Return the room key
+    }
+
+    /**
+     * Gets the floor the room is on.
+     *
+     * @return The floor number.
+     */
+    public int getFloor() {
+        return floor; // Return the floor number
+    }
+
+    /**
+     * Gets the room number, which is the name without the room type initial.
+     *
+     * @return The room number.
+     */
+    public int getNumber() {
+        return number; // Return the room number
+    }
+
+    /**
+     * Reads the number at the start of a room name.
+     *
+     * @param name The room name.
+     * @return The leading number, or 0 if the name does not start with a digit.
+     */
+    private static int leadingNumber(String name) {
+        int number = 0;
+        for (int i = 0; i < name.length() && Character.isDigit(name.charAt(i)); i++) {
+            number = number * 10 + (name.charAt(i) - '0');
+        }
+        return number;
+    }
+
     /**
      * Gets the base price of the room.
      *
-     * @return The base price of the room.
+     * @return The base price of the room, in pesos.
      */
     public double getBasePrice() {
-        return basePrice; // Return the base price
+        return Money.toPesos(basePrice); // Return the base price
+    }
+
+    /**
+     * Gets the base price of the room.
+     *
+     * @return The base price of the room, in centavos.
+     */
+    public long getBasePriceCentavos() {
+        return basePrice;
     }
 
     /**
@@ -105,35 +253,45 @@ public class Room {
     }
 
     /**
-     * Gets the list of reservations for the room.
+     * Gets the list of reservations for the room, in booking order except that a removal moves
+     * the latest reservation into the removed one's place. A new reservation is always last.
      *
-     * @return The list of reservations.
+     * @return A read-only view of the reservations that follows later changes.
      */
-    public ArrayList<Reservation> getReservationsList() {
-        return reservationsList; // Return the list of reservations
+    public List<Reservation> getReservationsList() {
+        return reservationsView; // Return the view, not the list itself
     }
 
     /**
      * Enum representing the type of room.
      */
     public enum RoomType {
-        STANDARD(1.0),
-        DELUXE(1.2),
-        EXECUTIVE(1.35);
+        STANDARD(10_000),
+        DELUXE(12_000),
+        EXECUTIVE(13_500);
 
-        private final double priceMultiplier; // Multiplier for calculating the room price based on type
+        private final int priceMultiplier; // Multiplier for calculating the room price based on type, in basis points
 
-        RoomType(double priceMultiplier) {
+        RoomType(int priceMultiplier) {
             this.priceMultiplier = priceMultiplier; // Initialize price multiplier
         }
 
         /**
          * Gets the rate at which the base price is multiplied for the room type.
          *
-         * @return The price multiplier.
+         * @return The price multiplier, e.g. 1.2 for 120%.
          */
         public double getPriceMultiplier() {
-            return priceMultiplier; // Return the price multiplier for the room type
+            return Money.toRate(priceMultiplier); // Return the price multiplier for the room type
+        }
+
+        /**
+         * Gets the rate at which the base price is multiplied for the room type.
+         *
+         * @return The price multiplier in basis points, e.g. 12,000 for 120%.
+         */
+        public int getPriceMultiplierBasisPoints() {
+            return priceMultiplier;
         }
     }
 }
@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reassigns upcoming reservations between rooms of the same type so that free nights are
+ * gathered into long stretches instead of being left in one- and two-night gaps.
+ * <p>
+ * Reservations that start within a window after the current date may be moved; everything
+ * else stays where it is. The movable reservations are placed again in order of check-in,
+ * each into the room where it fits with the smallest free gap in front of it (a best-fit
+ * colouring of the interval graph), so stays are packed end to end. The new assignment is
+ * only kept if every reservation found a room and fewer nights are stranded in short gaps.
+ * The work of a run is bounded by the size of the window, so it can be run often.
+ */
+public class RoomAssignmentOptimizer {
+    public static final int SHORT_GAP_NIGHTS = 2; // Gaps of this many nights or fewer count as unsellable
+
+    private final int today;        // Last date that has already started; earlier stays are never moved
+    private final int windowEnd;    // First check-in date that is no longer moved
+    private final int horizonDays;  // Last bookable night
+
+    /**
+     * A planned change of room for one reservation.
+     */
+    static final class Move {
+        final Reservation reservation; // The reservation to move
+        final Room source;             // The room it is in when the move is planned
+        final Room target;             // The room it moves to
+
+        /**
+         * Constructs a Move from the reservation's current room.
+         *
+         * @param reservation The reservation to move.
+         * @param target      The room it moves to.
+         */
+        Move(Reservation reservation, Room target) {
+            this.reservation = reservation;
+            this.source = reservation.getRoom();
+            this.target = target;
+        }
+    }
+
+    /**
+     * The planned moves for one room type, with the stranded nights before and after.
+     */
+    static final class Plan {
+        final List<Move> moves;          // Reservations to move, empty if nothing improves
+        final int strandedNightsBefore;  // Nights in short gaps with the current assignment
+        final int strandedNightsAfter;   // Nights in short gaps once the moves are made
+
+        /**
+         * Constructs a Plan.
+         *
+         * @param moves                The moves.
+         * @param strandedNightsBefore The stranded nights with the current assignment.
+         * @param strandedNightsAfter  The stranded nights after the moves.
+         */
+        Plan(List<Move> moves, int strandedNightsBefore, int strandedNightsAfter) {
+            this.moves = moves;
+            this.strandedNightsBefore = strandedNightsBefore;
+            this.strandedNightsAfter = strandedNightsAfter;
+        }
+    }
+
+    /**
+     * Constructs a RoomAssignmentOptimizer.
+     *
+     * @param today       The current date; stays that start on or before it are never moved.
+     * @param windowDays  The number of days after today whose check-ins may be moved.
+     * @param horizonDays The last bookable night of the hotel.
+     */
+    public RoomAssignmentOptimizer(int today, int windowDays, int horizonDays) {
+        this.today = today;
+        this.windowEnd = today + 1 + windowDays;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Plans a better assignment for the reservations of a set of rooms of one type.
+     *
+     * @param rooms The rooms, all of the same type.
+     * @return The plan; its moves are empty if no better assignment was found.
+     */
+    Plan plan(List<Room> rooms) {
+        int roomCount = rooms.size();
+        BitSet[] occupied = new BitSet[roomCount];
+        List<Reservation> movable = new ArrayList<>();
+        List<Room> currentRooms = new ArrayList<>(); // Room each movable reservation is in now
+        int strandedBefore = 0;
+
+        // Start from the nights that stay put: everything except the movable reservations
+        for (int i = 0; i < roomCount; i++) {
+            Room room = rooms.get(i);
+            occupied[i] = room.copyBookedNights();
+            strandedBefore += strandedNights(occupied[i]);
+            for (Reservation reservation : room.getReservationsList()) {
+                if (reservation.getCheckInDate() > today && reservation.getCheckInDate() < windowEnd) {
+                    occupied[i].clear(reservation.getCheckInDate(), reservation.getCheckOutDate());
+                    movable.add(reservation);
+                    currentRooms.add(room);
+                }
+            }
+        }
+        if (movable.isEmpty()) {
+            return new Plan(List.of(), strandedBefore, strandedBefore);
+        }
+
+        // Place the movable reservations again, earliest check-in first and longer stays first on ties
+        Integer[] order = new Integer[movable.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> movable.get(i).getCheckInDate())
+                .thenComparingInt(i -> -movable.get(i).getCheckOutDate()));
+
+        List<Move> moves = new ArrayList<>();
+        for (int index : order) {
+            Reservation reservation = movable.get(index);
+            int checkIn = reservation.getCheckInDate();
+            int checkOut = reservation.getCheckOutDate();
+
+            int best = -1;
+            int bestGap = Integer.MAX_VALUE;
+            for (int i = 0; i < roomCount; i++) {
+                int nextBooked = occupied[i].nextSetBit(checkIn);
+                if (nextBooked != -1 && nextBooked < checkOut) {
+                    continue; // Does not fit
+                }
+                // Free nights left right before the stay; a stay that starts after "today" leaves no wall
+                int previousBooked = occupied[i].previousSetBit(checkIn - 1);
+                int gap = checkIn - 1 - Math.max(previousBooked, today);
+                boolean current = rooms.get(i) == currentRooms.get(index);
+                if (gap < bestGap || (gap == bestGap && current)) {
+                    best = i;
+                    bestGap = gap;
+                }
+            }
+            if (best == -1) {
+                return new Plan(List.of(), strandedBefore, strandedBefore); // Greedy ran out of room: keep what we have
+            }
+            occupied[best].set(checkIn, checkOut);
+            if (rooms.get(best) != currentRooms.get(index)) {
+                moves.add(new Move(reservation, rooms.get(best)));
+            }
+        }
+
+        int strandedAfter = 0;
+        for (BitSet nights : occupied) {
+            strandedAfter += strandedNights(nights);
+        }
+        if (strandedAfter >= strandedBefore) {
+            return new Plan(List.of(), strandedBefore, strandedBefore); // No gain, leave guests where they are
+        }
+        return new Plan(moves, strandedBefore, strandedAfter);
+    }
+
+    /**
+     * Counts the free nights after today that sit in a gap of at most {@link #SHORT_GAP_NIGHTS}
+     * nights with booked nights on both sides.
+     *
+     * @param occupied The booked nights of a room.
+     * @return The number of stranded nights.
+     */
+    private int strandedNights(BitSet occupied) {
+        int stranded = 0;
+        int night = occupied.nextSetBit(today + 1);
+        while (night != -1 && night <= horizonDays) {
+            int gapStart = occupied.nextClearBit(night);
+            int gapEnd = occupied.nextSetBit(gapStart); // First booked night after the gap
+            if (gapEnd == -1 || gapEnd > horizonDays) {
+                break; // The last gap runs to the end of the calendar
+            }
+            if (gapEnd - gapStart <= SHORT_GAP_NIGHTS) {
+                stranded += gapEnd - gapStart;
+            }
+            night = gapEnd;
+        }
+        return stranded;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * The outcome of a run of the {@link RoomAssignmentOptimizer}: how many reservations were
+ * moved and how many room-nights stuck in short, unsellable gaps were freed up.
+ */
+public class RoomAssignmentReport {
+    private final int movedReservations;    // Number of reservations moved to another room
+    private final int strandedNightsBefore; // Free nights in short gaps before the run
+    private final int strandedNightsAfter;  // Free nights in short gaps after the run
+
+    /**
+     * Constructs a RoomAssignmentReport.
+     *
+     * @param movedReservations    The number of reservations moved to another room.
+     * @param strandedNightsBefore The free nights in short gaps before the run.
+     * @param strandedNightsAfter  The free nights in short gaps after the run.
+     */
+    public RoomAssignmentReport(int movedReservations, int strandedNightsBefore, int strandedNightsAfter) {
+        this.movedReservations = movedReservations;
+        this.strandedNightsBefore = strandedNightsBefore;
+        this.strandedNightsAfter = strandedNightsAfter;
+    }
+
+    /**
+     * Gets the number of reservations moved to another room.
+     *
+     * @return The number of moved reservations.
+     */
+    public int getMovedReservations() {
+        return movedReservations;
+    }
+
+    /**
+     * Gets the number of free nights that were stuck in short gaps before the run.
+     *
+     * @return The stranded nights before the run.
+     */
+    public int getStrandedNightsBefore() {
+        return strandedNightsBefore;
+    }
+
+    /**
+     * Gets the number of free nights that are stuck in short gaps after the run.
+     *
+     * @return The stranded nights after the run.
+     */
+    public int getStrandedNightsAfter() {
+        return strandedNightsAfter;
+    }
+
+    /**
+     * Gets the number of room-nights the run joined into longer free stretches.
+     *
+     * @return The recovered room-nights.
+     */
+    public int getRecoveredRoomNights() {
+        return strandedNightsBefore - strandedNightsAfter;
+    }
+}
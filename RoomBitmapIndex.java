@@ -0,0 +1,252 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+
+/**
+ * Bitmap indexes over the rooms of a hotel, one bit per room key: one bitmap per room type
+ * and per named attribute (such as "sea-view" or "accessible"), and one bitmap per night of
+ * the rooms booked that night. A hotel gives the rooms of a floor consecutive keys, so a floor
+ * is kept as the range of keys its rooms hold rather than as a bitmap of its own.
+ * <p>
+ * A question such as "EXECUTIVE rooms on floors 3 to 5 free from the 2nd to the 6th" is
+ * answered by ANDing the type bitmap with the key ranges of the floors and every wanted
+ * attribute bitmap, then clearing the rooms booked on each night of the stay, 64 rooms per
+ * word and without looking at a single {@link Room}. Nights without a booking have no bitmap.
+ * <p>
+ * Updates and questions are made under the index's lock, so any thread may ask.
+ */
+public class RoomBitmapIndex {
+    private final int words;                                  // Longs in a bitmap, enough for every room key
+    private final long[] rooms;                               // Keys held by a room
+    private final EnumMap<Room.RoomType, long[]> byType;      // Rooms of each type
+    private int[] floorFirstKey;                              // Lowest key of each floor's rooms, -1 for floors without rooms
+    private int[] floorLastKey;                               // Highest key of each floor's rooms, -1 for floors without rooms
+    private final HashMap<String, long[]> byAttribute;        // Rooms with each attribute
+    private final long[][] bookedByNight;                     // Rooms booked each night, null for nights without bookings
+
+    /**
+     * Constructs an index with no rooms.
+     *
+     * @param roomCapacity The number of room keys of the hotel.
+     * @param horizonDays  The number of nights in the calendar.
+     */
+    public RoomBitmapIndex(int roomCapacity, int horizonDays) {
+        this.words = (roomCapacity + Long.SIZE - 1) / Long.SIZE;
+        this.rooms = new long[words];
+        this.byType = new EnumMap<>(Room.RoomType.class);
+        for (Room.RoomType type : Room.RoomType.values()) {
+            byType.put(type, new long[words]);
+        }
+        this.floorFirstKey = new int[0];
+        this.floorLastKey = new int[0];
+        this.byAttribute = new HashMap<>();
+        this.bookedByNight = new long[horizonDays + 1][];
+    }
+
+    /**
+     * Adds a new room, without attributes or bookings. The rooms of a floor must hold
+     * consecutive keys, with no room of another floor between them.
+     *
+     * @param room The room.
+     */
+    public synchronized void addRoom(Room room) {
+        int key = room.getKey();
+        set(rooms, key);
+        set(byType.get(room.getType()), key);
+        int floor = room.getFloor();
+        if (floor >= floorFirstKey.length) {
+            int known = floorFirstKey.length;
+            int floors = Math.max(floor + 1, 2 * known);
+            floorFirstKey = Arrays.copyOf(floorFirstKey, floors);
+            floorLastKey = Arrays.copyOf(floorLastKey, floors);
+            Arrays.fill(floorFirstKey, known, floors, -1); // Floors without rooms yet
+            Arrays.fill(floorLastKey, known, floors, -1);
+        }
+        if (floorFirstKey[floor] < 0 || key < floorFirstKey[floor]) {
+            floorFirstKey[floor] = key;
+        }
+        floorLastKey[floor] = Math.max(floorLastKey[floor], key);
+    }
+
+    /**
+     * Removes a room and its attributes. Only rooms without reservations are removed, so
+     * the night bitmaps hold nothing of it. The key range of its floor is left as it was;
+     * the room bitmaps no longer hold the key, so no search finds it.
+     *
+     * @param room The room.
+     */
+    public synchronized void removeRoom(Room room) {
+        int key = room.getKey();
+        clear(rooms, key);
+        clear(byType.get(room.getType()), key);
+        for (long[] bitmap : byAttribute.values()) {
+            clear(bitmap, key);
+        }
+    }
+
+    /**
+     * Gives a room an attribute or takes it away.
+     *
+     * @param room      The room.
+     * @param attribute The attribute, e.g. "sea-view".
+     * @param value     true to give the room the attribute, false to take it away.
+     */
+    public synchronized void setAttribute(Room room, String attribute, boolean value) {
+        if (value) {
+            set(byAttribute.computeIfAbsent(attribute, name -> new long[words]), room.getKey());
+        } else if (byAttribute.containsKey(attribute)) {
+            clear(byAttribute.get(attribute), room.getKey());
+        }
+    }
+
+    /**
+     * Checks whether a room has an attribute.
+     *
+     * @param room      The room.
+     * @param attribute The attribute.
+     * @return true if the room has the attribute, false otherwise.
+     */
+    public synchronized boolean hasAttribute(Room room, String attribute) {
+        long[] bitmap = byAttribute.get(attribute);
+        return bitmap != null && (bitmap[room.getKey() / Long.SIZE] & (1L << room.getKey())) != 0;
+    }
+
+    /**
+     * Marks a room booked on every night of a stay.
+     *
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    public synchronized void book(Room room, int checkInDate, int checkOutDate) {
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            if (bookedByNight[night] == null) {
+                bookedByNight[night] = new long[words];
+            }
+            set(bookedByNight[night], room.getKey());
+        }
+    }
+
+    /**
+     * Marks a room free on every night of a stay.
+     *
+     * @param room         The room.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    public synchronized void release(Room room, int checkInDate, int checkOutDate) {
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            clear(bookedByNight[night], room.getKey());
+        }
+    }
+
+    /**
+     * Finds the rooms that match every given attribute and are free on every night of a stay.
+     *
+     * @param type         The room type, or null for any type.
+     * @param minFloor     The lowest floor.
+     * @param maxFloor     The highest floor.
+     * @param attributes   The attributes every room must have.
+     * @param checkInDate  The check-in date (1 to the calendar horizon).
+     * @param checkOutDate The check-out date (after check-in, at most the day after the horizon).
+     * @return The keys of the matching rooms, empty if the dates are outside the calendar.
+     */
+    public synchronized BitSet find(Room.RoomType type, int minFloor, int maxFloor, Collection<String> attributes,
+                                    int checkInDate, int checkOutDate) {
+        if (checkInDate < 1 || checkOutDate > bookedByNight.length || checkInDate >= checkOutDate) {
+            return new BitSet();
+        }
+
+        long[] matches = (type == null ? rooms : byType.get(type)).clone();
+
+        long[] floors = new long[words];
+        for (int floor = Math.max(0, minFloor); floor <= maxFloor && floor < floorFirstKey.length; floor++) {
+            if (floorFirstKey[floor] >= 0) {
+                setRange(floors, floorFirstKey[floor], floorLastKey[floor] + 1);
+            }
+        }
+        and(matches, floors);
+
+        for (String attribute : attributes) {
+            long[] bitmap = byAttribute.get(attribute);
+            if (bitmap == null) {
+                return new BitSet(); // No room has the attribute
+            }
+            and(matches, bitmap);
+        }
+
+        for (int night = checkInDate; night < checkOutDate; night++) {
+            if (bookedByNight[night] != null) {
+                andNot(matches, bookedByNight[night]);
+            }
+        }
+        return BitSet.valueOf(matches);
+    }
+
+    /**
+     * Sets the bit of a room key.
+     *
+     * @param bitmap The bitmap.
+     * @param key    The room key.
+     */
+    private static void set(long[] bitmap, int key) {
+        bitmap[key / Long.SIZE] |= 1L << key; // Shifts use the low 6 bits of the key
+    }
+
+    /**
+     * Sets the bits of a range of room keys, a word at a time.
+     *
+     * @param bitmap The bitmap.
+     * @param from   The first room key, inclusive.
+     * @param to     The last room key, exclusive; greater than from.
+     */
+    private static void setRange(long[] bitmap, int from, int to) {
+        int first = from / Long.SIZE;
+        int last = (to - 1) / Long.SIZE;
+        long firstMask = -1L << from; // Keys from the start of the range on, within its first word
+        long lastMask = -1L >>> -to;  // Keys before the end of the range, within its last word
+        if (first == last) {
+            bitmap[first] |= firstMask & lastMask;
+            return;
+        }
+        bitmap[first] |= firstMask;
+        Arrays.fill(bitmap, first + 1, last, -1L);
+        bitmap[last] |= lastMask;
+    }
+
+    /**
+     * Clears the bit of a room key.
+     *
+     * @param bitmap The bitmap.
+     * @param key    The room key.
+     */
+    private static void clear(long[] bitmap, int key) {
+        bitmap[key / Long.SIZE] &= ~(1L << key);
+    }
+
+    /**
+     * Keeps only the bits also set in another bitmap.
+     *
+     * @param into  The bitmap to change.
+     * @param other The other bitmap.
+     */
+    private static void and(long[] into, long[] other) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] &= other[i];
+        }
+    }
+
+    /**
+     * Clears the bits set in another bitmap.
+     *
+     * @param into  The bitmap to change.
+     * @param other The other bitmap.
+     */
+    private static void andNot(long[] into, long[] other) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] &= ~other[i];
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Keeps the rooms of a hotel by dense numeric key and by name.
+ * <p>
+ * Every room gets a key from 0 up to the room capacity of the hotel. Keys of removed rooms
+ * are handed out again, lowest first, so the keys stay dense and can index plain arrays.
+ * Finding a room by key is an array access and finding it by name is one hash lookup.
+ */
+public class RoomRegistry {
+    private Room[] roomsByKey;                        // Rooms indexed by their key, null for free keys
+    private final BitSet usedKeys;                    // Keys currently held by a room
+    private final HashMap<String, Integer> keysByName; // Key of each room, by room name
+    private final int capacity;                       // Number of keys that can be handed out
+
+    /**
+     * Constructs an empty RoomRegistry.
+     *
+     * @param capacity The maximum number of rooms that can be registered at once.
+     */
+    public RoomRegistry(int capacity) {
+        this.capacity = capacity;
+        this.roomsByKey = new Room[Math.min(capacity, 64)];
+        this.usedKeys = new BitSet(capacity);
+        this.keysByName = new HashMap<>();
+    }
+
+    /**
+     * Gets the lowest free key for a room that is about to be created.
+     * The key stays free until the room is registered with {@link #register(Room)}.
+     *
+     * @return The key, or -1 if the registry is full.
+     */
+    public int nextFreeKey() {
+        int key = usedKeys.nextClearBit(0);
+        return key < capacity ? key : -1;
+    }
+
+    /**
+     * Registers a room under its key and name.
+     *
+     * @param room The room; its key must be free and its name unused.
+     * @throws IllegalArgumentException If the key is out of range or taken, or the name is taken.
+     */
+    public void register(Room room) {
+        int key = room.getKey();
+        if (key < 0 || key >= capacity || usedKeys.get(key)) {
+            throw new IllegalArgumentException("Room key " + key + " is not free");
+        }
+        if (keysByName.putIfAbsent(room.getName(), key) != null) {
+            throw new IllegalArgumentException("Room name " + room.getName() + " is already taken");
+        }
+        if (key >= roomsByKey.length) {
+            roomsByKey = Arrays.copyOf(roomsByKey, Math.min(capacity, Math.max(key + 1, roomsByKey.length * 2)));
+        }
+        roomsByKey[key] = room;
+        usedKeys.set(key);
+    }
+
+    /**
+     * Removes a room from the registry, freeing its key and name.
+     *
+     * @param room The room to remove.
+     * @return true if the room was registered, false otherwise.
+     */
+    public boolean unregister(Room room) {
+        if (get(room.getKey()) != room) {
+            return false; // Not one of our rooms
+        }
+        roomsByKey[room.getKey()] = null;
+        usedKeys.clear(room.getKey());
+        keysByName.remove(room.getName());
+        return true;
+    }
+
+    /**
+     * Gets the room holding a key.
+     *
+     * @param key The key of the room.
+     * @return The room, or null if no room holds the key.
+     */
+    public Room get(int key) {
+        return key >= 0 && key < roomsByKey.length ? roomsByKey[key] : null;
+    }
+
+    /**
+     * Gets the key of the room with a name.
+     *
+     * @param name The name of the room.
+     * @return The key of the room, or -1 if no room has that name.
+     */
+    public int getKey(String name) {
+        Integer key = keysByName.get(name);
+        return key != null ? key : -1;
+    }
+
+    /**
+     * Finds a room by name.
+     *
+     * @param name The name of the room.
+     * @return The room, or null if no room has that name.
+     */
+    public Room find(String name) {
+        return get(getKey(name));
+    }
+
+    /**
+     * Checks whether a room is registered here.
+     *
+     * @param room The room.
+     * @return true if the room holds its key in this registry, false otherwise.
+     */
+    public boolean contains(Room room) {
+        return get(room.getKey()) == room;
+    }
+
+    /**
+     * Gets the number of registered rooms.
+     *
+     * @return The number of rooms.
+     */
+    public int size() {
+        return keysByName.size();
+    }
+
+    /**
+     * Gets the number of keys that can be handed out, which is also one more than the highest key.
+     *
+     * @return The key capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,177 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The RoomRemovalView class is the panel shown when removing rooms from a hotel.
+ * Rooms are narrowed down with filters on type, floor and room number, and the
+ * matching rooms are listed one page at a time in a list that only renders the
+ * rows that are visible.
+ */
+@SuppressWarnings("serial")
+public class RoomRemovalView extends JPanel {
+    private final JComboBox<String> typeComboBox; // Combo box for filtering by room type
+    private final JTextField floorFromField; // Text field for the lowest floor to list
+    private final JTextField floorToField; // Text field for the highest floor to list
+    private final JTextField numberFromField; // Text field for the lowest room number to list
+    private final JTextField numberToField; // Text field for the highest room number to list
+    private final JButton applyFilterButton; // Button to apply the filters
+    private final JList<String> roomList; // List of the rooms on the current page
+    private final JButton previousPageButton; // Button to show the previous page
+    private final JButton nextPageButton; // Button to show the next page
+    private final JLabel pageLabel; // Label showing the current page and number of matches
+    private final JCheckBox selectAllMatchingCheckBox; // Check box to remove every matching room
+
+    /**
+     * Constructs the RoomRemovalView and initializes the GUI components.
+     */
+    public RoomRemovalView() {
+        setLayout(new BorderLayout(5, 5));
+
+        // Create filter components
+        typeComboBox = new JComboBox<>(new String[]{"ANY", "STANDARD", "DELUXE", "EXECUTIVE"});
+        floorFromField = new JTextField(4);
+        floorToField = new JTextField(4);
+        numberFromField = new JTextField(5);
+        numberToField = new JTextField(5);
+        applyFilterButton = new JButton("Filter");
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Type:"));
+        filterPanel.add(typeComboBox);
+        filterPanel.add(new JLabel("Floors:"));
+        filterPanel.add(floorFromField);
+        filterPanel.add(new JLabel("to"));
+        filterPanel.add(floorToField);
+        filterPanel.add(new JLabel("Rooms:"));
+        filterPanel.add(numberFromField);
+        filterPanel.add(new JLabel("to"));
+        filterPanel.add(numberToField);
+        filterPanel.add(applyFilterButton);
+        add(filterPanel, BorderLayout.NORTH);
+
+        // Create the room list; a fixed cell size lets the list skip measuring every row
+        roomList = new JList<>();
+        roomList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        roomList.setLayoutOrientation(JList.VERTICAL_WRAP);
+        roomList.setVisibleRowCount(10);
+        roomList.setFixedCellWidth(70);
+        roomList.setFixedCellHeight(20);
+        JScrollPane scrollPane = new JScrollPane(roomList);
+        scrollPane.setPreferredSize(new Dimension(720, 230));
+        add(scrollPane, BorderLayout.CENTER);
+
+        // Create paging components
+        previousPageButton = new JButton("< Previous");
+        nextPageButton = new JButton("Next >");
+        pageLabel = new JLabel("", SwingConstants.CENTER);
+        selectAllMatchingCheckBox = new JCheckBox("Remove every matching room");
+
+        JPanel pagingPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        pagingPanel.add(previousPageButton);
+        pagingPanel.add(pageLabel);
+        pagingPanel.add(nextPageButton);
+        pagingPanel.add(selectAllMatchingCheckBox);
+        add(pagingPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Returns the combo box for filtering by room type.
+     *
+     * @return the room type combo box ("ANY" matches every type)
+     */
+    public JComboBox<String> getTypeComboBox() {
+        return typeComboBox;
+    }
+
+    /**
+     * Returns the text field for the lowest floor to list.
+     *
+     * @return the floor from text field
+     */
+    public JTextField getFloorFromField() {
+        return floorFromField;
+    }
+
+    /**
+     * Returns the text field for the highest floor to list.
+     *
+     * @return the floor to text field
+     */
+    public JTextField getFloorToField() {
+        return floorToField;
+    }
+
+    /**
+     * Returns the text field for the lowest room number to list.
+     *
+     * @return the room number from text field
+     */
+    public JTextField getNumberFromField() {
+        return numberFromField;
+    }
+
+    /**
+     * Returns the text field for the highest room number to list.
+     *
+     * @return the room number to text field
+     */
+    public JTextField getNumberToField() {
+        return numberToField;
+    }
+
+    /**
+     * Returns the button that applies the filters.
+     *
+     * @return the filter button
+     */
+    public JButton getApplyFilterButton() {
+        return applyFilterButton;
+    }
+
+    /**
+     * Returns the list showing the rooms of the current page.
+     *
+     * @return the room list
+     */
+    public JList<String> getRoomList() {
+        return roomList;
+    }
+
+    /**
+     * Returns the button that shows the previous page.
+     *
+     * @return the previous page button
+     */
+    public JButton getPreviousPageButton() {
+        return previousPageButton;
+    }
+
+    /**
+     * Returns the button that shows the next page.
+     *
+     * @return the next page button
+     */
+    public JButton getNextPageButton() {
+        return nextPageButton;
+    }
+
+    /**
+     * Returns the check box that selects every room matching the filters.
+     *
+     * @return the select all matching check box
+     */
+    public JCheckBox getSelectAllMatchingCheckBox() {
+        return selectAllMatchingCheckBox;
+    }
+
+    /**
+     * Shows the current page number and the number of matching rooms.
+     *
+     * @param page          The current page, starting at 1.
+     * @param pageCount     The number of pages.
+     * @param matchingRooms The number of rooms matching the filters.
+     */
+    public void setPageInfo(int page, int pageCount, int matchingRooms) {
+        pageLabel.setText("Page " + page + " of " + pageCount + " (" + matchingRooms + " rooms)");
+    }
+}
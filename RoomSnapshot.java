@@ -0,0 +1,164 @@
+import java.util.BitSet;
+
+/**
+ * An immutable, point-in-time view of a room: its price, status and reservations as they
+ * were when the snapshot was taken. Snapshots are made by the room's {@link Hotel} each time
+ * the room changes and are safe to read from any thread.
+ * <p>
+ * The booked nights are kept in a bitmap next to the reservations, so checking a stay reads
+ * a few words instead of walking the reservations. A change copies the bitmap of the changed
+ * room only; a published bitmap is never written again.
+ */
+public final class RoomSnapshot {
+    private final Room room;                                 // The live room, for its fixed name, type and key
+    private final long basePrice;                            // Base price of the room, in centavos
+    private final String status;                             // Status of the room
+    private final PersistentIntMap<Reservation> reservations; // Reservations of the room by check-in date
+    private final BitSet bookedNights;                       // Nights taken by a reservation, indexed by date; never changed
+
+    /**
+     * Constructs a RoomSnapshot.
+     *
+     * @param room         The room.
+     * @param basePrice    The base price of the room, in centavos.
+     * @param status       The status of the room.
+     * @param reservations The reservations of the room by check-in date.
+     * @param bookedNights The nights taken by the reservations, not changed afterwards.
+     */
+    private RoomSnapshot(Room room, long basePrice, String status, PersistentIntMap<Reservation> reservations,
+                         BitSet bookedNights) {
+        this.room = room;
+        this.basePrice = basePrice;
+        this.status = status;
+        this.reservations = reservations;
+        this.bookedNights = bookedNights;
+    }
+
+    /**
+     * Takes a snapshot of a room with no reservations.
+     *
+     * @param room The room.
+     * @return The snapshot.
+     */
+    static RoomSnapshot of(Room room) {
+        return new RoomSnapshot(room, room.getBasePriceCentavos(), room.getStatus(), PersistentIntMap.empty(),
+                new BitSet());
+    }
+
+    /**
+     * Returns a snapshot with a reservation added and the room's current status. The stays of
+     * a room never overlap, so no other reservation of the room has the same check-in date.
+     *
+     * @param reservation The new reservation.
+     * @return The changed snapshot.
+     */
+    RoomSnapshot withReservation(Reservation reservation) {
+        BitSet booked = (BitSet) bookedNights.clone();
+        booked.set(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        return new RoomSnapshot(room, basePrice, room.getStatus(),
+                reservations.put(reservation.getCheckInDate(), reservation), booked);
+    }
+
+    /**
+     * Returns a snapshot with a reservation removed and the room's current status.
+     *
+     * @param reservation The cancelled reservation.
+     * @return The changed snapshot, or this snapshot if the reservation is not in it.
+     */
+    RoomSnapshot withoutReservation(Reservation reservation) {
+        if (reservations.get(reservation.getCheckInDate()) != reservation) {
+            return this;
+        }
+        BitSet booked = (BitSet) bookedNights.clone();
+        booked.clear(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        return new RoomSnapshot(room, basePrice, room.getStatus(), reservations.remove(reservation.getCheckInDate()),
+                booked);
+    }
+
+    /**
+     * Returns a snapshot with a new base price.
+     *
+     * @param newBasePrice The new base price, in centavos.
+     * @return The changed snapshot.
+     */
+    RoomSnapshot withBasePrice(long newBasePrice) {
+        return new RoomSnapshot(room, newBasePrice, status, reservations, bookedNights);
+    }
+
+    /**
+     * Checks whether the room was free between the specified dates.
+     *
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return true if no reservation overlapped the stay, false otherwise.
+     */
+    public boolean isAvailableToReserve(int checkInDate, int checkOutDate) {
+        // The room was free if no booked night falls between check-in and the night before check-out
+        int firstBookedNight = bookedNights.nextSetBit(Math.max(0, checkInDate));
+        return firstBookedNight == -1 || firstBookedNight >= checkOutDate;
+    }
+
+    /**
+     * Gets the live room this snapshot was taken of. Its name, type and key never change;
+     * everything else should be read from the snapshot.
+     *
+     * @return The room.
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Gets the name of the room.
+     *
+     * @return The name of the room.
+     */
+    public String getName() {
+        return room.getName();
+    }
+
+    /**
+     * Gets the type of the room.
+     *
+     * @return The type of the room.
+     */
+    public Room.RoomType getType() {
+        return room.getType();
+    }
+
+    /**
+     * Gets the base price of the room.
+     *
+     * @return The base price, in pesos.
+     */
+    public double getBasePrice() {
+        return Money.toPesos(basePrice);
+    }
+
+    /**
+     * Gets the base price of the room.
+     *
+     * @return The base price, in centavos.
+     */
+    public long getBasePriceCentavos() {
+        return basePrice;
+    }
+
+    /**
+     * Gets the status of the room.
+     *
+     * @return The status.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the reservations of the room, in check-in order.
+     *
+     * @return The reservations.
+     */
+    public PersistentIntMap<Reservation> getReservations() {
+        return reservations;
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Counts a hotel's sellable rooms of each {@link Room.RoomType} on each night, so that
+ * "is any DELUXE free from the 10th to the 14th" is answered without looking at a room.
+ * <p>
+ * For each type the store keeps the number of rooms and a segment tree over the nights of the
+ * calendar holding how many rooms of the type are booked each night. A booking or cancellation
+ * adds to a range of nights and a question reads the busiest night of a range, both in
+ * O(log nights). Each node holds the busiest night of its range plus a pending addition for
+ * the whole range, which is never pushed down: the path from the root adds it back in.
+ * <p>
+ * Updates and questions are made under the inventory's lock, so a question never sees half of
+ * a booking and any thread may ask.
+ * <p>
+ * A positive count means every night of the stay has a free room of the type. The free
+ * nights may be spread over different rooms; {@link Hotel#optimizeRoomAssignments} gathers
+ * them into whole stays.
+ */
+public class RoomTypeInventory {
+    private final int nights;        // Number of nights in the calendar, from night 1
+    private final int[] rooms;       // Number of rooms of each type, indexed by ordinal
+    private final int[][] busiest;   // Busiest night of each node's range, without its ancestors' additions
+    private final int[][] pending;   // Rooms booked on every night of each node's range
+
+    /**
+     * Constructs an inventory with no rooms.
+     *
+     * @param horizonDays The number of nights in the calendar.
+     */
+    public RoomTypeInventory(int horizonDays) {
+        int types = Room.RoomType.values().length;
+        this.nights = horizonDays;
+        this.rooms = new int[types];
+        this.busiest = new int[types][4 * horizonDays];
+        this.pending = new int[types][4 * horizonDays];
+    }
+
+    /**
+     * Adds rooms of a type, or removes them with a negative count. Only rooms without
+     * reservations are ever removed, so the booked counts are unchanged.
+     *
+     * @param type  The room type.
+     * @param count The number of rooms added.
+     */
+    public synchronized void addRooms(Room.RoomType type, int count) {
+        rooms[type.ordinal()] += count;
+    }
+
+    /**
+     * Counts a new reservation on every night of its stay.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    public synchronized void book(Room.RoomType type, int checkInDate, int checkOutDate) {
+        add(type.ordinal(), 1, 0, nights - 1, checkInDate - 1, checkOutDate - 2, 1);
+    }
+
+    /**
+     * Stops counting a cancelled reservation.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     */
+    public synchronized void release(Room.RoomType type, int checkInDate, int checkOutDate) {
+        add(type.ordinal(), 1, 0, nights - 1, checkInDate - 1, checkOutDate - 2, -1);
+    }
+
+    /**
+     * Gets the number of rooms of a type free on every night of a stay.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date (1 to the calendar horizon).
+     * @param checkOutDate The check-out date (after check-in, at most the day after the horizon).
+     * @return The smallest number of free rooms of the type on any night of the stay, or 0
+     * if the dates are outside the calendar.
+     */
+    public synchronized int getAvailable(Room.RoomType type, int checkInDate, int checkOutDate) {
+        if (checkInDate < 1 || checkOutDate > nights + 1 || checkInDate >= checkOutDate) {
+            return 0;
+        }
+        int t = type.ordinal();
+        return rooms[t] - max(t, 1, 0, nights - 1, checkInDate - 1, checkOutDate - 2);
+    }
+
+    /**
+     * Gets the number of rooms of a type.
+     *
+     * @param type The room type.
+     * @return The number of rooms.
+     */
+    public synchronized int getRoomCount(Room.RoomType type) {
+        return rooms[type.ordinal()];
+    }
+
+    /**
+     * Adds to the booked count of every night of a range.
+     *
+     * @param t      The room type ordinal.
+     * @param node   The node covering nights low to high (0-based).
+     * @param low    The first night of the node.
+     * @param high   The last night of the node.
+     * @param from   The first night to add to.
+     * @param to     The last night to add to.
+     * @param change The number to add.
+     */
+    private void add(int t, int node, int low, int high, int from, int to, int change) {
+        if (from <= low && high <= to) {
+            busiest[t][node] += change;
+            pending[t][node] += change;
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (from <= middle) {
+            add(t, 2 * node, low, middle, from, to, change);
+        }
+        if (to > middle) {
+            add(t, 2 * node + 1, middle + 1, high, from, to, change);
+        }
+        busiest[t][node] = Math.max(busiest[t][2 * node], busiest[t][2 * node + 1]) + pending[t][node];
+    }
+
+    /**
+     * Finds the busiest night of a range.
+     *
+     * @param t    The room type ordinal.
+     * @param node The node covering nights low to high (0-based).
+     * @param low  The first night of the node.
+     * @param high The last night of the node.
+     * @param from The first night of the range.
+     * @param to   The last night of the range.
+     * @return The most rooms booked on any night of the range.
+     */
+    private int max(int t, int node, int low, int high, int from, int to) {
+        if (from <= low && high <= to) {
+            return busiest[t][node];
+        }
+        int middle = (low + high) >>> 1;
+        int most = Integer.MIN_VALUE;
+        if (from <= middle) {
+            most = max(t, 2 * node, low, middle, from, to);
+        }
+        if (to > middle) {
+            most = Math.max(most, max(t, 2 * node + 1, middle + 1, high, from, to));
+        }
+        return most + pending[t][node];
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * The portable {@link QuoteKernel}: one room and one night at a time.
+ */
+final class ScalarQuoteKernel implements QuoteKernel {
+    private static final long DIVISOR = (long) Money.BASIS_POINTS * Money.BASIS_POINTS; // Rates carry two factors of basis points
+
+    @Override
+    public void quote(long[] roomRates, int[] modifiers, int nights, long[] prices, long[] totals) {
+        int rooms = roomRates.length;
+        // Night by night, so that every row of both tables is read and written front to back
+        for (int night = 1; night <= nights; night++) {
+            quoteNight(roomRates, modifiers[night], rooms, prices, totals, (night - 1) * rooms, 0);
+        }
+    }
+
+    /**
+     * Fills one night's row of both tables from a given room on. The vectorized kernel uses
+     * it for the rooms left over after its last full vector.
+     *
+     * @param roomRates The rate of each room.
+     * @param modifier  The night's price modifier in basis points.
+     * @param rooms     The number of rooms.
+     * @param prices    The price table.
+     * @param totals    The running total table.
+     * @param row       The offset of the night's row in the price table, and of the previous night's in the totals.
+     * @param from      The first room to fill.
+     */
+    static void quoteNight(long[] roomRates, long modifier, int rooms, long[] prices, long[] totals, int row, int from) {
+        for (int room = from; room < rooms; room++) {
+            long price = Money.divideHalfEven(roomRates[room] * modifier, DIVISOR);
+            prices[row + room] = price;
+            totals[row + rooms + room] = totals[row + room] + price;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+}
@@ -1,3 +1,6 @@
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Controller for selecting a hotel from a list and performing operations on it.
  */
@@ -5,6 +8,7 @@ public class SelectHotelController {
     private final SelectHotelView view;            // The view associated with this controller
     private final SelectHotelModel model;          // The model holding hotel data
     private final MainMenuView mainMenuView;       // Reference to the main menu view
+    private final ViewRegistry viewRegistry;       // Screens reused across visits
 
     /**
      * Constructs a new SelectHotelController with the specified view and model.
@@ -12,35 +16,55 @@ public class SelectHotelController {
      * @param view The view associated with this controller.
      * @param model The model that contains hotel data.
      * @param mainMenuView The main menu view for navigation.
+     * @param viewRegistry The registry holding the hotel screens opened from this view.
      */
-    public SelectHotelController(SelectHotelView view, SelectHotelModel model, MainMenuView mainMenuView) {
+    public SelectHotelController(SelectHotelView view, SelectHotelModel model, MainMenuView mainMenuView,
+                                 ViewRegistry viewRegistry) {
         this.view = view;
         this.model = model;
         this.mainMenuView = mainMenuView;
+        this.viewRegistry = viewRegistry;
 
         // Initialize the view with the list of hotels
         populateHotelList();
 
         // Add action listeners to buttons for user interactions
-        this.view.getProceedButton().addActionListener(e -> proceed());
-        this.view.getBackButton().addActionListener(e -> goBackToMainMenu());
+        this.view.getProceedButton().addActionListener(e -> UiActionEvent.record("SelectHotel", "proceed", () -> proceed()));
+        this.view.getBackButton().addActionListener(e -> UiActionEvent.record("SelectHotel", "goBackToMainMenu", () -> goBackToMainMenu()));
+    }
+
+    /**
+     * Refreshes the hotel list and shows the view.
+     */
+    public void show() {
+        populateHotelList(); // Bring the list up to date with hotels added or removed since the last visit
+        view.setVisible(true);
     }
 
     /**
      * Populates the hotel combo box in the view with the available hotels from the model.
+     * Only the entries that changed since the last call are added or removed.
      */
     private void populateHotelList() {
-        view.getHotelComboBox().removeAllItems(); // Clear existing items in the combo box
+        List<String> hotelNames = new ArrayList<>();
+        for (Hotel hotel : model.getHotels()) {
+            hotelNames.add(hotel.getName());
+        }
+        ViewRegistry.syncComboBox(view.getHotelComboBox(), hotelNames); // Add hotels to the combo box
+
         if (model.hasHotels()) {
-            // Add hotels to the combo box
-            for (Hotel hotel : model.getHotels()) {
-                view.getHotelComboBox().addItem(hotel.getName());
-            }
+            view.setMessage("");
+            view.getProceedButton().setEnabled(true);
         } else {
             // No hotels available, inform the user and disable proceed button
             view.setMessage("No hotels available.");
             view.getProceedButton().setEnabled(false);
         }
+
+        // Forget the screens of hotels that have been removed
+        viewRegistry.<HotelInfoController>retainOwners("hotelInfo", model.getHotels(), HotelInfoController::close);
+        viewRegistry.<UpdateHotelAttributesController>retainOwners("updateHotelAttributes", model.getHotels(),
+                UpdateHotelAttributesController::close);
     }
 
     /**
@@ -75,18 +99,18 @@ public class SelectHotelController {
 
         if (selectedHotel != null) {
             if (view.getViewInformationOption().isSelected()) {
-                // Open the HotelInfoView with HotelInfoController
-                HotelInfoView hotelInfoView = new HotelInfoView(selectedHotel.getName());
-                HotelInfoModel hotelInfoModel = new HotelInfoModel(selectedHotel);
-                new HotelInfoController(hotelInfoView, hotelInfoModel, this, view);
-                hotelInfoView.setVisible(true); // Show hotel information view
+                // Open the HotelInfoView with HotelInfoController, built once per hotel
+                HotelInfoController hotelInfoController = viewRegistry.get("hotelInfo", selectedHotel,
+                        () -> new HotelInfoController(new HotelInfoView(selectedHotel.getName()),
+                                new HotelInfoModel(selectedHotel), this, view));
+                hotelInfoController.show(); // Show hotel information view
                 this.view.setVisible(false); // Hide the current view
             } else if (view.getUpdateAttributesOption().isSelected()) {
-                // Open the UpdateHotelAttributesView with UpdateHotelAttributesController
-                UpdateHotelAttributesView updateView = new UpdateHotelAttributesView(selectedHotel.getName());
-                UpdateHotelAttributesModel updateModel = new UpdateHotelAttributesModel(selectedHotel, model.getHrs());
-                new UpdateHotelAttributesController(updateView, updateModel, this, view);
-                updateView.setVisible(true); // Show update hotel attributes view
+                // Open the UpdateHotelAttributesView with UpdateHotelAttributesController, built once per hotel
+                UpdateHotelAttributesController updateController = viewRegistry.get("updateHotelAttributes", selectedHotel,
+                        () -> new UpdateHotelAttributesController(new UpdateHotelAttributesView(selectedHotel.getName()),
+                                new UpdateHotelAttributesModel(selectedHotel, model.getHrs()), this, view));
+                updateController.show(); // Show update hotel attributes view
                 this.view.setVisible(false); // Hide the current view
             }
         }
@@ -96,7 +120,7 @@ public class SelectHotelController {
      * Navigates back to the main menu and updates the hotel count display.
      */
     public void goBackToMainMenu() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         mainMenuView.setVisible(true); // Show the main menu
         mainMenuView.setHotelCount(model.getNumberOfOperatingHotels()); // Update hotel count display
     }
@@ -27,10 +27,10 @@ public class SelectHotelModel {
     /**
      * Retrieves the list of hotels managed by the hotel reservation system.
      *
-     * @return A list of hotels.
+     * @return An immutable, point-in-time list of hotels.
      */
     public List<Hotel> getHotels() {
-        return hrs.getHotelList(); // Return the list of hotels from the reservation system
+        return hrs.getHotelSnapshot(); // Return the published list of hotels from the reservation system
     }
 
     /**
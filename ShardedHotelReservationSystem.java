@@ -0,0 +1,446 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Runs the hotel reservation system with hotels partitioned across a number of shards.
+ * <p>
+ * Every shard owns a {@link HotelReservationSystem} holding its share of the hotels and a
+ * thread that is the only one ever to touch them. Work for a hotel is sent as a command to
+ * the shard that owns it through a bounded lock-free queue and runs there one command at a
+ * time, so bookings on different shards proceed in parallel without any lock on the data.
+ * Queries over all hotels, such as {@link #getAvailableHotels()}, are sent to every shard and
+ * the partial results are gathered when all shards have answered.
+ * <p>
+ * Every method returns a {@link CompletableFuture} that completes once the owning shard has
+ * run the command. Hotels, rooms and reservations handed out by this class still belong to
+ * their shard: they may be passed back into commands, but should only be read or changed
+ * from inside a command.
+ */
+public class ShardedHotelReservationSystem implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024; // Commands a shard can have waiting
+
+    private final Shard[] shards;                                  // The shards, each with its own thread
+    private final ConcurrentHashMap<String, Shard> shardsByName;   // Owning shard of each hotel, by lower-case name
+    private final ConcurrentHashMap<Hotel, Shard> shardsByHotel;   // Owning shard of each hotel
+
+    /**
+     * Constructs a ShardedHotelReservationSystem and starts its shard threads.
+     *
+     * @param shardCount    The number of shards.
+     * @param queueCapacity The number of commands each shard can have waiting before senders have to wait.
+     * @throws IllegalArgumentException If the shard count is not positive.
+     */
+    public ShardedHotelReservationSystem(int shardCount, int queueCapacity) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+        this.shards = new Shard[shardCount];
+        this.shardsByName = new ConcurrentHashMap<>();
+        this.shardsByHotel = new ConcurrentHashMap<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    /**
+     * Constructs a ShardedHotelReservationSystem with the default queue capacity.
+     *
+     * @param shardCount The number of shards.
+     */
+    public ShardedHotelReservationSystem(int shardCount) {
+        this(shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Adds a new hotel with the default capacity and calendar if no hotel has the name yet.
+     *
+     * @param hotelName The name of the hotel to be added.
+     * @return A future of true if the hotel is added, false otherwise.
+     */
+    public CompletableFuture<Boolean> addHotel(String hotelName) {
+        return addHotel(hotelName, Hotel.DEFAULT_MAX_ROOMS, Hotel.DEFAULT_ROOMS_PER_FLOOR, Hotel.DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Adds a new hotel with the given capacity and calendar if no hotel has the name yet.
+     * The hotel is placed on a shard picked from its name and stays there for good.
+     *
+     * @param hotelName     The name of the hotel to be added.
+     * @param maxRooms      The maximum number of rooms of the hotel.
+     * @param roomsPerFloor The number of rooms on each floor.
+     * @param horizonDays   The number of nights that can be booked.
+     * @return A future of true if the hotel is added, false otherwise.
+     */
+    public CompletableFuture<Boolean> addHotel(String hotelName, int maxRooms, int roomsPerFloor, int horizonDays) {
+        String key = nameKey(hotelName);
+        Shard shard = shards[Math.floorMod(key.hashCode(), shards.length)];
+
+        // Claim the name across all shards first; the shard itself only sees its own hotels
+        if (shardsByName.putIfAbsent(key, shard) != null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return shard.submit(hrs -> {
+            if (!hrs.addHotel(hotelName, maxRooms, roomsPerFloor, horizonDays)) {
+                shardsByName.remove(key, shard); // Invalid settings or name: give the name back
+                return false;
+            }
+            List<Hotel> hotels = hrs.getHotelList();
+            shardsByHotel.put(hotels.get(hotels.size() - 1), shard);
+            return true;
+        });
+    }
+
+    /**
+     * Updates the name of an existing hotel. The hotel stays on its shard.
+     *
+     * @param newHotelName The new name for the hotel.
+     * @param hotel        The hotel to be updated.
+     * @return A future of true if the hotel name is updated, false otherwise.
+     */
+    public CompletableFuture<Boolean> updateHotelName(String newHotelName, Hotel hotel) {
+        Shard shard = shardOf(hotel);
+        String key = nameKey(newHotelName);
+        if (shard == null || shardsByName.putIfAbsent(key, shard) != null) {
+            return CompletableFuture.completedFuture(false); // Unknown hotel, or the name is taken
+        }
+        return shard.submit(hrs -> {
+            String oldKey = nameKey(hotel.getName());
+            if (!hrs.updateHotelName(newHotelName, hotel)) {
+                shardsByName.remove(key, shard); // Invalid name: give it back
+                return false;
+            }
+            shardsByName.remove(oldKey, shard);
+            return true;
+        });
+    }
+
+    /**
+     * Removes a hotel if it has no active reservations.
+     *
+     * @param hotel The hotel to be removed.
+     * @return A future of true if the hotel is removed, false otherwise.
+     */
+    public CompletableFuture<Boolean> removeHotel(Hotel hotel) {
+        Shard shard = shardOf(hotel);
+        if (shard == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return shard.submit(hrs -> {
+            String key = nameKey(hotel.getName());
+            if (!hrs.removeHotel(hotel)) {
+                return false;
+            }
+            shardsByHotel.remove(hotel, shard);
+            shardsByName.remove(key, shard);
+            return true;
+        });
+    }
+
+    /**
+     * Runs a command against a hotel on the shard that owns it.
+     *
+     * @param hotel   The hotel.
+     * @param command The command, given the hotel.
+     * @param <T>     The type of the command's result.
+     * @return A future of the command's result.
+     * @throws IllegalArgumentException If the hotel does not belong to this system.
+     */
+    public <T> CompletableFuture<T> execute(Hotel hotel, Function<Hotel, T> command) {
+        Shard shard = shardOf(hotel);
+        if (shard == null) {
+            throw new IllegalArgumentException("Hotel is not part of this system");
+        }
+        return shard.submit(hrs -> command.apply(hotel));
+    }
+
+    /**
+     * Runs a command against the hotel with the given name on the shard that owns it.
+     *
+     * @param hotelName The name of the hotel, in any case.
+     * @param command   The command, given the hotel, or null if no hotel has the name.
+     * @param <T>       The type of the command's result.
+     * @return A future of the command's result.
+     */
+    public <T> CompletableFuture<T> execute(String hotelName, Function<Hotel, T> command) {
+        Shard shard = shardsByName.get(nameKey(hotelName));
+        if (shard == null) {
+            return CompletableFuture.completedFuture(command.apply(null));
+        }
+        return shard.submit(hrs -> {
+            for (Hotel hotel : hrs.getHotelList()) {
+                if (hotel.getName().equalsIgnoreCase(hotelName)) {
+                    return command.apply(hotel);
+                }
+            }
+            return command.apply(null); // Renamed or removed while the command was waiting
+        });
+    }
+
+    /**
+     * Creates a reservation for a guest in a room of a hotel.
+     *
+     * @param hotel        The hotel.
+     * @param guestName    The name of the guest.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @param room         The room to reserve.
+     * @param discountCode The discount code to apply.
+     * @return A future of true if the reservation was created, false otherwise.
+     */
+    public CompletableFuture<Boolean> createReservation(Hotel hotel, String guestName, int checkInDate, int checkOutDate,
+                                                        Room room, String discountCode) {
+        return execute(hotel, h -> h.createReservation(guestName, checkInDate, checkOutDate, room, discountCode));
+    }
+
+    /**
+     * Cancels a reservation on the shard of its hotel.
+     *
+     * @param reservation The reservation to cancel.
+     * @return A future of true if the reservation was cancelled, false otherwise.
+     */
+    public CompletableFuture<Boolean> cancelReservation(Reservation reservation) {
+        return execute(reservation.getHotel(), hotel -> hotel.cancelReservation(reservation));
+    }
+
+    /**
+     * Finds the rooms of a hotel that are free for a stay.
+     *
+     * @param hotel        The hotel to check for available rooms.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return A future of a read-only view of the available rooms, safe to read on any thread.
+     */
+    public CompletableFuture<Collection<Room>> getAvailableRooms(Hotel hotel, int checkInDate, int checkOutDate) {
+        Shard shard = shardOf(hotel);
+        if (shard == null) {
+            throw new IllegalArgumentException("Hotel is not part of this system");
+        }
+        return shard.submit(hrs -> hrs.getAvailableRooms(hotel, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Gets every hotel of the system, asking all shards at once.
+     *
+     * @return A future of the hotels, grouped by shard.
+     */
+    public CompletableFuture<List<Hotel>> getHotelList() {
+        return scatterGather(hrs -> new ArrayList<>(hrs.getHotelList()));
+    }
+
+    /**
+     * Gets the hotels that have at least one room that is not fully booked, asking all shards at once.
+     * Each shard records its part of the search in the metrics as a search of its own.
+     *
+     * @return A future of the available hotels, grouped by shard.
+     */
+    public CompletableFuture<List<Hotel>> getAvailableHotels() {
+        return scatterGather(HotelReservationSystem::getAvailableHotels);
+    }
+
+    /**
+     * Gets the hotels with a room of a type free on every night of a stay, asking all shards at once.
+     *
+     * @param type         The room type.
+     * @param checkInDate  The check-in date.
+     * @param checkOutDate The check-out date.
+     * @return A future of the available hotels, grouped by shard.
+     */
+    public CompletableFuture<List<Hotel>> getAvailableHotels(Room.RoomType type, int checkInDate, int checkOutDate) {
+        return scatterGather(hrs -> hrs.getAvailableHotels(type, checkInDate, checkOutDate));
+    }
+
+    /**
+     * Gets the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Stops the shard threads after they have run every command already sent to them.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        for (Shard shard : shards) {
+            shard.join();
+        }
+    }
+
+    /**
+     * Sends a query to every shard and concatenates the answers in shard order.
+     *
+     * @param query The query, run once on each shard; must return a collection the caller may read later.
+     * @param <T>   The type of the collection elements.
+     * @return A future of the combined answers.
+     */
+    private <T> CompletableFuture<List<T>> scatterGather(Function<HotelReservationSystem, Collection<T>> query) {
+        List<CompletableFuture<Collection<T>>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.submit(query));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<T> combined = new ArrayList<>();
+            for (CompletableFuture<Collection<T>> part : parts) {
+                combined.addAll(part.join());
+            }
+            return combined;
+        });
+    }
+
+    /**
+     * Gets the shard that owns a hotel.
+     *
+     * @param hotel The hotel.
+     * @return The shard, or null if the hotel is not part of this system.
+     */
+    private Shard shardOf(Hotel hotel) {
+        return shardsByHotel.get(hotel);
+    }
+
+    /**
+     * Gets the key under which a hotel name is claimed; hotel names are unique regardless of case.
+     *
+     * @param hotelName The hotel name.
+     * @return The lower-case name.
+     */
+    private static String nameKey(String hotelName) {
+        return hotelName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A shard: a HotelReservationSystem and the single thread allowed to touch it.
+     */
+    private static final class Shard {
+        private static final int SPINS_BEFORE_PARKING = 100;   // Empty polls before the thread goes to sleep
+        private static final long PARK_NANOS = 1_000_000;      // Longest sleep, in case a wake-up is missed
+
+        private final HotelReservationSystem hrs;              // The hotels owned by this shard
+        private final BoundedMpscQueue<Runnable> commands;     // Commands waiting to run
+        private final Thread thread;                           // The thread running the commands
+        private volatile boolean parked;                       // Whether the thread is asleep waiting for commands
+        private volatile boolean running;                      // Whether the shard accepts commands
+
+        /**
+         * Constructs a Shard and starts its thread.
+         *
+         * @param index         The number of the shard, used to name its thread.
+         * @param queueCapacity The number of commands that can be waiting.
+         */
+        Shard(int index, int queueCapacity) {
+            this.hrs = new HotelReservationSystem();
+            this.commands = new BoundedMpscQueue<>(queueCapacity);
+            this.running = true;
+            this.thread = new Thread(this::runCommands, "hotel-shard-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        /**
+         * Sends a command to the shard, waiting while its queue is full.
+         * A command sent from the shard's own thread runs straight away.
+         * If the shard is stopped while the command is being queued, either the shard runs it or
+         * the future fails, never both: whichever side claims the command first decides.
+         *
+         * @param command The command, given the shard's HotelReservationSystem.
+         * @param <T>     The type of the command's result.
+         * @return A future completed with the command's result, or its exception.
+         * @throws IllegalStateException If the shard has been stopped.
+         */
+        <T> CompletableFuture<T> submit(Function<HotelReservationSystem, T> command) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            AtomicBoolean claimed = new AtomicBoolean(); // Set by the side that settles the command
+            Runnable task = () -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return; // The sender already failed it because the shard was stopped
+                }
+                try {
+                    future.complete(command.apply(hrs));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            };
+
+            if (Thread.currentThread() == thread) {
+                task.run(); // Queuing behind ourselves would never finish
+                return future;
+            }
+            while (!commands.offer(task)) {
+                if (!running) {
+                    throw new IllegalStateException("Shard " + thread.getName() + " is stopped");
+                }
+                LockSupport.unpark(thread);
+                Thread.yield(); // The shard is behind; let it catch up
+            }
+            if (!running && claimed.compareAndSet(false, true)) {
+                // Stopped while we were queuing and the shard has not started the command; it may
+                // already have drained its queue, so it must not run the command later either
+                future.completeExceptionally(new IllegalStateException("Shard " + thread.getName() + " is stopped"));
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+            return future;
+        }
+
+        /**
+         * The loop of the shard thread: runs commands in order until the shard is stopped and drained.
+         */
+        private void runCommands() {
+            int idleSpins = 0;
+            while (true) {
+                Runnable task = commands.poll();
+                if (task != null) {
+                    task.run();
+                    idleSpins = 0;
+                } else if (!running) {
+                    // A command queued before the stop was seen may have arrived after the poll above
+                    for (task = commands.poll(); task != null; task = commands.poll()) {
+                        task.run();
+                    }
+                    return; // Stopped and nothing left to run
+                } else if (++idleSpins < SPINS_BEFORE_PARKING) {
+                    Thread.onSpinWait();
+                } else {
+                    // Announce the sleep before checking the queue one last time, so a sender either
+                    // sees the flag and wakes us, or its command is seen here
+                    parked = true;
+                    if (commands.isEmpty() && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        /**
+         * Stops accepting commands and wakes the thread so it can finish.
+         */
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        /**
+         * Waits for the shard thread to finish.
+         */
+        void join() {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+
+/**
+ * A read-only collection whose elements are produced by a spliterator each time it is read.
+ * <p>
+ * Nothing is copied when the view is created; iterating, streaming or counting walks the
+ * underlying data directly, and parallel streams split it with the spliterator's own
+ * {@link Spliterator#trySplit()}. Views are meant to be built over immutable data such as a
+ * {@link HotelSnapshot}, so every read of the same view sees the same elements. Any attempt
+ * to change the view throws {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class SpliteratorView<E> extends AbstractCollection<E> {
+    private final Supplier<Spliterator<E>> source; // Creates a fresh spliterator over the elements
+    private int size = -1;                          // Number of elements, -1 until known
+
+    /**
+     * Constructs a view whose size is found by counting the first time it is needed.
+     *
+     * @param source Creates a fresh spliterator over the elements on every call.
+     */
+    public SpliteratorView(Supplier<Spliterator<E>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Constructs a view whose size is already known.
+     *
+     * @param source Creates a fresh spliterator over the elements on every call.
+     * @param size   The number of elements.
+     */
+    public SpliteratorView(Supplier<Spliterator<E>> source, int size) {
+        this.source = source;
+        this.size = size;
+    }
+
+    /**
+     * Iterates over the elements. The iterator does not support removal.
+     *
+     * @return An iterator over the elements.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return Spliterators.iterator(source.get());
+    }
+
+    /**
+     * Creates a spliterator over the elements, used by {@link #stream()} and {@link #parallelStream()}.
+     *
+     * @return A fresh spliterator.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return source.get();
+    }
+
+    /**
+     * Gets the number of elements, counting them without copying the first time it is asked.
+     *
+     * @return The size of the view.
+     */
+    @Override
+    public int size() {
+        if (size < 0) {
+            Spliterator<E> elements = source.get();
+            long exactSize = elements.getExactSizeIfKnown();
+            if (exactSize < 0) {
+                long[] count = {0};
+                elements.forEachRemaining(element -> count[0]++);
+                exactSize = count[0];
+            }
+            size = (int) Math.min(Integer.MAX_VALUE, exactSize);
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the view has no elements, looking no further than the first one.
+     *
+     * @return true if the view is empty, false otherwise.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size >= 0 ? size == 0 : !source.get().tryAdvance(element -> { });
+    }
+}
@@ -0,0 +1,39 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event emitted for every button handled by a controller, covering the
+ * time the controller took to react to it, including any dialog it showed.
+ */
+@Name("hrs.UiAction")
+@Label("UI Action")
+@Category({"Hotel Reservation System", "User Interface"})
+@Description("A user action handled by a controller")
+public class UiActionEvent extends Event {
+    @Label("Screen")
+    String screen; // Screen the action happened on
+
+    @Label("Action")
+    String action; // Action that was handled
+
+    /**
+     * Runs the handler of a user action and records it as a UiActionEvent.
+     *
+     * @param screen  The screen the action happened on.
+     * @param action  The name of the action.
+     * @param handler The code handling the action.
+     */
+    public static void record(String screen, String action, Runnable handler) {
+        UiActionEvent event = new UiActionEvent();
+        event.begin();
+        try {
+            handler.run();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.screen = screen;
+                event.action = action;
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,7 +1,5 @@
 import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Controller for managing updates to hotel attributes, including changing the hotel name,
@@ -32,30 +30,30 @@ public class UpdateHotelAttributesController {
         this.selectHotelView = selectHotelView;
 
         // Add action listeners to buttons
-        this.view.getChangeHotelNameButton().addActionListener(e -> {
+        this.view.getChangeHotelNameButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "changeHotelName", () -> {
             changeHotelName(); // Call the method to change hotel name
-        });
+        }));
 
-        this.view.getAddRoomsButton().addActionListener(e -> {
+        this.view.getAddRoomsButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "addRoomsToHotel", () -> {
             addRoomsToHotel(); // Call the method to handle adding rooms
-        });
+        }));
 
-        this.view.getRemoveRoomButton().addActionListener(e -> {
+        this.view.getRemoveRoomButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "removeRoomsFromHotel", () -> {
             removeRoomsFromHotel(); // Call the method to handle removing rooms
-        });
+        }));
 
-        this.view.getUpdateBasePriceButton().addActionListener(e -> updateBasePrice());
+        this.view.getUpdateBasePriceButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "updateBasePrice", () -> updateBasePrice()));
 
-        this.view.getRemoveReservationButton().addActionListener(e -> removeReservation());
+        this.view.getRemoveReservationButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "removeReservation", () -> removeReservation()));
 
-        this.view.getRemoveHotelButton().addActionListener(e -> removeHotel());
+        this.view.getRemoveHotelButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "removeHotel", () -> removeHotel()));
 
-        this.view.getSetDatePriceModifierButton().addActionListener(e -> setDatePriceModifier());
+        this.view.getSetDatePriceModifierButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "setDatePriceModifier", () -> setDatePriceModifier()));
 
         // Add action listeners for bottom buttons
-        this.view.getBackToSelectionButton().addActionListener(e -> backToSelectionPage());
+        this.view.getBackToSelectionButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "backToSelectionPage", () -> backToSelectionPage()));
 
-        this.view.getBackToMainMenuButton().addActionListener(e -> backToMainMenu());
+        this.view.getBackToMainMenuButton().addActionListener(e -> UiActionEvent.record("UpdateHotelAttributes", "backToMainMenu", () -> backToMainMenu()));
     }
 
     /**
@@ -86,10 +84,11 @@ public class UpdateHotelAttributesController {
      */
     private void addRoomsToHotel() {
         int currentRoomCount = model.getHotel().getRoomsList().size(); // Get the current room count
+        int maxRooms = model.getHotel().getMaxRooms(); // Get the room capacity of the hotel
 
-        // Check if the hotel already has 50 rooms
-        if (currentRoomCount >= 50) {
-            JOptionPane.showMessageDialog(view, "The hotel already has 50 rooms. Cannot add more rooms.", "Error", JOptionPane.ERROR_MESSAGE);
+        // Check if the hotel is already full
+        if (currentRoomCount >= maxRooms) {
+            JOptionPane.showMessageDialog(view, "The hotel already has " + maxRooms + " rooms. Cannot add more rooms.", "Error", JOptionPane.ERROR_MESSAGE);
             return; // Exit the method if the room limit is reached
         }
 
@@ -105,7 +104,7 @@ public class UpdateHotelAttributesController {
         );
 
         if (roomType != null) { // User didn't cancel
-            int remainingRooms = 50 - currentRoomCount; // Calculate remaining room capacity
+            int remainingRooms = maxRooms - currentRoomCount; // Calculate remaining room capacity
             String message = "Enter the number of rooms to add (max. " + remainingRooms + "):";
 
             String numberOfRoomsString = JOptionPane.showInputDialog(view, message);
@@ -134,53 +133,61 @@ public class UpdateHotelAttributesController {
     }
 
     /**
-     * Removes selected rooms from the hotel, prompting the user to select which rooms to remove.
+     * Removes selected rooms from the hotel. The rooms that can be removed are narrowed down
+     * with filters on type, floor and room number and listed one page at a time, so the
+     * dialog stays responsive however many rooms the hotel has.
      */
     private void removeRoomsFromHotel() {
-        List<Room> availableRooms = model.getHotel().getRoomsList(); // Get available rooms
-
         // Check if there are no rooms in the hotel
-        if (availableRooms.isEmpty()) {
+        if (model.getHotel().getRoomsList().isEmpty()) {
             JOptionPane.showMessageDialog(view, "No rooms available for removal. The hotel has no rooms.", "Error", JOptionPane.ERROR_MESSAGE);
             return; // Exit if there are no rooms
         }
 
-        // Filter rooms without reservations
-        availableRooms = availableRooms.stream()
-                .filter(room -> room.getReservationsList().isEmpty())
-                .toList();
-
         // Check if all rooms have active reservations
-        if (availableRooms.isEmpty()) {
+        List<Room> removableRooms = model.findRemovableRooms(null, 0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE);
+        if (removableRooms.isEmpty()) {
             JOptionPane.showMessageDialog(view, "No rooms available for removal. All rooms have active reservations.", "Error", JOptionPane.ERROR_MESSAGE);
             return; // Exit if no rooms can be removed
         }
 
-        // Create a checkbox for each available room
-        JCheckBox[] checkboxes = new JCheckBox[availableRooms.size()];
-        for (int i = 0; i < availableRooms.size(); i++) {
-            checkboxes[i] = new JCheckBox(availableRooms.get(i).getName());
-        }
+        RoomRemovalView removalView = new RoomRemovalView();
+        RoomPageModel pageModel = new RoomPageModel(removalView);
+        removalView.getRoomList().setModel(pageModel);
+        pageModel.setMatches(removableRooms);
 
-        // Create a panel with a GridLayout to wrap checkboxes
-        JPanel panel = new JPanel(new GridLayout(0, 10)); // 0 rows, 10 columns
-        for (JCheckBox checkbox : checkboxes) {
-            panel.add(checkbox);
-        }
+        // Wire the filter and paging controls
+        removalView.getApplyFilterButton().addActionListener(e -> {
+            try {
+                String type = (String) removalView.getTypeComboBox().getSelectedItem();
+                pageModel.setMatches(model.findRemovableRooms(
+                        "ANY".equals(type) ? null : Room.RoomType.valueOf(type),
+                        parseBound(removalView.getFloorFromField(), 0),
+                        parseBound(removalView.getFloorToField(), Integer.MAX_VALUE),
+                        parseBound(removalView.getNumberFromField(), 0),
+                        parseBound(removalView.getNumberToField(), Integer.MAX_VALUE)));
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(removalView, "Floors and room numbers must be numbers.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+        removalView.getPreviousPageButton().addActionListener(e -> pageModel.showPage(pageModel.getPage() - 1));
+        removalView.getNextPageButton().addActionListener(e -> pageModel.showPage(pageModel.getPage() + 1));
+        removalView.getRoomList().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                pageModel.rememberSelection();
+            }
+        });
 
-        // Display the checkboxes in a dialog
-        int result = JOptionPane.showConfirmDialog(view, panel, "Select Rooms to Remove", JOptionPane.OK_CANCEL_OPTION);
+        // Display the filters and the paged list in a dialog
+        int result = JOptionPane.showConfirmDialog(view, removalView, "Select Rooms to Remove", JOptionPane.OK_CANCEL_OPTION);
         if (result != JOptionPane.OK_OPTION) {
             return; // User cancelled the dialog
         }
 
         // Collect selected rooms
-        List<Room> roomsToRemove = new ArrayList<>();
-        for (int i = 0; i < checkboxes.length; i++) {
-            if (checkboxes[i].isSelected()) {
-                roomsToRemove.add(availableRooms.get(i)); // Add selected rooms to the list
-            }
-        }
+        Collection<Room> roomsToRemove = removalView.getSelectAllMatchingCheckBox().isSelected()
+                ? pageModel.getMatches()
+                : pageModel.getSelectedRooms();
 
         if (roomsToRemove.isEmpty()) {
             JOptionPane.showMessageDialog(view, "No rooms selected for removal.", "Warning", JOptionPane.WARNING_MESSAGE);
@@ -197,6 +204,19 @@ public class UpdateHotelAttributesController {
         }
     }
 
+    /**
+     * Reads an optional numeric filter bound from a text field.
+     *
+     * @param field        The text field to read.
+     * @param defaultValue The value used when the field is empty.
+     * @return The number entered, or the default value.
+     * @throws NumberFormatException If the field contains something other than a number.
+     */
+    private static int parseBound(JTextField field, int defaultValue) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? defaultValue : Integer.parseInt(text);
+    }
+
     /**
      * Updates the base price for all rooms in the selected hotel.
      * The method checks if there are any rooms in the hotel and if there are active reservations
@@ -240,10 +260,14 @@ public class UpdateHotelAttributesController {
         if (newBasePriceString != null) { // User didn't cancel
             try {
                 double newBasePrice = Double.parseDouble(newBasePriceString);
-                if (newBasePrice < 100.0) {
+                if (!(newBasePrice >= Hotel.MIN_BASE_PRICE)) {
                     JOptionPane.showMessageDialog(view, "The base price must be at least PHP100.", "Error", JOptionPane.ERROR_MESSAGE);
                     return null; // Invalid base price
                 }
+                if (newBasePrice > Hotel.MAX_BASE_PRICE) {
+                    JOptionPane.showMessageDialog(view, String.format("The base price must be at most PHP%,.0f.", Hotel.MAX_BASE_PRICE), "Error", JOptionPane.ERROR_MESSAGE);
+                    return null; // Invalid base price
+                }
                 return newBasePrice; // Return the valid new base price
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(view, "Invalid number format. Please enter a valid base price.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -329,16 +353,28 @@ public class UpdateHotelAttributesController {
      * Prompts the user for a check-in date and the corresponding price modifier.
      */
     private void setDatePriceModifier() {
+        // Prices follow occupancy while dynamic pricing is on; offer to switch back to setting them by hand
+        if (model.getHotel().isDynamicPricing()) {
+            int choice = JOptionPane.showConfirmDialog(view,
+                    "Dynamic pricing sets the price modifiers of this hotel from occupancy.\nTurn it off to set them by hand?",
+                    "Dynamic Pricing", JOptionPane.YES_NO_OPTION);
+            if (choice != JOptionPane.YES_OPTION) {
+                return; // Keep dynamic pricing
+            }
+            model.getHotel().setDynamicPricing(false);
+        }
+
         // Prompt user to select a check-in date
-        String[] dates = new String[30];
-        for (int i = 0; i < 30; i++) {
-            dates[i] = String.valueOf(i + 1); // Create array of dates from 1 to 30
+        int horizonDays = model.getHotel().getHorizonDays();
+        String[] dates = new String[horizonDays];
+        for (int i = 0; i < horizonDays; i++) {
+            dates[i] = String.valueOf(i + 1); // Create array of dates from 1 to the end of the calendar
         }
 
         // Show input dialog for date selection
         String selectedDateString = (String) JOptionPane.showInputDialog(
                 view,
-                "Select a check-in date (1-30):",
+                "Select a check-in date (1-" + horizonDays + "):",
                 "Set Date Price Modifier",
                 JOptionPane.QUESTION_MESSAGE,
                 null,
@@ -373,18 +409,158 @@ public class UpdateHotelAttributesController {
     }
 
     /**
-     * Closes the current view and returns to the hotel selection page.
+     * Shows the view, refreshing the hotel name in case it was changed since the last visit.
+     */
+    public void show() {
+        view.setHotelName(model.getHotel().getName());
+        view.setVisible(true);
+    }
+
+    /**
+     * Releases the view once the hotel it belongs to is no longer managed.
+     */
+    public void close() {
+        view.dispose();
+    }
+
+    /**
+     * Hides the current view and returns to the hotel selection page.
      */
     private void backToSelectionPage() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         selectHotelView.setVisible(true); // Show the selection view again
     }
 
     /**
-     * Closes the current view and returns to the main menu.
+     * Hides the current view and returns to the main menu.
      */
     private void backToMainMenu() {
-        view.dispose(); // Close the current view
+        view.setVisible(false); // Hide the current view so it can be reused
         selectHotelController.goBackToMainMenu(); // Show the main menu
     }
+
+    /**
+     * List model showing one page of the rooms that match the removal filters.
+     * Only the rooms of the current page are exposed to the list, and the rooms selected
+     * on every page are remembered while the user moves between pages.
+     */
+    @SuppressWarnings("serial")
+    private static class RoomPageModel extends AbstractListModel<String> {
+        private static final int PAGE_SIZE = 100; // Number of rooms shown per page
+
+        private final RoomRemovalView removalView; // The view showing this model
+        private final Set<Room> selectedRooms; // Rooms selected on any page
+        private List<Room> matches; // Rooms matching the current filters
+        private int page; // Index of the current page, starting at 0
+        private boolean restoringSelection; // Set while the list selection is being rebuilt
+
+        /**
+         * Constructs an empty RoomPageModel for the given view.
+         *
+         * @param removalView The view showing this model.
+         */
+        RoomPageModel(RoomRemovalView removalView) {
+            this.removalView = removalView;
+            this.selectedRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.matches = List.of();
+        }
+
+        @Override
+        public int getSize() {
+            return Math.min(PAGE_SIZE, matches.size() - page * PAGE_SIZE);
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return matches.get(page * PAGE_SIZE + index).getName();
+        }
+
+        /**
+         * Replaces the matching rooms and goes back to the first page.
+         * Selected rooms that no longer match are dropped from the selection.
+         *
+         * @param matches The rooms matching the new filters.
+         */
+        void setMatches(List<Room> matches) {
+            this.matches = matches;
+            Set<Room> stillMatching = Collections.newSetFromMap(new IdentityHashMap<>());
+            stillMatching.addAll(matches);
+            selectedRooms.retainAll(stillMatching);
+            showPage(0);
+        }
+
+        /**
+         * Shows the given page if it exists.
+         *
+         * @param newPage The page to show, starting at 0.
+         */
+        void showPage(int newPage) {
+            int pageCount = Math.max(1, (matches.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+            if (newPage < 0 || newPage >= pageCount) {
+                return; // No such page
+            }
+            page = newPage;
+            fireContentsChanged(this, 0, PAGE_SIZE - 1);
+
+            // Reselect the rooms of this page that were selected earlier
+            restoringSelection = true;
+            JList<String> roomList = removalView.getRoomList();
+            roomList.clearSelection();
+            for (int i = 0; i < getSize(); i++) {
+                if (selectedRooms.contains(matches.get(page * PAGE_SIZE + i))) {
+                    roomList.addSelectionInterval(i, i);
+                }
+            }
+            restoringSelection = false;
+
+            removalView.setPageInfo(page + 1, pageCount, matches.size());
+            removalView.getPreviousPageButton().setEnabled(page > 0);
+            removalView.getNextPageButton().setEnabled(page < pageCount - 1);
+        }
+
+        /**
+         * Records which rooms of the current page are selected in the list.
+         */
+        void rememberSelection() {
+            if (restoringSelection) {
+                return; // The change comes from showPage, not from the user
+            }
+            JList<String> roomList = removalView.getRoomList();
+            for (int i = 0; i < getSize(); i++) {
+                Room room = matches.get(page * PAGE_SIZE + i);
+                if (roomList.isSelectedIndex(i)) {
+                    selectedRooms.add(room);
+                } else {
+                    selectedRooms.remove(room);
+                }
+            }
+        }
+
+        /**
+         * Gets the current page.
+         *
+         * @return The index of the current page, starting at 0.
+         */
+        int getPage() {
+            return page;
+        }
+
+        /**
+         * Gets the rooms matching the current filters.
+         *
+         * @return The matching rooms.
+         */
+        List<Room> getMatches() {
+            return matches;
+        }
+
+        /**
+         * Gets the rooms selected on any page.
+         *
+         * @return The selected rooms.
+         */
+        Set<Room> getSelectedRooms() {
+            return selectedRooms;
+        }
+    }
 }
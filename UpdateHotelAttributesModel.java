@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The UpdateHotelAttributesModel class handles the data and logic
@@ -59,6 +60,26 @@ public class UpdateHotelAttributesModel {
         return hrs; // Expose HotelReservationSystem if needed
     }
 
+    /**
+     * Finds the rooms of the hotel that can be removed, that is, rooms without reservations,
+     * narrowed down by type, floor and room number.
+     *
+     * @param type      The room type to keep, or null for every type.
+     * @param minFloor  The lowest floor to keep.
+     * @param maxFloor  The highest floor to keep.
+     * @param minNumber The lowest room number to keep.
+     * @param maxNumber The highest room number to keep.
+     * @return The matching rooms, in hotel order.
+     */
+    public List<Room> findRemovableRooms(Room.RoomType type, int minFloor, int maxFloor, int minNumber, int maxNumber) {
+        return hotel.getRoomsList().stream()
+                .filter(room -> room.getReservationsList().isEmpty())
+                .filter(room -> type == null || room.getType() == type)
+                .filter(room -> room.getFloor() >= minFloor && room.getFloor() <= maxFloor)
+                .filter(room -> room.getNumber() >= minNumber && room.getNumber() <= maxNumber)
+                .toList();
+    }
+
     /**
      * Cancels an existing reservation.
      *
@@ -66,16 +87,9 @@ public class UpdateHotelAttributesModel {
      * @return true if the reservation was successfully cancelled; false otherwise.
      */
     public boolean cancelReservation(Reservation reservation) {
-        ArrayList<Hotel> hotels = hrs.getHotelList(); // Get the list of hotels
-
-        // Iterate through each hotel to find the reservation
-        for (Hotel hotel : hotels) {
-            // Check if the reservation exists in the hotel's reservation list
-            if (hotel.getReservationsList().contains(reservation)) {
-                return hotel.cancelReservation(reservation); // Call cancelReservation from the hotel
-            }
-        }
-        return false; // Reservation not found in any hotel
+        // The reservation knows its hotel, which removes it through its slot handles without a search
+        Hotel hotel = reservation.getHotel();
+        return hrs.getHotelList().contains(hotel) && hotel.cancelReservation(reservation);
     }
 
     /**
@@ -87,13 +101,11 @@ public class UpdateHotelAttributesModel {
     public Reservation getReservationById(String reservationId) {
         ArrayList<Hotel> hotels = hrs.getHotelList(); // Get the list of hotels
 
-        // Iterate through each hotel and their reservations
+        // Look the reservation up in each hotel
         for (Hotel hotel : hotels) {
-            for (Reservation reservation : hotel.getReservationsList()) {
-                // Check if the reservation ID matches
-                if (reservation.getReservationID().equals(reservationId)) { // Assuming Reservation has a getReservationID() method
-                    return reservation; // Return the found reservation
-                }
+            Reservation reservation = hotel.findReservation(reservationId);
+            if (reservation != null) {
+                return reservation; // Return the found reservation
             }
         }
         return null; // Reservation not found
@@ -18,6 +18,7 @@ public class UpdateHotelAttributesView extends JFrame {
     private final JButton setDatePriceModifierButton; // New button for setting date price modifiers
     private final JButton backToSelectionButton; // Button to go back to hotel selection
     private final JButton backToMainMenuButton; // Button to return to the main menu
+    private final JLabel hotelNameLabel; // Label showing the name of the hotel being managed
 
     /**
      * Constructs the UpdateHotelAttributesView.
@@ -45,7 +46,8 @@ public class UpdateHotelAttributesView extends JFrame {
 
         // JLabel for ASCII art and hotel name
         JLabel asciiLabel = new JLabel(asciiArt, SwingConstants.CENTER);
-        JLabel hotelNameLabel = new JLabel("<html>The hotel being managed is hotel " + hotelName + ".<br><br> <center>Select an option to update:</center></html>", SwingConstants.CENTER);
+        hotelNameLabel = new JLabel("", SwingConstants.CENTER);
+        setHotelName(hotelName);
 
         // Initialize the message label
         JLabel messageLabel = new JLabel("", SwingConstants.CENTER);
@@ -148,6 +150,15 @@ public class UpdateHotelAttributesView extends JFrame {
         });
     }
 
+    /**
+     * Updates the hotel name shown at the top of the view.
+     *
+     * @param hotelName the name of the hotel being managed
+     */
+    public void setHotelName(String hotelName) {
+        hotelNameLabel.setText("<html>The hotel being managed is hotel " + hotelName + ".<br><br> <center>Select an option to update:</center></html>");
+    }
+
     // Getter methods for buttons to be used by controllers
 
     /**
@@ -0,0 +1,109 @@
+import javax.swing.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The ViewRegistry class keeps the screens of the application alive between visits.
+ * A screen (its controller together with its view and model) is built the first time
+ * it is requested and the same instance is returned afterwards, so navigating back to
+ * a screen only has to refresh what changed instead of rebuilding and repopulating it.
+ * <p>
+ * Screens are identified by a screen name and an optional owner, such as the hotel a
+ * hotel information screen belongs to.
+ */
+public class ViewRegistry {
+    private final Map<String, Map<Object, Object>> screens; // Built screens, by screen name and owner
+
+    /**
+     * Constructs an empty ViewRegistry.
+     */
+    public ViewRegistry() {
+        this.screens = new HashMap<>();
+    }
+
+    /**
+     * Returns the screen with the given name, building it on first use.
+     *
+     * @param screenName The name of the screen.
+     * @param factory    Builds the screen when it does not exist yet.
+     * @param <T>        The type of the screen's controller.
+     * @return The screen's controller.
+     */
+    public <T> T get(String screenName, Supplier<T> factory) {
+        return get(screenName, screenName, factory);
+    }
+
+    /**
+     * Returns the screen with the given name that belongs to the given owner,
+     * building it on first use.
+     *
+     * @param screenName The name of the screen.
+     * @param owner      The object the screen belongs to, compared by identity.
+     * @param factory    Builds the screen when it does not exist yet.
+     * @param <T>        The type of the screen's controller.
+     * @return The screen's controller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String screenName, Object owner, Supplier<T> factory) {
+        Map<Object, Object> owned = screens.computeIfAbsent(screenName, name -> new IdentityHashMap<>());
+        return (T) owned.computeIfAbsent(owner, key -> factory.get());
+    }
+
+    /**
+     * Drops the screens of the given name whose owner is no longer in the given collection.
+     *
+     * @param screenName The name of the screens to check.
+     * @param owners     The owners that are still valid.
+     * @param onEvict    Called with each dropped screen, for example to dispose its view.
+     * @param <T>        The type of the screens' controllers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void retainOwners(String screenName, Collection<?> owners, Consumer<T> onEvict) {
+        Map<Object, Object> owned = screens.get(screenName);
+        if (owned == null) {
+            return; // No screen of that name was ever built
+        }
+
+        Set<Object> validOwners = Collections.newSetFromMap(new IdentityHashMap<>());
+        validOwners.addAll(owners);
+
+        Iterator<Map.Entry<Object, Object>> iterator = owned.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Object> entry = iterator.next();
+            if (!validOwners.contains(entry.getKey())) {
+                iterator.remove();
+                onEvict.accept((T) entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Brings the items of a combo box in line with the given list, touching only the
+     * entries that differ. The current selection is left alone when it is still listed.
+     *
+     * @param comboBox The combo box to update.
+     * @param items    The items the combo box should contain, in order.
+     * @param <E>      The type of the combo box items.
+     */
+    public static <E> void syncComboBox(JComboBox<E> comboBox, List<E> items) {
+        Set<E> wanted = new HashSet<>(items);
+        int index = 0;
+
+        for (E item : items) {
+            // Drop stale entries sitting where the next wanted item should be
+            while (index < comboBox.getItemCount() && !wanted.contains(comboBox.getItemAt(index))) {
+                comboBox.removeItemAt(index);
+            }
+            if (index >= comboBox.getItemCount() || !Objects.equals(comboBox.getItemAt(index), item)) {
+                comboBox.insertItemAt(item, index); // Missing or out of place
+            }
+            index++;
+        }
+
+        // Anything past the wanted items is either stale or a duplicate
+        while (comboBox.getItemCount() > index) {
+            comboBox.removeItemAt(index);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * The waitlist of a hotel: booking requests that could not be served, indexed by room type
+ * and by date interval.
+ * <p>
+ * Each room type has its own {@link IntervalTree} of requested stays, so when a room frees
+ * some nights only the requests for that type whose stay overlaps the freed nights are looked
+ * at, however many requests are waiting.
+ */
+public class Waitlist {
+    private final EnumMap<Room.RoomType, IntervalTree<WaitlistRequest>> requestsByType; // Waiting requests per room type
+    private int size; // Number of waiting requests
+
+    /**
+     * Constructs an empty Waitlist.
+     */
+    public Waitlist() {
+        this.requestsByType = new EnumMap<>(Room.RoomType.class);
+        for (Room.RoomType type : Room.RoomType.values()) {
+            requestsByType.put(type, new IntervalTree<>());
+        }
+    }
+
+    /**
+     * Adds a request to the waitlist.
+     *
+     * @param request The request; its stay must be at least one night.
+     */
+    void add(WaitlistRequest request) {
+        request.setEntry(requestsByType.get(request.getRoomType())
+                .insert(request.getCheckInDate(), request.getCheckOutDate(), request));
+        size++;
+    }
+
+    /**
+     * Removes a request from the waitlist.
+     *
+     * @param request The request.
+     * @return true if the request was waiting, false otherwise.
+     */
+    boolean remove(WaitlistRequest request) {
+        IntervalTree.Entry<WaitlistRequest> entry = request.getEntry();
+        if (entry == null || !requestsByType.get(request.getRoomType()).remove(entry)) {
+            return false;
+        }
+        request.setEntry(null);
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the waiting requests for a room type whose stay overlaps the nights [from, to).
+     *
+     * @param type The room type.
+     * @param from The first night, inclusive.
+     * @param to   The last night, exclusive.
+     * @return The matching requests, longest waiting first.
+     */
+    public List<WaitlistRequest> findOverlapping(Room.RoomType type, int from, int to) {
+        List<IntervalTree.Entry<WaitlistRequest>> entries = new ArrayList<>();
+        requestsByType.get(type).findOverlapping(from, to, entries);
+        entries.sort(Comparator.comparingLong(IntervalTree.Entry::getSequence));
+
+        List<WaitlistRequest> requests = new ArrayList<>(entries.size());
+        for (IntervalTree.Entry<WaitlistRequest> entry : entries) {
+            requests.add(entry.getValue());
+        }
+        return requests;
+    }
+
+    /**
+     * Gets the number of waiting requests.
+     *
+     * @return The size of the waitlist.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of waiting requests for a room type.
+     *
+     * @param type The room type.
+     * @return The number of requests for that type.
+     */
+    public int size(Room.RoomType type) {
+        return requestsByType.get(type).size();
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Represents a guest waiting for a room of a given type to free up for a stay.
+ * The request is booked automatically by its {@link Hotel} when a cancellation makes room for it.
+ */
+public class WaitlistRequest {
+    private final String guestName;        // Name of the guest
+    private final int checkInDate;         // Requested check-in date
+    private final int checkOutDate;        // Requested check-out date
+    private final Room.RoomType roomType;  // Type of room wanted
+    private final String discountCode;     // Discount code to apply when booked
+    private IntervalTree.Entry<WaitlistRequest> entry; // Position of the request in the waitlist index
+    private Reservation reservation;       // Reservation made for the request, null while waiting
+
+    /**
+     * Constructs a new WaitlistRequest.
+     *
+     * @param guestName    The name of the guest.
+     * @param checkInDate  The requested check-in date.
+     * @param checkOutDate The requested check-out date.
+     * @param roomType     The type of room wanted.
+     * @param discountCode The discount code to apply when booked.
+     */
+    public WaitlistRequest(String guestName, int checkInDate, int checkOutDate, Room.RoomType roomType,
+                           String discountCode) {
+        this.guestName = guestName;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.roomType = roomType;
+        this.discountCode = discountCode;
+    }
+
+    /**
+     * Gets the name of the guest.
+     *
+     * @return The guest name.
+     */
+    public String getGuestName() {
+        return guestName;
+    }
+
+    /**
+     * Gets the requested check-in date.
+     *
+     * @return The check-in date.
+     */
+    public int getCheckInDate() {
+        return checkInDate;
+    }
+
+    /**
+     * Gets the requested check-out date.
+     *
+     * @return The check-out date.
+     */
+    public int getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    /**
+     * Gets the type of room wanted.
+     *
+     * @return The room type.
+     */
+    public Room.RoomType getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Gets the discount code to apply when booked.
+     *
+     * @return The discount code, possibly null.
+     */
+    public String getDiscountCode() {
+        return discountCode;
+    }
+
+    /**
+     * Gets the reservation made for the request.
+     *
+     * @return The reservation, or null if the request is still waiting.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Checks whether the request has been booked.
+     *
+     * @return true if a reservation was made for the request, false otherwise.
+     */
+    public boolean isFulfilled() {
+        return reservation != null;
+    }
+
+    /**
+     * Gets the position of the request in the waitlist index.
+     *
+     * @return The index entry, or null if the request is not waiting.
+     */
+    IntervalTree.Entry<WaitlistRequest> getEntry() {
+        return entry;
+    }
+
+    /**
+     * Sets the position of the request in the waitlist index.
+     *
+     * @param entry The index entry, or null once the request leaves the waitlist.
+     */
+    void setEntry(IntervalTree.Entry<WaitlistRequest> entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Records the reservation made for the request.
+     *
+     * @param reservation The reservation.
+     */
+    void setReservation(Reservation reservation) {
+        this.reservation = reservation;
+    }
+}
@@ -0,0 +1,78 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link QuoteKernel} built on the Vector API: each lane holds one room, so a single pass
+ * over the nights prices as many rooms at a time as the CPU's widest vector holds.
+ * <p>
+ * Division has no fast vector instruction, so the rounded quotient is estimated in double
+ * lanes, corrected by one in either direction from the exact long remainder, and then
+ * rounded half to even, which gives exactly the scalar result.
+ * <p>
+ * This class needs the incubating {@code jdk.incubator.vector} module, so it is kept out of
+ * the default sources in the {@code vector} directory and only built on request:
+ * <pre>
+ * javac -encoding UTF-8 -d out *.java
+ * javac -encoding UTF-8 --add-modules jdk.incubator.vector -cp out -d out vector/*.java
+ * java --add-modules jdk.incubator.vector -cp out Main
+ * </pre>
+ * Without it {@link QuoteKernel#best()} finds no such class and uses {@link ScalarQuoteKernel}.
+ */
+final class VectorQuoteKernel implements QuoteKernel {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;     // Room rates, prices and totals
+    private static final long DIVISOR = (long) Money.BASIS_POINTS * Money.BASIS_POINTS; // Rates carry two factors of basis points
+    private static final double INVERSE_DIVISOR = 1.0 / DIVISOR;                        // Estimates the quotient
+
+    @Override
+    public void quote(long[] roomRates, int[] modifiers, int nights, long[] prices, long[] totals) {
+        int rooms = roomRates.length;
+        int vectorRooms = LONGS.loopBound(rooms);
+
+        // Night by night, so that every row of both tables is read and written front to back
+        for (int night = 1; night <= nights; night++) {
+            int row = (night - 1) * rooms;
+            long modifier = modifiers[night];
+            for (int room = 0; room < vectorRooms; room += LONGS.length()) {
+                LongVector price = divideHalfEven(LongVector.fromArray(LONGS, roomRates, room).mul(modifier));
+                price.intoArray(prices, row + room);
+                LongVector.fromArray(LONGS, totals, row + room).add(price).intoArray(totals, row + rooms + room);
+            }
+            ScalarQuoteKernel.quoteNight(roomRates, modifier, rooms, prices, totals, row, vectorRooms);
+        }
+    }
+
+    /**
+     * Divides every lane by {@link #DIVISOR}, rounding half to even.
+     *
+     * @param products The non-negative lanes to divide.
+     * @return The rounded quotients.
+     */
+    private static LongVector divideHalfEven(LongVector products) {
+        DoubleVector estimate = (DoubleVector) products.convert(VectorOperators.L2D, 0);
+        LongVector quotients = (LongVector) estimate.mul(INVERSE_DIVISOR).convert(VectorOperators.D2L, 0);
+        LongVector remainders = products.sub(quotients.mul(DIVISOR));
+
+        // The estimate is off by at most one either way; fix it so that 0 <= remainder < DIVISOR
+        VectorMask<Long> tooHigh = remainders.compare(VectorOperators.LT, 0);
+        quotients = quotients.sub(1, tooHigh);
+        remainders = remainders.add(DIVISOR, tooHigh);
+        VectorMask<Long> tooLow = remainders.compare(VectorOperators.GE, DIVISOR);
+        quotients = quotients.add(1, tooLow);
+        remainders = remainders.sub(DIVISOR, tooLow);
+
+        // Round up past half way, or at exactly half way when that makes the quotient even
+        LongVector twiceRemainders = remainders.add(remainders);
+        VectorMask<Long> odd = quotients.and(1).compare(VectorOperators.NE, 0);
+        VectorMask<Long> roundUp = twiceRemainders.compare(VectorOperators.GT, DIVISOR)
+                .or(twiceRemainders.compare(VectorOperators.EQ, DIVISOR).and(odd));
+        return quotients.add(1, roundUp);
+    }
+
+    @Override
+    public String getName() {
+        return "vector x" + LONGS.length();
+    }
+}